@@ -0,0 +1,82 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.build;
+
+import com.ca.mat.application.performance.view.PluginConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The classes of commands, each one with its own time out set in the plugin configuration.
+ *
+ * @author Arthur Pessoa
+ */
+public enum CommandClass {
+
+    /**
+     * The commands that run in the local machine, e.g.: listing the zowe profiles.
+     */
+    LOCAL(30),
+    /**
+     * The commands that send a request to the mainframe or download packages, e.g.: listing the pma scope.
+     */
+    REMOTE(600),
+    /**
+     * The commands that submit a job and wait for its completion, e.g.: zowe jobs submit ds --vasc.
+     */
+    JOB(3600);
+
+    /**
+     * The default time out in seconds.
+     */
+    private final int defaultTimeout;
+
+    CommandClass(int defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    /**
+     * Get the default time out.
+     *
+     * @return the default time out in seconds
+     */
+    public int getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    /**
+     * Get the time out set in the plugin configuration, or the default when not running on the Jenkins controller.
+     *
+     * @return the time out in milliseconds, 0 means no time out
+     */
+    public long getTimeoutMillis() {
+        PluginConfiguration configuration = PluginConfiguration.getOrNull();
+        int timeout = configuration == null ? defaultTimeout : configuration.getTimeout(this);
+        return TimeUnit.SECONDS.toMillis(Math.max(timeout, 0));
+    }
+}
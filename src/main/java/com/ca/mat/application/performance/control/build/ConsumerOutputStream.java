@@ -0,0 +1,61 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.build;
+
+import hudson.console.LineTransformationOutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * This class turns the output stream of a command launched on an agent back into lines, so the output is
+ * handled the same way as the output of a command started by the controller.
+ *
+ * @author Arthur Pessoa
+ */
+public class ConsumerOutputStream extends LineTransformationOutputStream {
+
+    /**
+     * The consumer of the lines.
+     */
+    private final Consumer<String> lines;
+
+    /**
+     * The consumer output stream default constructor.
+     *
+     * @param lines - the consumer of the lines, without the line terminator
+     */
+    public ConsumerOutputStream(Consumer<String> lines) {
+        this.lines = lines;
+    }
+
+    @Override
+    protected void eol(byte[] b, int len) {
+        lines.accept(trimEOL(new String(b, 0, len, StandardCharsets.UTF_8)));
+    }
+}
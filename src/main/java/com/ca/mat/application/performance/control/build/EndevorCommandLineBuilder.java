@@ -27,21 +27,42 @@
  */
 package com.ca.mat.application.performance.control.build;
 
+import hudson.FilePath;
+import hudson.Launcher;
+
 /**
  * A line builder for Endevor access.
  *
  */
 public class EndevorCommandLineBuilder extends ZoweCommandLineBuilder {
 
+    /**
+     * The default constructor, the SCL is submitted by the builds.
+     */
+    public EndevorCommandLineBuilder() {
+        super(ZoweCommandGovernor.Priority.BACKGROUND);
+    }
+
+    /**
+     * The constructor for the build steps, the SCL is submitted from the node of the build.
+     *
+     * @param launcher  - the launcher of the build step
+     * @param workspace - the build workspace, may be null
+     */
+    public EndevorCommandLineBuilder(Launcher launcher, FilePath workspace) {
+        super(launcher, workspace);
+    }
+
     /**
      * This method submits a SCL using the endevor-for-zowe-cli plugin.
      * @param filePath - The file containing the SCL to be executed
      * @param instance - The endevor REST API instance: e.g.: WEBSMFNE
      * @return the command output
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
      */
-    public String submitSCL(String filePath, String instance) {
+    public String submitSCL(String filePath, String instance) throws InterruptedException {
         String[] parameters = {"endevor", "submit", "scl", "--sf", filePath, "--sclt", "element", "-i" , instance};
-        return getCommandOutputNoTimeout(parameters);
+        return getCommandOutputInterruptibly(CommandClass.REMOTE, parameters);
     }
 
 }
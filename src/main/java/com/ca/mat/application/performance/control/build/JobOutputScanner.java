@@ -0,0 +1,134 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.build;
+
+import com.ca.mat.application.performance.model.ZosmfJob;
+
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class extracts the job name, the executed program and the return code from the JES job output,
+ * one line at a time, so the output doesn't need to be kept in memory to be evaluated.
+ *
+ * @author Arthur Pessoa
+ */
+public class JobOutputScanner implements Consumer<String> {
+
+    /**
+     * Regex for job name JES2 output pattern.
+     */
+    private static final Pattern JOB_NAME_JES_OUTPUT_PATTERN = Pattern.compile("JOBNAME  ([a-zA-Z0-9#@$]{0,8})");
+    /**
+     * Job output pattern, EXEC PGM=...
+     */
+    private static final Pattern PROGRAM_NAME_JES_OUTPUT_PATTERN = Pattern.compile("EXEC.*PGM=([a-zA-Z0-9#@$]{1,10})");
+    /**
+     * The successful job completion message.
+     */
+    private static final String JOB_ENDED_RC0 = "ENDED - RC=0000";
+    /**
+     * The successful job return code reported by z/OSMF.
+     */
+    private static final String JOB_CC0 = "CC 0000";
+    /**
+     * The job name matcher, reused for every line.
+     */
+    private final Matcher jobnameMatcher = JOB_NAME_JES_OUTPUT_PATTERN.matcher("");
+    /**
+     * The program matcher, reused for every line.
+     */
+    private final Matcher programMatcher = PROGRAM_NAME_JES_OUTPUT_PATTERN.matcher("");
+    /**
+     * The first job name found.
+     */
+    private String jobname;
+    /**
+     * The first executed program found.
+     */
+    private String program;
+    /**
+     * Whether the job ended with return code 0.
+     */
+    private boolean successful;
+
+    @Override
+    public void accept(String line) {
+        if (jobname == null && jobnameMatcher.reset(line).find()) {
+            jobname = jobnameMatcher.group(1);
+        }
+        if (program == null && programMatcher.reset(line).find()) {
+            program = programMatcher.group(1);
+        }
+        if (!successful && line.contains(JOB_ENDED_RC0)) {
+            successful = true;
+        }
+    }
+
+    /**
+     * Evaluates the status of a completed job, when the job is polled instead of followed by its output.
+     *
+     * @param job - the completed job, e.g.: TESTJOB(JOB01234) with return code CC 0000
+     */
+    public void acceptJobStatus(ZosmfJob job) {
+        if (jobname == null) {
+            jobname = job.getJobname();
+        }
+        if (!successful && JOB_CC0.equals(job.getRetcode())) {
+            successful = true;
+        }
+    }
+
+    /**
+     * Get the job name.
+     *
+     * @return the job name, or null if not found
+     */
+    public String getJobname() {
+        return jobname;
+    }
+
+    /**
+     * Get the executed program.
+     *
+     * @return the program, or null if not found
+     */
+    public String getProgram() {
+        return program;
+    }
+
+    /**
+     * Whether the job ended with return code 0.
+     *
+     * @return true if the job ended with RC=0000
+     */
+    public boolean isSuccessful() {
+        return successful;
+    }
+}
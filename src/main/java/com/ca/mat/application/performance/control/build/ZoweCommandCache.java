@@ -0,0 +1,372 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.build;
+
+import com.ca.mat.application.performance.view.PluginConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class caches the output of the idempotent read-only zowe queries, e.g.: <b>zowe profiles list pma --rfj</b>,
+ * <b>zowe pma scope getlj</b> and <b>zowe pma scope getlp</b>, so the page views and the concurrent builds
+ * don't repeat the same mainframe round trips.
+ *
+ * <p>The entries are keyed by the normalized command, the profile it runs against and the node it runs on, as
+ * every agent has its own zowe profiles. They expire after the time to live set in the plugin configuration, and
+ * the least recently used entry is evicted when the cache is full.
+ * The commands that change the profiles or the scope must be reported with {@link #invalidate(List)}. A query
+ * running while its group is invalidated may return the output from before the change, so its output is cached
+ * only if the {@link #getEpoch(List) epoch} of its group did not change while it ran.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ZoweCommandCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZoweCommandCache.class);
+    /**
+     * The maximum number of cached outputs.
+     */
+    private static final int MAX_ENTRIES = 256;
+    /**
+     * The default time to live in seconds.
+     */
+    public static final int DEFAULT_TTL = 60;
+    /**
+     * The profile of the commands without a profile option.
+     */
+    private static final String DEFAULT_PROFILE = "default";
+    /**
+     * The node of the commands run on the controller.
+     */
+    public static final String CONTROLLER = "";
+    /**
+     * The cacheable queries, without the zowe executable.
+     */
+    private static final List<List<String>> QUERIES = Arrays.asList(
+            Arrays.asList("profiles", "list"),
+            Arrays.asList("pma", "scope", "getlj"),
+            Arrays.asList("pma", "scope", "getlp"));
+    /**
+     * The singleton instance.
+     */
+    private static final ZoweCommandCache INSTANCE = new ZoweCommandCache();
+    /**
+     * The cached outputs in access order, the eldest entry is the least recently used.
+     */
+    private final Map<String, CachedOutput> outputs = new LinkedHashMap<String, CachedOutput>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedOutput> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * The number of times the whole cache was invalidated, e.g.: after a change of the profiles.
+     */
+    private long generation;
+    /**
+     * The number of invalidations, the epoch of the invalidation of the whole cache or of a group is the value the
+     * count had after it.
+     */
+    private long invalidations;
+    /**
+     * The epoch of the last invalidation of the whole cache.
+     */
+    private long invalidatedAll;
+    /**
+     * The epochs of the last invalidations of the command groups, by group, e.g.: "pma scope ".
+     */
+    private final Map<String, Long> invalidatedGroups = new HashMap<>();
+
+    private ZoweCommandCache() {
+    }
+
+    /**
+     * Get the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ZoweCommandCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns whether the output of the command can be cached.
+     *
+     * @param command - the executable followed by its arguments, e.g.: [zowe, pma, scope, getlj]
+     * @return true if the command is a read-only query and the cache is enabled
+     */
+    public boolean isCacheable(List<String> command) {
+        if (getTimeToLive() == 0) {
+            return false;
+        }
+        List<String> words = normalize(command);
+        for (List<String> query : QUERIES) {
+            if (words.size() >= query.size() && words.subList(0, query.size()).equals(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cached output of the command.
+     *
+     * @param node    - the name of the node the command runs on, {@link #CONTROLLER} for the controller
+     * @param command - the executable followed by its arguments
+     * @return the cached output, or null if not cached or expired
+     */
+    public synchronized String getOutput(String node, List<String> command) {
+        String key = getKey(node, command);
+        CachedOutput cached = outputs.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (isExpired(cached.created)) {
+            outputs.remove(key);
+            return null;
+        }
+        return cached.output;
+    }
+
+    /**
+     * Get the epoch of the cached outputs of the group of the command, which changes with every invalidation of
+     * the group or of the whole cache. The epoch is read before the command runs, and given back to
+     * {@link #putOutput(String, List, String, long)} when it ends.
+     *
+     * @param command - the executable followed by its arguments
+     * @return the epoch
+     */
+    public synchronized long getEpoch(List<String> command) {
+        Long group = invalidatedGroups.get(getGroup(normalize(command)));
+        return group == null ? invalidatedAll : Math.max(group, invalidatedAll);
+    }
+
+    /**
+     * Caches the output of a successful command, unless its group was invalidated while it ran: the output may
+     * be older than the change.
+     *
+     * @param node    - the name of the node the command ran on, {@link #CONTROLLER} for the controller
+     * @param command - the executable followed by its arguments
+     * @param output  - the command output
+     * @param epoch   - the epoch of the command group read before the command ran, see {@link #getEpoch(List)}
+     * @return true if the output is cached
+     */
+    public synchronized boolean putOutput(String node, List<String> command, String output, long epoch) {
+        if (getEpoch(command) != epoch) {
+            LOGGER.info("Not caching the output of command " + command + ", its queries were invalidated meanwhile");
+            return false;
+        }
+        outputs.put(getKey(node, command), new CachedOutput(output));
+        return true;
+    }
+
+    /**
+     * Invalidates the cached queries affected by a mutating command. The changes on the profiles invalidate
+     * the whole cache, since the default profile used by the other queries may have changed.
+     *
+     * @param command - the mutating command, e.g.: [zowe, pma, scope, incj, JOB1] or [zowe, profiles, create, ...]
+     */
+    public synchronized void invalidate(List<String> command) {
+        List<String> words = normalize(command);
+        if (words.size() < 2 || "profiles".equals(words.get(0)) || "config".equals(words.get(0))) {
+            invalidateAll();
+            return;
+        }
+        // e.g.: zowe pma scope incj invalidates zowe pma scope getlj and getlp
+        String group = getGroup(words);
+        invalidatedGroups.put(group, ++invalidations);
+        int removed = 0;
+        for (Iterator<String> keys = outputs.keySet().iterator(); keys.hasNext(); ) {
+            if (keys.next().startsWith(group)) {
+                keys.remove();
+                removed++;
+            }
+        }
+        LOGGER.info(String.format("Invalidated %d cached %s queries", removed, group.trim()));
+    }
+
+    /**
+     * Invalidates the whole cache.
+     */
+    public synchronized void invalidateAll() {
+        outputs.clear();
+        generation++;
+        invalidatedAll = ++invalidations;
+        // the epoch of the whole cache is the latest of every group
+        invalidatedGroups.clear();
+    }
+
+    /**
+     * Get the number of times the whole cache was invalidated, so that the values derived from the cached
+     * queries (e.g.: the profiles read from the profile store) can tell whether they are still valid.
+     *
+     * @return the generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns whether a value created at the given time outlived the time to live of the cache.
+     *
+     * @param created - the creation time, in nanoseconds
+     * @return true if the value expired or the cache is disabled
+     */
+    public boolean isExpired(long created) {
+        return System.nanoTime() - created > getTimeToLive();
+    }
+
+    private long getTimeToLive() {
+        PluginConfiguration configuration = PluginConfiguration.getOrNull();
+        int ttl = configuration == null ? DEFAULT_TTL : configuration.getCacheTtl();
+        return TimeUnit.SECONDS.toNanos(Math.max(ttl, 0));
+    }
+
+    /**
+     * Returns the profile the command runs against.
+     *
+     * @param command - the executable followed by its arguments
+     * @return the profile given on the command, e.g.: --pma-p PMA1, or null for the default profile
+     */
+    static String getProfile(List<String> command) {
+        List<String> words = normalize(command);
+        for (int i = 0; i < words.size() - 1; i++) {
+            if (isProfileOption(words.get(i))) {
+                return words.get(i + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type of the profile the command runs against, from its profile option or its command group.
+     *
+     * @param command - the executable followed by its arguments
+     * @return the profile type, e.g.: pma for --pma-p PMA1 or zowe pma scope getlj, zosmf for zowe jobs sub ds
+     */
+    static String getProfileType(List<String> command) {
+        List<String> words = normalize(command);
+        for (String word : words) {
+            // e.g.: --pma-profile, --pma-p, but not the generic --profile
+            int end = word.endsWith("-profile") ? word.length() - "-profile".length() : word.length() - "-p".length();
+            if (isProfileOption(word) && end > "--".length()) {
+                return word.substring("--".length(), end);
+            }
+        }
+        String group = words.isEmpty() ? "" : words.get(0);
+        return "pma".equals(group) || "endevor".equals(group) ? group : "zosmf";
+    }
+
+    /**
+     * Returns the key of the command, the normalized command followed by the profile it runs against and the
+     * node it runs on. The key starts with the command, so the invalidation of a group reaches every node.
+     *
+     * @param node    - the name of the node the command runs on
+     * @param command - the executable followed by its arguments
+     * @return the key, e.g.: "pma scope getlj | default | agent1"
+     */
+    private static String getKey(String node, List<String> command) {
+        List<String> words = normalize(command);
+        String profile = DEFAULT_PROFILE;
+        List<String> arguments = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            if (isProfileOption(word) && i + 1 < words.size()) {
+                profile = words.get(++i);
+            } else {
+                arguments.add(word);
+            }
+        }
+        return String.join(" ", arguments) + " | " + profile + " | " + node;
+    }
+
+    /**
+     * Returns the command without the zowe executable, the blank arguments and the surrounding blanks.
+     * The command groups and options are lower cased, the values are kept as they are.
+     *
+     * @param command - the executable followed by its arguments
+     * @return the normalized words, e.g.: [pma, scope, getlj]
+     */
+    private static List<String> normalize(List<String> command) {
+        List<String> words = new ArrayList<>(command.size());
+        for (int i = 0; i < command.size(); i++) {
+            String word = command.get(i).trim();
+            if (word.isEmpty() || i == 0 && ZoweProcessLauncher.ZOWE.equals(word)) {
+                continue;
+            }
+            boolean option = word.startsWith("-");
+            boolean value = !words.isEmpty() && words.get(words.size() - 1).startsWith("-");
+            words.add(option || !value && isKeyword(words.size()) ? word.toLowerCase(Locale.ENGLISH) : word);
+        }
+        return words;
+    }
+
+    private static String getGroup(List<String> words) {
+        // the command group and the command, e.g.: "pma scope "
+        return words.size() < 2 ? "" : words.get(0) + ' ' + words.get(1) + ' ';
+    }
+
+    private static boolean isKeyword(int position) {
+        // the command group, the command and the sub command, e.g.: pma scope getlj
+        return position < 3;
+    }
+
+    private static boolean isProfileOption(String option) {
+        // e.g.: --profile, --pma-profile, --pma-p, --zosmf-p
+        return option.startsWith("--") && (option.endsWith("-profile") || option.endsWith("-p"));
+    }
+
+    /**
+     * A cached command output with its creation time.
+     */
+    private static final class CachedOutput {
+        /**
+         * The command output.
+         */
+        private final String output;
+        /**
+         * The creation time, in nanoseconds.
+         */
+        private final long created = System.nanoTime();
+
+        private CachedOutput(String output) {
+            this.output = output;
+        }
+    }
+}
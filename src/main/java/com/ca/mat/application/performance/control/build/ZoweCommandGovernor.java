@@ -0,0 +1,376 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.build;
+
+import com.ca.mat.application.performance.control.future.ProfileStore;
+import com.ca.mat.application.performance.view.PluginConfiguration;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class limits how many zowe commands the plugin runs at once, across the page views and the builds.
+ *
+ * <p>Every command takes a permit of a fair plugin-wide semaphore. The background commands (e.g.: the builds)
+ * also take a permit of a smaller semaphore, so some permits are always left for the interactive commands
+ * (e.g.: the configuration pages). The commands that reach the mainframe also take a permit of their LPAR, the
+ * host of their profile, so a single LPAR is not flooded by the concurrent builds; a share of these permits is
+ * reserved for the interactive commands the same way. The commands that run on an agent only take the permits
+ * of their LPAR, as they don't load the controller. The job commands, which mostly wait for the job completion,
+ * are not limited per LPAR.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ZoweCommandGovernor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZoweCommandGovernor.class);
+    /**
+     * The default maximum number of concurrent zowe commands.
+     */
+    public static final int DEFAULT_MAX_COMMANDS = 8;
+    /**
+     * The default maximum number of concurrent zowe commands per profile.
+     */
+    public static final int DEFAULT_MAX_COMMANDS_PER_PROFILE = 4;
+    /**
+     * The wait time from which the queued command is logged.
+     */
+    private static final long SLOW_QUEUE = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * The singleton instance.
+     */
+    private static final ZoweCommandGovernor INSTANCE = new ZoweCommandGovernor();
+    /**
+     * The suffix of the default profile name, as listed by zowe profiles list.
+     */
+    private static final String DEFAULT_SUFFIX = " (default)";
+    /**
+     * The permits of all the commands.
+     */
+    private Semaphore commands;
+    /**
+     * The permits of the background commands.
+     */
+    private Semaphore backgroundCommands;
+    /**
+     * The permits of the commands per LPAR.
+     */
+    private final ConcurrentMap<String, Limit> profileCommands = new ConcurrentHashMap<>();
+    /**
+     * The maximum number of concurrent commands the semaphores were created with.
+     */
+    private int maxCommands;
+    /**
+     * The maximum number of concurrent commands per profile the semaphores were created with.
+     */
+    private int maxCommandsPerProfile;
+    /**
+     * The number of queued commands.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+    /**
+     * The number of running commands.
+     */
+    private final AtomicInteger running = new AtomicInteger();
+    /**
+     * The number of commands that got a permit.
+     */
+    private final AtomicLong admitted = new AtomicLong();
+    /**
+     * The total time spent in the queue, in nanoseconds.
+     */
+    private final AtomicLong totalQueueTime = new AtomicLong();
+    /**
+     * The maximum time spent in the queue, in nanoseconds.
+     */
+    private final AtomicLong maxQueueTime = new AtomicLong();
+
+    /**
+     * The priority of a command.
+     */
+    public enum Priority {
+        /**
+         * A user is waiting for the command, e.g.: a configuration page.
+         */
+        INTERACTIVE,
+        /**
+         * A build or a background task is waiting for the command.
+         */
+        BACKGROUND
+    }
+
+    private ZoweCommandGovernor() {
+    }
+
+    /**
+     * Get the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ZoweCommandGovernor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits for the permits to run the command.
+     *
+     * @param command      - the executable followed by its arguments, e.g.: [zowe, pma, scope, getlj]
+     * @param commandClass - the command class, the local and the job commands are not limited per LPAR
+     * @param priority     - the command priority
+     * @return the permit, to be closed when the command completes
+     * @throws InterruptedException if the thread is interrupted while waiting, e.g.: the build is aborted
+     */
+    public Permit acquire(List<String> command, CommandClass commandClass, Priority priority)
+            throws InterruptedException {
+        return acquire(command, commandClass, priority, true);
+    }
+
+    /**
+     * Waits for the permits of the LPAR to run the command on an agent. The controller-wide limits are not
+     * applied, so the load of the builds scales out across the agents.
+     *
+     * @param command      - the executable followed by its arguments, e.g.: [zowe, pma, scope, getlj]
+     * @param commandClass - the command class, the local and the job commands are not limited per LPAR
+     * @return the permit, to be closed when the command completes
+     * @throws InterruptedException if the thread is interrupted while waiting, e.g.: the build is aborted
+     */
+    public Permit acquireOnAgent(List<String> command, CommandClass commandClass) throws InterruptedException {
+        return acquire(command, commandClass, Priority.BACKGROUND, false);
+    }
+
+    private Permit acquire(List<String> command, CommandClass commandClass, Priority priority, boolean controller)
+            throws InterruptedException {
+        Semaphore all;
+        Semaphore background;
+        int perProfile;
+        synchronized (this) {
+            configure();
+            all = controller ? commands : null;
+            background = controller && priority == Priority.BACKGROUND ? backgroundCommands : null;
+            perProfile = maxCommandsPerProfile;
+        }
+        // the job commands hold their permits until the job completes, which would starve the other commands
+        Limit profile = commandClass != CommandClass.REMOTE ? null
+                : profileCommands.computeIfAbsent(getLpar(command), key -> new Limit(perProfile));
+        long start = System.nanoTime();
+        queued.incrementAndGet();
+        Permit permit = new Permit();
+        try {
+            // the priority permits first and the same order everywhere, so a background command never holds the
+            // share reserved for the interactive ones, and the commands never wait for each other in a cycle
+            if (priority == Priority.BACKGROUND && profile != null) {
+                permit.take(profile.backgroundCommands);
+            }
+            permit.take(background);
+            permit.take(profile == null ? null : profile.commands);
+            permit.take(all);
+        } catch (InterruptedException e) {
+            permit.close();
+            throw e;
+        } finally {
+            queued.decrementAndGet();
+        }
+        long queueTime = System.nanoTime() - start;
+        admitted.incrementAndGet();
+        totalQueueTime.addAndGet(queueTime);
+        maxQueueTime.accumulateAndGet(queueTime, Math::max);
+        running.incrementAndGet();
+        permit.running = true;
+        if (queueTime > SLOW_QUEUE) {
+            LOGGER.info(String.format("The command %s waited %d ms for a permit, %d commands are queued", command,
+                    TimeUnit.NANOSECONDS.toMillis(queueTime), queued.get()));
+        }
+        return permit;
+    }
+
+    /**
+     * Returns the LPAR the command runs against, the host of its profile, so the profiles of the same LPAR share
+     * their permits. The profile is looked up in the profile store of the zowe home directory.
+     *
+     * @param command - the executable followed by its arguments, e.g.: [zowe, pma, scope, getlj, --pma-p, PMA1]
+     * @return the host of the profile, or the profile type and name when the host is not known, e.g.: pma PMA1
+     */
+    static String getLpar(List<String> command) {
+        String type = ZoweCommandCache.getProfileType(command);
+        String name = ZoweCommandCache.getProfile(command);
+        JSONArray profiles = ProfileStore.get().getProfiles(type);
+        if (profiles != null) {
+            for (Object item : profiles) {
+                JSONObject profile = (JSONObject) item;
+                // the default profile is listed as e.g.: zosmf1 (default)
+                String profileName = profile.getString("name");
+                boolean isDefault = profileName.endsWith(DEFAULT_SUFFIX);
+                if (isDefault) {
+                    profileName = profileName.substring(0, profileName.length() - DEFAULT_SUFFIX.length());
+                }
+                if (name == null ? isDefault : name.equals(profileName)) {
+                    String host = profile.getJSONObject("profile").optString("host", "");
+                    return host.isEmpty() ? type + ' ' + profileName : host.toLowerCase(Locale.ENGLISH);
+                }
+            }
+        }
+        return type + ' ' + (name == null ? "(default)" : name);
+    }
+
+    /**
+     * Get the number of commands waiting for a permit.
+     *
+     * @return the queue length
+     */
+    public int getQueueLength() {
+        return queued.get();
+    }
+
+    /**
+     * Get the number of running commands.
+     *
+     * @return the running commands
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * Get the average time the commands waited for a permit.
+     *
+     * @return the average queue time in milliseconds
+     */
+    public long getAverageQueueTime() {
+        long count = admitted.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueTime.get() / count);
+    }
+
+    /**
+     * Get the longest time a command waited for a permit.
+     *
+     * @return the maximum queue time in milliseconds
+     */
+    public long getMaxQueueTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueTime.get());
+    }
+
+    /**
+     * Returns the permits of the background commands, a quarter of the permits, at least one, being reserved for
+     * the interactive commands unless there is a single permit.
+     *
+     * @param max - the maximum number of concurrent commands
+     * @return the maximum number of concurrent background commands
+     */
+    private static int getBackgroundPermits(int max) {
+        return Math.max(1, max - Math.max(1, max / 4));
+    }
+
+    /**
+     * Reads the limits from the plugin configuration. When they change, the new commands use new semaphores
+     * while the running ones release the permits they took.
+     */
+    private void configure() {
+        PluginConfiguration configuration = PluginConfiguration.getOrNull();
+        int max = Math.max(1, configuration == null ? DEFAULT_MAX_COMMANDS : configuration.getMaxCommands());
+        int perProfile = Math.max(1, configuration == null ? DEFAULT_MAX_COMMANDS_PER_PROFILE
+                : configuration.getMaxCommandsPerProfile());
+        if (commands == null || max != maxCommands) {
+            maxCommands = max;
+            commands = new Semaphore(max, true);
+            backgroundCommands = new Semaphore(getBackgroundPermits(max), true);
+        }
+        if (perProfile != maxCommandsPerProfile) {
+            // the running commands release the permits of the old limits
+            maxCommandsPerProfile = perProfile;
+            profileCommands.clear();
+        }
+    }
+
+    /**
+     * The permits of the commands of an LPAR.
+     */
+    private static final class Limit {
+        /**
+         * The permits of all the commands.
+         */
+        private final Semaphore commands;
+        /**
+         * The permits of the background commands.
+         */
+        private final Semaphore backgroundCommands;
+
+        private Limit(int max) {
+            commands = new Semaphore(max, true);
+            backgroundCommands = new Semaphore(getBackgroundPermits(max), true);
+        }
+    }
+
+    /**
+     * The permits taken by a command.
+     */
+    public final class Permit implements AutoCloseable {
+        /**
+         * The semaphores the permits were taken from, in order.
+         */
+        private final Semaphore[] taken = new Semaphore[4];
+        /**
+         * The number of permits taken.
+         */
+        private int count;
+        /**
+         * Whether the command is counted as running.
+         */
+        private boolean running;
+
+        private Permit() {
+        }
+
+        private void take(Semaphore semaphore) throws InterruptedException {
+            if (semaphore != null) {
+                semaphore.acquire();
+                taken[count++] = semaphore;
+            }
+        }
+
+        @Override
+        public void close() {
+            while (count > 0) {
+                taken[--count].release();
+            }
+            if (running) {
+                running = false;
+                ZoweCommandGovernor.this.running.decrementAndGet();
+            }
+        }
+    }
+}
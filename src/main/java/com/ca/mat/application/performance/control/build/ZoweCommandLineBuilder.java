@@ -28,6 +28,15 @@
 package com.ca.mat.application.performance.control.build;
 
 import com.ca.mat.application.performance.model.CommandResponse;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.Proc;
+import hudson.remoting.Channel;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.security.MasterToSlaveCallable;
+import jenkins.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,163 +45,537 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * This a builder class that helps to constructs, execute and handle zowe commands using ProcessBuilder.
  *
+ * <p>Every command runs with the time out of its {@link CommandClass}, set in the plugin configuration.
+ * The caller returns as soon as the command completes; when the time out expires or the calling thread
+ * is interrupted (e.g.: the build is aborted), the whole process tree of the command is killed.
+ * The number of concurrent commands is limited by the {@link ZoweCommandGovernor}.
+ *
+ * <p>When built with a {@link Launcher}, e.g.: the launcher of a build step, the commands run on the node of
+ * the build through {@link Launcher#launch()}, so the load of the builds scales out across the agents.
+ *
  * @author Arthur Pessoa
  */
 
 public class ZoweCommandLineBuilder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ZoweCommandLineBuilder.class);
+    /**
+     * The exit status reported when the command times out.
+     */
+    public static final int TIMED_OUT = -1;
+    /**
+     * The time given to the output streams to be drained after the command completes.
+     */
+    private static final long DRAIN_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+    /**
+     * The threads that drain the command output streams.
+     */
+    private static final ExecutorService DRAINERS = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), "zowe-output"));
+    /**
+     * The priority of the commands on the {@link ZoweCommandGovernor}.
+     */
+    private final ZoweCommandGovernor.Priority priority;
+    /**
+     * The launcher of the node the commands run on, null to run them on the controller.
+     */
+    private final Launcher launcher;
+    /**
+     * The working directory of the commands on the node, may be null.
+     */
+    private final FilePath workspace;
+
+    /**
+     * The default constructor, for the commands a user is waiting for, e.g.: the configuration pages.
+     */
+    public ZoweCommandLineBuilder() {
+        this(ZoweCommandGovernor.Priority.INTERACTIVE);
+    }
+
+    /**
+     * The constructor with the priority of the commands.
+     *
+     * @param priority - the priority, e.g.: {@link ZoweCommandGovernor.Priority#BACKGROUND} for the builds
+     */
+    public ZoweCommandLineBuilder(ZoweCommandGovernor.Priority priority) {
+        this.priority = priority;
+        this.launcher = null;
+        this.workspace = null;
+    }
+
+    /**
+     * The constructor for the build steps, the commands run on the node of the build with the background priority.
+     *
+     * @param launcher  - the launcher of the build step, which starts the commands on the build node
+     * @param workspace - the build workspace, the working directory of the commands, may be null
+     */
+    public ZoweCommandLineBuilder(Launcher launcher, FilePath workspace) {
+        this.priority = ZoweCommandGovernor.Priority.BACKGROUND;
+        this.launcher = launcher;
+        this.workspace = workspace;
+    }
 
     /**
      * This method submits a command on the zowe cli and returns the command output as string.
-     * The program waits for the execution and doesn't time out. This method is intended for
-     * commands that do not hold the main thread, and can be stopped by the user.
+     * The command is killed when the time out of the command class expires, the output then ends
+     * with an error message.
      *
-     * @param parameters - the command parameters and arguments, e.g.: [zowe, jobs, submit, ds] ...
+     * @param commandClass - the command class, which defines the time out
+     * @param parameters   - the command parameters and arguments, e.g.: [zowe, jobs, submit, ds] ...
      * @return the command output
      */
-    public String getCommandOutputNoTimeout(String... parameters) {
-        return getCommandResponse(parameters);
+    public String getCommandOutput(CommandClass commandClass, String... parameters) {
+        return getCommandOutput(commandClass, getZoweCommand(parameters));
+    }
+
+    /**
+     * This method submits a command and returns the command output as string.
+     * The command is killed when the time out of the command class expires, the output then ends
+     * with an error message.
+     *
+     * @param commandClass - the command class, which defines the time out
+     * @param command      - the executable followed by its arguments, e.g.: [zowe, jobs, submit, ds] ...
+     * @return the command output
+     */
+    public String getCommandOutput(CommandClass commandClass, List<String> command) {
+        try {
+            return getCommandOutputInterruptibly(commandClass, command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("an error occured while reading the output from the zowe command.", e);
+        }
     }
 
     /**
      * This method submits a command on the zowe cli and returns the command output as string.
-     * The program waits for the execution and doesn't time out. This method is intended for
-     * commands that do not hold the main thread, and can be stopped by the user.
+     * This method is intended for the build steps, the interruption of the build is propagated
+     * after the command is killed.
      *
-     * @param cli - the command parameters and arguments, e.g.: zowe jobs submit ds ...
+     * @param commandClass - the command class, which defines the time out
+     * @param parameters   - the command parameters and arguments, e.g.: [zowe, pma, get, perf] ...
      * @return the command output
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    public String getCommandOutputInterruptibly(CommandClass commandClass, String... parameters)
+            throws InterruptedException {
+        return getCommandOutputInterruptibly(commandClass, getZoweCommand(parameters));
+    }
+
+    /**
+     * This method submits a command and returns the command output as string.
+     * This method is intended for the build steps, the interruption of the build is propagated
+     * after the command is killed. The output of the read-only queries is served from the
+     * {@link ZoweCommandCache} while it is fresh.
+     *
+     * @param commandClass - the command class, which defines the time out
+     * @param command      - the executable followed by its arguments, e.g.: [zowe, pma, get, perf] ...
+     * @return the command output
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    public String getCommandOutputInterruptibly(CommandClass commandClass, List<String> command)
+            throws InterruptedException {
+        try {
+            return getQueryResponse(commandClass, command).getMessage();
+        } catch (IOException e) {
+            // without a shell, a missing executable fails here instead of writing to the error stream
+            LOGGER.info("Could not start the command " + command, e);
+            return "Error: " + command.get(0) + " is not recognized as an executable command. " + e.getMessage();
+        }
+    }
+
+    /**
+     * This method submits a command and returns its exit status with the command output followed by the error
+     * output, so the caller can tell a complete output from a failed or timed out one. The output of the
+     * read-only queries is served from the {@link ZoweCommandCache} while it is fresh, with a 0 status as only the
+     * successful outputs are cached.
+     *
+     * @param commandClass - the command class, which defines the time out
+     * @param command      - the executable followed by its arguments, e.g.: [zowe, pma, scope, getlj]
+     * @return the command response, with the {@link #TIMED_OUT} status if the command timed out
+     * @throws InterruptedException if the thread is interrupted
      */
-    public String getCommandOutputNoTimeout(String cli) {
-        return getCommandResponse(cli);
+    public CommandResponse getCachedCommandResponse(CommandClass commandClass, List<String> command)
+            throws InterruptedException {
+        try {
+            return getQueryResponse(commandClass, command);
+        } catch (IOException e) {
+            throw new RuntimeException("An I/O exception occurred while executing executing the zowe command", e);
+        }
+    }
+
+    private CommandResponse getQueryResponse(CommandClass commandClass, List<String> command)
+            throws IOException, InterruptedException {
+        ZoweCommandCache cache = ZoweCommandCache.get();
+        boolean cacheable = cache.isCacheable(command);
+        if (cacheable) {
+            String cached = cache.getOutput(getNode(), command);
+            if (cached != null) {
+                LOGGER.info("Using the cached output of command: " + command);
+                return new CommandResponse(0, cached);
+            }
+        }
+        LOGGER.info("Executing command: " + command);
+        // an output read while the query is invalidated is not cached
+        long epoch = cacheable ? cache.getEpoch(command) : 0;
+        StringBuilder output = new StringBuilder();
+        StringBuilder error = new StringBuilder();
+        int status = execute(command, commandClass,
+                line -> output.append(line).append(System.lineSeparator()),
+                line -> error.append(line).append(System.lineSeparator()));
+        String result = output + System.lineSeparator() + error;
+        if (cacheable && status == 0) {
+            cache.putOutput(getNode(), command, result, epoch);
+        }
+        return new CommandResponse(status, result);
     }
 
     /**
      * This method submits a command on the zowe cli and returns the command output as CommandResponse.
-     * The method time outs after three seconds, used for operations that does not need internet protocols
-     * and run in the local machine. (e.g.: retrieving zowe profiles)
+     * The method uses the time out of the local commands, used for operations that does not need internet
+     * protocols and run in the local machine. (e.g.: retrieving zowe profiles)
      *
      * @param parameters - the command parameters and arguments, e.g.: [zowe, jobs, submit, ds] ...
      * @return the command output
      */
     public CommandResponse getCommandOutput(String... parameters) {
-        Process p = getExecutedProcess(parameters);
-        return getCommandResponse(p);
+        return getCommandResponse(getZoweCommand(parameters));
+    }
+
+    /**
+     * This method submits a command on the zowe cli and returns the command output as CommandResponse:
+     * the output on success, the error output otherwise. Intended for the commands with a JSON response,
+     * e.g.: zowe jobs submit data-set ... --rfj.
+     *
+     * @param commandClass - the command class, which defines the time out
+     * @param parameters   - the command parameters and arguments, e.g.: [zowe, jobs, submit, data-set] ...
+     * @return the command response
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    public CommandResponse getCommandResponse(CommandClass commandClass, String... parameters)
+            throws InterruptedException {
+        return getCommandResponse(commandClass, getZoweCommand(parameters));
     }
 
     /**
      * This method submits a command on the zowe cli and returns the command output as CommandResponse.
-     * The method time outs after three seconds, used for operations that does not need internet protocols
-     * and run in the local machine. (e.g.: retrieving zowe profiles)
+     * The method uses the time out of the local commands, used for operations that does not need internet
+     * protocols and run in the local machine. (e.g.: retrieving zowe profiles)
      *
      * @param cli - the command parameters and arguments, e.g.: zowe jobs submit ds...
      * @return the command output
      */
     public CommandResponse getCommandOutput(String cli) {
-        Process p = getExecutedProcess(cli);
-        return getCommandResponse(p);
+        return getCommandResponse(splitCommandLine(cli));
+    }
+
+    /**
+     * This method submits a command on the zowe cli and streams the command output, line by line, as it arrives.
+     * Both the output and the error streams are drained concurrently into the consumer, so the command never
+     * stalls on a full pipe and the caller doesn't need to keep the whole output in memory.
+     *
+     * @param commandClass - the command class, which defines the time out
+     * @param lines        - the consumer of the output lines, e.g.: the build console
+     * @param parameters   - the command parameters and arguments, e.g.: [zowe, jobs, submit, ds] ...
+     * @return the command exit status, {@link #TIMED_OUT} if the command timed out
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    public int streamCommandOutput(CommandClass commandClass, Consumer<String> lines, String... parameters)
+            throws InterruptedException {
+        return streamCommandOutput(commandClass, lines, getZoweCommand(parameters));
+    }
+
+    /**
+     * This method submits a command and streams the command output, line by line, as it arrives.
+     *
+     * @param commandClass - the command class, which defines the time out
+     * @param lines        - the consumer of the output lines, e.g.: the build console
+     * @param command      - the executable followed by its arguments, e.g.: [zowe, jobs, submit, ds] ...
+     * @return the command exit status, {@link #TIMED_OUT} if the command timed out
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    public int streamCommandOutput(CommandClass commandClass, Consumer<String> lines, List<String> command)
+            throws InterruptedException {
+        Consumer<String> synchronizedLines = line -> {
+            synchronized (lines) {
+                lines.accept(line);
+            }
+        };
+        try {
+            return execute(command, commandClass, synchronizedLines, synchronizedLines);
+        } catch (IOException e) {
+            throw new RuntimeException("An I/O exception occurred while executing executing the zowe command", e);
+        }
     }
 
-    private CommandResponse getCommandResponse(Process p) {
-        BufferedReader reader = null;
+    /**
+     * This method submits a command and streams the command output and the error output, line by line, as they
+     * arrive, into separate consumers, e.g.: the output is parsed while the errors are kept for the failure
+     * message. Each consumer is called by one thread at a time.
+     *
+     * @param commandClass - the command class, which defines the time out
+     * @param lines        - the consumer of the output lines
+     * @param errors       - the consumer of the error lines
+     * @param command      - the executable followed by its arguments, e.g.: [zowe, pma, scope, getlj]
+     * @return the command exit status, {@link #TIMED_OUT} if the command timed out
+     * @throws InterruptedException if the thread is interrupted
+     */
+    public int streamCommandOutput(CommandClass commandClass, Consumer<String> lines, Consumer<String> errors,
+                                   List<String> command) throws InterruptedException {
+        LOGGER.info("Executing command: " + command);
         try {
-            int status = p.waitFor(); // the process is now dead
-            InputStream stream = status == 0 ? p.getInputStream() : p.getErrorStream();
-            reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
-            StringBuilder result = new StringBuilder();
-            String line = null;
-            while (true) {
-                line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-                result.append(line);
+            return execute(command, commandClass, lines, errors);
+        } catch (IOException e) {
+            throw new RuntimeException("An I/O exception occurred while executing executing the zowe command", e);
+        }
+    }
+
+    private CommandResponse getCommandResponse(List<String> command) {
+        try {
+            return getCommandResponse(CommandClass.LOCAL, command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("an error occured while reading the output from the zowe command.", e);
+        }
+    }
+
+    private CommandResponse getCommandResponse(CommandClass commandClass, List<String> command)
+            throws InterruptedException {
+        LOGGER.info("Executing zowe command " + command);
+        StringBuilder output = new StringBuilder();
+        StringBuilder error = new StringBuilder();
+        try {
+            int status = execute(command, commandClass, output::append, error::append);
+            return new CommandResponse(status, status == 0 ? output.toString() : error.toString());
+        } catch (IOException e) {
+            throw new RuntimeException("An I/O exception occurred while executing executing the zowe command", e);
+        }
+    }
+
+    /**
+     * Returns the node the commands run on; every node has its own zowe profiles, so the cached outputs of a node
+     * are not served to the others.
+     *
+     * @return the name of the agent, or {@link ZoweCommandCache#CONTROLLER} for the commands run on the controller
+     */
+    private String getNode() {
+        VirtualChannel channel = launcher == null ? null : launcher.getChannel();
+        return channel instanceof Channel ? ((Channel) channel).getName() : ZoweCommandCache.CONTROLLER;
+    }
+
+    /**
+     * Executes the command once the governor grants a permit, draining the output and the error streams on
+     * separate threads while the calling thread waits for the command completion, up to the time out.
+     *
+     * @param command      - the executable followed by its arguments
+     * @param commandClass - the command class, which defines the time out
+     * @param output       - the consumer of the output lines
+     * @param error        - the consumer of the error lines, which also receives the time out message
+     * @return the command exit status, {@link #TIMED_OUT} if the command timed out
+     * @throws IOException          if the process cannot be started or its output cannot be read
+     * @throws InterruptedException if the thread is interrupted, the process tree is then killed
+     */
+    private int execute(List<String> command, CommandClass commandClass, Consumer<String> output,
+                        Consumer<String> error) throws IOException, InterruptedException {
+        if (launcher != null) {
+            try (ZoweCommandGovernor.Permit permit = ZoweCommandGovernor.get().acquireOnAgent(command, commandClass)) {
+                return launch(command, commandClass.getTimeoutMillis(), output, error);
             }
-            return new CommandResponse(status, result.toString());
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("an error occured while reading the output from the zowe command.");
-        } finally {
-            if (reader != null) {
+        }
+        try (ZoweCommandGovernor.Permit permit = ZoweCommandGovernor.get().acquire(command, commandClass, priority)) {
+            return execute(command, commandClass.getTimeoutMillis(), output, error);
+        }
+    }
+
+    /**
+     * Launches the command on the node of the launcher. The executable is resolved on the node itself, and the
+     * output is sent back over the remoting channel. The process tree is killed by the launcher when the time
+     * out expires or the thread is interrupted.
+     *
+     * @param command - the executable followed by its arguments
+     * @param timeout - the time out in milliseconds, 0 for no time out
+     * @param output  - the consumer of the output lines
+     * @param error   - the consumer of the error lines, which also receives the time out message
+     * @return the command exit status, {@link #TIMED_OUT} if the command timed out
+     * @throws IOException          if the process cannot be started
+     * @throws InterruptedException if the thread is interrupted, the process tree is then killed
+     */
+    private int launch(List<String> command, long timeout, Consumer<String> output, Consumer<String> error)
+            throws IOException, InterruptedException {
+        VirtualChannel channel = launcher.getChannel();
+        List<String> argv = channel == null ? ZoweProcessLauncher.get().getCommandLine(command)
+                : channel.call(new CommandLineResolver(command));
+        try (ConsumerOutputStream out = new ConsumerOutputStream(output);
+             ConsumerOutputStream err = new ConsumerOutputStream(error)) {
+            Launcher.ProcStarter starter = launcher.launch().cmds(argv).stdout(out).stderr(err).quiet(true);
+            if (workspace != null) {
+                starter.pwd(workspace);
+            }
+            Proc proc = starter.start();
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> killer = timeout <= 0 ? null : Timer.get().schedule(() -> {
+                timedOut.set(true);
                 try {
-                    reader.close();
-                } catch (IOException e) {
-                    LOGGER.info("Could not close BufferedReader after retrieving the latest command output", e);
+                    proc.kill();
+                } catch (IOException | InterruptedException e) {
+                    LOGGER.info("Could not kill the command " + command, e);
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+            try {
+                int status = proc.join();
+                if (timedOut.get()) {
+                    LOGGER.info(String.format("The command %s timed out after %d seconds", command,
+                            TimeUnit.MILLISECONDS.toSeconds(timeout)));
+                    err.forceEol();
+                    error.accept(String.format("Error: The command timed out after %d seconds",
+                            TimeUnit.MILLISECONDS.toSeconds(timeout)));
+                    return TIMED_OUT;
+                }
+                return status;
+            } finally {
+                if (killer != null) {
+                    killer.cancel(false);
                 }
-
             }
         }
     }
 
-    private String getCommandResponse(String cli) {
+    private int execute(List<String> command, long timeout, Consumer<String> output, Consumer<String> error)
+            throws IOException, InterruptedException {
+        Process p = ZoweProcessLauncher.get().start(command);
+        p.getOutputStream().close();
+        Future<?> outputDrain = DRAINERS.submit(() -> drain(p.getInputStream(), output));
+        Future<?> errorDrain = DRAINERS.submit(() -> drain(p.getErrorStream(),
+                ZoweProcessLauncher.get().watchErrors(p, error)));
+        boolean completed = false;
         try {
-            LOGGER.info("Executing command: " + cli);
-            ProcessBuilder pb = new ProcessBuilder("cmd.exe", "/c", cli);
-            Process p = pb.start();
-            String response = getResultFromStream(p.getInputStream());
-            response += System.lineSeparator() + getResultFromStream(p.getErrorStream());
-            return response;
-        } catch (IOException e) {
-            throw new RuntimeException("an error occured while reading the output from the zowe command.");
+            if (timeout > 0) {
+                completed = p.waitFor(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                p.waitFor();
+                completed = true;
+            }
+            if (!completed) {
+                LOGGER.info(String.format("The command %s timed out after %d seconds", command,
+                        TimeUnit.MILLISECONDS.toSeconds(timeout)));
+                ZoweProcessLauncher.get().destroy(p);
+            }
+            // a descendant process may keep the streams open after the command completes
+            outputDrain.get(DRAIN_TIMEOUT, TimeUnit.MILLISECONDS);
+            errorDrain.get(DRAIN_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (!completed) {
+                error.accept(String.format("Error: The command timed out after %d seconds",
+                        TimeUnit.MILLISECONDS.toSeconds(timeout)));
+                return TIMED_OUT;
+            }
+            return p.exitValue();
+        } catch (ExecutionException e) {
+            throw new IOException("Could not read the output from the zowe command", e.getCause());
+        } catch (TimeoutException e) {
+            LOGGER.info("The output streams of the command " + command + " were not closed");
+            return completed ? p.exitValue() : TIMED_OUT;
+        } finally {
+            if (p.isAlive() || !outputDrain.isDone() || !errorDrain.isDone()) {
+                ZoweProcessLauncher.get().destroy(p);
+            }
+            outputDrain.cancel(true);
+            errorDrain.cancel(true);
         }
     }
 
-    private String getResultFromStream(InputStream stream) throws IOException {
-        BufferedReader r = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
-        StringBuilder result = new StringBuilder();
-        String line = null;
-        while (true) {
-            line = r.readLine();
-            if (line == null) {
-                break;
+    private static Void drain(InputStream stream, Consumer<String> lines) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.accept(line);
             }
-            result.append(line);
-            result.append(System.lineSeparator());
         }
-        return result.toString();
+        return null;
     }
 
-    private String getCommandResponse(String... parameters) {
-        StringBuilder sb = new StringBuilder();
-        if (parameters.length > 0) {
-            if (!parameters[0].startsWith("zowe")) {
-                sb.append("zowe ");
-            }
+    /**
+     * Resolves the argument array of a command on the node it runs on, as the executable path and the
+     * quoting depend on the node OS.
+     */
+    private static final class CommandLineResolver extends MasterToSlaveCallable<List<String>, RuntimeException> {
+
+        private static final long serialVersionUID = 1L;
+        /**
+         * The executable followed by its arguments.
+         */
+        private final ArrayList<String> command;
+
+        private CommandLineResolver(List<String> command) {
+            this.command = new ArrayList<>(command);
         }
-        for (String parm : parameters) {
-            sb.append(parm + " ");
+
+        @Override
+        public List<String> call() {
+            return new ArrayList<>(ZoweProcessLauncher.get().getCommandLine(command));
         }
-        return getCommandResponse(sb.toString());
     }
 
-    private Process getExecutedProcess(String... parameters) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("zowe ");
-        for (String parm : parameters) {
-            sb.append(parm + " ");
+    /**
+     * Returns the zowe command for the given parameters, adding the zowe executable if not present.
+     *
+     * @param parameters - the command parameters and arguments, e.g.: [jobs, submit, ds] ...
+     * @return the command, e.g.: [zowe, jobs, submit, ds] ...
+     */
+    protected static List<String> getZoweCommand(String... parameters) {
+        List<String> command = new ArrayList<>(parameters.length + 1);
+        if (parameters.length == 0 || !ZoweProcessLauncher.ZOWE.equals(parameters[0])) {
+            command.add(ZoweProcessLauncher.ZOWE);
         }
-        return getExecutedProcess(sb.toString());
+        command.addAll(Arrays.asList(parameters));
+        return command;
     }
 
-    private Process getExecutedProcess(String cli) {
-        try {
-            LOGGER.info("Executing zowe command " + cli);
-            ProcessBuilder pb = new ProcessBuilder("cmd.exe", "/c", cli);
-            Process p = pb.start();
-            p.waitFor(3, TimeUnit.SECONDS);  // let the process run for 5 seconds
-            p.destroy();                     // tell the process to stop
-            p.waitFor(2, TimeUnit.SECONDS); // give it a chance to stop
-            p.destroyForcibly();             // tell the OS to kill the process
-            return p;
-        } catch (InterruptedException e) {
-            throw new RuntimeException("An exception occurred while executing executing the zowe command", e);
-        } catch (IOException e) {
-            throw new RuntimeException("An I/O exception occurred while executing executing the zowe command", e);
+    /**
+     * Splits a command line into its arguments. Double quotes group the arguments containing blanks,
+     * e.g.: zowe pma scope incj "JOB1" --dc "MY DESCRIPTION".
+     *
+     * @param cli - the command line, e.g.: zowe jobs submit ds ...
+     * @return the arguments, e.g.: [zowe, jobs, submit, ds] ...
+     */
+    protected static List<String> splitCommandLine(String cli) {
+        List<String> command = new ArrayList<>();
+        StringBuilder argument = new StringBuilder();
+        boolean quoted = false;
+        boolean pending = false;
+        for (char c : cli.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                pending = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (pending) {
+                    command.add(argument.toString());
+                    argument.setLength(0);
+                    pending = false;
+                }
+            } else {
+                argument.append(c);
+                pending = true;
+            }
+        }
+        if (pending) {
+            command.add(argument.toString());
         }
+        return command;
     }
 
 }
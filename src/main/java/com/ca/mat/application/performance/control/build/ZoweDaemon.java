@@ -0,0 +1,291 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.build;
+
+import com.ca.mat.application.performance.view.PluginConfiguration;
+import hudson.init.Terminator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class keeps one resident Zowe CLI daemon on the Jenkins controller, so the zowe commands run by the
+ * controller do not pay the Node.js start-up for every execution. The daemon is enabled on the plugin
+ * configuration, which is only read on the controller: the commands run on an agent always use the regular
+ * process spawn.
+ *
+ * <p>The daemon is started with <b>zowe --daemon</b> and listens on a local socket placed on the
+ * {@link #DAEMON_DIR_ENV} directory. The commands are then sent through the native Zowe client
+ * installed by <b>zowe daemon enable</b>, which forwards the arguments over that socket and streams
+ * back the output. When the native client is not installed, the daemon is disabled on the plugin
+ * configuration or it cannot be started, the caller must fall back to the regular process spawn.
+ *
+ * <p>The daemon is started by the first caller that needs it, without holding the lock of the instance while the
+ * daemon opens its socket; the callers arriving meanwhile wait for the end of that start only.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ZoweDaemon {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZoweDaemon.class);
+    /**
+     * The environment variable read by the daemon and the native client to locate the daemon socket.
+     */
+    static final String DAEMON_DIR_ENV = "ZOWE_DAEMON_DIR";
+    /**
+     * The environment variable that tells the native client to run the Node.js CLI directly.
+     */
+    private static final String USE_DAEMON_ENV = "ZOWE_USE_DAEMON";
+    /**
+     * The environment variable that overrides the zowe home directory, default ~/.zowe.
+     */
+    private static final String CLI_HOME_ENV = "ZOWE_CLI_HOME";
+    /**
+     * The time to wait after a failed start before trying to start the daemon again.
+     */
+    private static final long RETRY_DELAY = TimeUnit.MINUTES.toMillis(5);
+    /**
+     * The time given to the daemon to open its socket.
+     */
+    private static final long START_DELAY = TimeUnit.SECONDS.toMillis(2);
+    /**
+     * The singleton instance.
+     */
+    private static final ZoweDaemon INSTANCE = new ZoweDaemon();
+    /**
+     * The daemon process started by the plugin.
+     */
+    private Process daemon;
+    /**
+     * The time of the last failed start, 0 if the daemon has not failed.
+     */
+    private long failedAt;
+    /**
+     * The latch released when the running start ends, null when no start is running.
+     */
+    private CountDownLatch starting;
+
+    private ZoweDaemon() {
+    }
+
+    /**
+     * Get the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ZoweDaemon get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns whether the commands can be sent to the daemon, starting it if it is not running.
+     *
+     * @return true if the daemon is running and the native client is installed
+     */
+    public boolean isAvailable() {
+        if (!isEnabled() || !getClient().isFile()) {
+            return false;
+        }
+        CountDownLatch latch;
+        synchronized (this) {
+            if (starting == null) {
+                if (daemon != null && daemon.isAlive()) {
+                    return true;
+                }
+                if (failedAt > 0 && System.currentTimeMillis() - failedAt < RETRY_DELAY) {
+                    return false;
+                }
+                starting = new CountDownLatch(1);
+                latch = null;
+            } else {
+                latch = starting;
+            }
+        }
+        if (latch == null) {
+            return start();
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        synchronized (this) {
+            return daemon != null && daemon.isAlive();
+        }
+    }
+
+    /**
+     * Returns the native Zowe client that sends the commands to the daemon.
+     *
+     * @return the native client executable, e.g.: ~/.zowe/bin/zowe.exe
+     */
+    public File getClient() {
+        return new File(new File(getHome(), "bin"), isWindows() ? "zowe.exe" : "zowe");
+    }
+
+    /**
+     * Returns the zowe home directory, which holds the profiles and the native client.
+     *
+     * @return the zowe home directory, e.g.: ~/.zowe
+     */
+    public File getHome() {
+        String cliHome = System.getenv(CLI_HOME_ENV);
+        return cliHome != null && !cliHome.isEmpty() ? new File(cliHome)
+                : new File(System.getProperty("user.home"), ".zowe");
+    }
+
+    /**
+     * Prepares the environment of a process that sends a command to the daemon.
+     *
+     * @param environment - the process environment, e.g.: {@link ProcessBuilder#environment()}
+     */
+    public void configure(Map<String, String> environment) {
+        environment.put(DAEMON_DIR_ENV, getDaemonDir().getAbsolutePath());
+        environment.remove(USE_DAEMON_ENV);
+    }
+
+    /**
+     * Stops the daemon started by the plugin, if any.
+     */
+    public void stop() {
+        Process stopped;
+        synchronized (this) {
+            stopped = daemon;
+            daemon = null;
+        }
+        if (stopped != null) {
+            LOGGER.info("Stopping the zowe daemon");
+            destroy(stopped);
+        }
+    }
+
+    /**
+     * Marks the daemon as failed, so the next commands use the regular process spawn for a while.
+     */
+    public void markFailed() {
+        LOGGER.info("The zowe daemon did not respond, falling back to the zowe process spawn");
+        stop();
+        synchronized (this) {
+            failedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Stops the daemon when Jenkins shuts down.
+     */
+    @Terminator
+    public static void shutdown() {
+        get().stop();
+    }
+
+    /**
+     * Starts the daemon, outside the lock of the instance, then releases the callers waiting for the start.
+     *
+     * @return true if the daemon is running
+     */
+    private boolean start() {
+        Process started = null;
+        boolean running = false;
+        boolean interrupted = false;
+        try {
+            File daemonDir = getDaemonDir();
+            if (!daemonDir.isDirectory() && !daemonDir.mkdirs()) {
+                throw new IOException("Could not create the zowe daemon directory " + daemonDir);
+            }
+            LOGGER.info("Starting the zowe daemon on " + daemonDir);
+            ProcessBuilder pb = new ProcessBuilder(ZoweProcessLauncher.get()
+                    .getCommandLine(Arrays.asList(ZoweProcessLauncher.ZOWE, "--daemon")));
+            pb.environment().put(DAEMON_DIR_ENV, daemonDir.getAbsolutePath());
+            // the native client would forward --daemon to itself, the daemon must run on Node.js
+            pb.environment().put(USE_DAEMON_ENV, "no");
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(new File(daemonDir, "daemon.log"));
+            started = pb.start();
+            if (started.waitFor(START_DELAY, TimeUnit.MILLISECONDS)) {
+                throw new IOException("The zowe daemon exited with status " + started.exitValue());
+            }
+            running = true;
+        } catch (IOException e) {
+            LOGGER.info("Could not start the zowe daemon, falling back to the zowe process spawn", e);
+        } catch (InterruptedException e) {
+            interrupted = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!running && started != null) {
+                destroy(started);
+            }
+            CountDownLatch latch;
+            synchronized (this) {
+                if (running) {
+                    daemon = started;
+                    failedAt = 0;
+                } else if (!interrupted) {
+                    // an interrupted start, e.g.: an aborted build, is tried again by the next command
+                    failedAt = System.currentTimeMillis();
+                }
+                latch = starting;
+                starting = null;
+            }
+            latch.countDown();
+        }
+        return running;
+    }
+
+    private static void destroy(Process process) {
+        process.destroy();
+        try {
+            if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                ZoweProcessLauncher.get().destroy(process);
+            }
+        } catch (InterruptedException e) {
+            ZoweProcessLauncher.get().destroy(process);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private File getDaemonDir() {
+        return new File(System.getProperty("java.io.tmpdir"), "zowe-daemon-" + System.getProperty("user.name"));
+    }
+
+    private boolean isEnabled() {
+        PluginConfiguration configuration = PluginConfiguration.getOrNull();
+        // the daemon mode is only available from the v2 zowe cli
+        return configuration != null && configuration.isDaemon() && !"v1-lts".equals(configuration.getZowe());
+    }
+
+    private static boolean isWindows() {
+        return File.pathSeparatorChar == ';';
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.build;
+
+import hudson.util.ProcessTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class starts the zowe commands as an argument array, without an intermediate shell.
+ *
+ * <p>The executable (e.g.: zowe, npm) is resolved once per OS from the PATH and cached. On Windows,
+ * the npm command shims (zowe.cmd, npm.cmd) are resolved to the node executable and the Node.js script
+ * they wrap, so no cmd.exe is involved and the arguments are passed as they are.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ZoweProcessLauncher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZoweProcessLauncher.class);
+    /**
+     * The zowe executable name.
+     */
+    public static final String ZOWE = "zowe";
+    /**
+     * Matches the script called by a npm command shim, e.g.: "%dp0%\node_modules\@zowe\cli\lib\main.js".
+     */
+    private static final Pattern NPM_SHIM_SCRIPT_PATTERN = Pattern.compile("\"%~?dp0%?\\\\([^\"]+\\.js)\"");
+    /**
+     * Windows executable extensions, used when PATHEXT is not defined.
+     */
+    private static final String DEFAULT_PATHEXT = ".COM;.EXE;.BAT;.CMD";
+    /**
+     * The singleton instance.
+     */
+    private static final ZoweProcessLauncher INSTANCE = new ZoweProcessLauncher();
+    /**
+     * Matches an error of the daemon client, e.g.: when it cannot connect to the daemon.
+     */
+    private static final Pattern DAEMON_ERROR_PATTERN = Pattern.compile("\\bdaemon\\b", Pattern.CASE_INSENSITIVE);
+    /**
+     * The resolved executables, by name.
+     */
+    private final ConcurrentMap<String, List<String>> executables = new ConcurrentHashMap<>();
+    /**
+     * The processes that send their command to the zowe daemon, until they are collected.
+     */
+    private final Set<Process> daemonClients = Collections.synchronizedSet(Collections.newSetFromMap(
+            new WeakHashMap<>()));
+
+    private ZoweProcessLauncher() {
+    }
+
+    /**
+     * Get the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ZoweProcessLauncher get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the command, sending the zowe commands to the resident zowe daemon when it is available.
+     * The regular process spawn is kept as fallback.
+     *
+     * @param command - the executable followed by its arguments, e.g.: [zowe, jobs, submit, ds, ...]
+     * @return the started process
+     * @throws IOException if the process cannot be started
+     */
+    public Process start(List<String> command) throws IOException {
+        ZoweDaemon zoweDaemon = ZoweDaemon.get();
+        if (ZOWE.equals(command.get(0)) && zoweDaemon.isAvailable()) {
+            List<String> argv = new ArrayList<>();
+            argv.add(zoweDaemon.getClient().getAbsolutePath());
+            argv.addAll(command.subList(1, command.size()));
+            ProcessBuilder pb = new ProcessBuilder(quote(argv));
+            zoweDaemon.configure(pb.environment());
+            try {
+                Process process = pb.start();
+                daemonClients.add(process);
+                return process;
+            } catch (IOException e) {
+                zoweDaemon.markFailed();
+            }
+        }
+        return new ProcessBuilder(getCommandLine(command)).start();
+    }
+
+    /**
+     * Returns the consumer of the error lines of a process started by {@link #start(List)}. When the command was
+     * sent to the zowe daemon and the daemon client reports an error of the daemon, e.g.: it cannot connect to it,
+     * the daemon is marked as failed so the next commands use the regular process spawn.
+     *
+     * @param process - the process
+     * @param error   - the consumer of the error lines
+     * @return the consumer to drain the error stream into
+     */
+    public Consumer<String> watchErrors(Process process, Consumer<String> error) {
+        if (!daemonClients.remove(process)) {
+            return error;
+        }
+        AtomicBoolean reported = new AtomicBoolean();
+        return line -> {
+            if (DAEMON_ERROR_PATTERN.matcher(line).find() && reported.compareAndSet(false, true)) {
+                LOGGER.info("The zowe daemon client failed: " + line);
+                ZoweDaemon.get().markFailed();
+            }
+            error.accept(line);
+        };
+    }
+
+    /**
+     * Kills the process and all its descendants, e.g.: the node processes started by the zowe cli,
+     * so no orphaned process is left behind when a command times out or the build is aborted.
+     *
+     * @param process - the process started by {@link #start(List)}
+     */
+    public void destroy(Process process) {
+        try {
+            ProcessTree.OSProcess tree = ProcessTree.get().get(process);
+            if (tree != null) {
+                tree.killRecursively();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.info("Could not kill the process tree, killing the process only", e);
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Returns the argument array that starts the command on this OS.
+     *
+     * @param command - the executable followed by its arguments, e.g.: [zowe, jobs, submit, ds, ...]
+     * @return the argument array, e.g.: [C:\nodejs\node.exe, C:\...\@zowe\cli\lib\main.js, jobs, submit, ds, ...]
+     */
+    public List<String> getCommandLine(List<String> command) {
+        List<String> argv = new ArrayList<>(resolve(command.get(0)));
+        argv.addAll(command.subList(1, command.size()));
+        return quote(argv);
+    }
+
+    /**
+     * Resolves the executable from the PATH, caching the result.
+     *
+     * @param name - the executable name, e.g.: zowe
+     * @return the executable path, followed by the script it runs when it is a npm shim
+     */
+    public List<String> resolve(String name) {
+        List<String> executable = executables.get(name);
+        if (executable == null) {
+            executable = lookup(name);
+            if (executable != null) {
+                executables.put(name, executable);
+            } else {
+                // not cached, the executable may be installed later (e.g.: npm install -g @zowe/cli)
+                executable = Collections.singletonList(name);
+            }
+        }
+        return executable;
+    }
+
+    /**
+     * Clears the resolved executables, e.g.: after installing the zowe cli.
+     */
+    public void invalidate() {
+        executables.clear();
+    }
+
+    private List<String> lookup(String name) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        List<String> extensions = isWindows() ? getWindowsExtensions(name) : Collections.singletonList("");
+        for (String dir : path.split(File.pathSeparator)) {
+            for (String extension : extensions) {
+                File file = new File(dir.replace("\"", ""), name + extension);
+                if (file.isFile() && (isWindows() || file.canExecute())) {
+                    List<String> executable = isWindows() && isScript(extension) ? getShimScript(file) : null;
+                    if (executable == null) {
+                        executable = Collections.singletonList(file.getAbsolutePath());
+                    }
+                    LOGGER.info(String.format("Resolved %s to %s", name, executable));
+                    return executable;
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<String> getWindowsExtensions(String name) {
+        String pathExt = System.getenv("PATHEXT");
+        List<String> extensions = new ArrayList<>();
+        if (name.indexOf('.') >= 0) {
+            extensions.add("");
+        }
+        // npm also installs an extensionless sh script next to the shim, which Windows cannot execute
+        extensions.addAll(Arrays.asList((pathExt == null ? DEFAULT_PATHEXT : pathExt).split(";")));
+        return extensions;
+    }
+
+    private boolean isScript(String extension) {
+        String ext = extension.toLowerCase(Locale.ENGLISH);
+        return ext.equals(".cmd") || ext.equals(".bat");
+    }
+
+    /**
+     * Reads a npm command shim and returns the node executable with the script it runs.
+     *
+     * @param shim - the npm command shim, e.g.: zowe.cmd
+     * @return the node executable and the script, or null if the file is not a npm shim
+     */
+    private List<String> getShimScript(File shim) {
+        try {
+            String content = new String(Files.readAllBytes(shim.toPath()), StandardCharsets.UTF_8);
+            Matcher matcher = NPM_SHIM_SCRIPT_PATTERN.matcher(content);
+            if (matcher.find()) {
+                File script = new File(shim.getParentFile(), matcher.group(1));
+                File node = new File(shim.getParentFile(), "node.exe");
+                String nodePath = node.isFile() ? node.getAbsolutePath() : resolve("node").get(0);
+                if (script.isFile()) {
+                    return Arrays.asList(nodePath, script.getAbsolutePath());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.info("Could not read the command shim " + shim, e);
+        }
+        return null;
+    }
+
+    /**
+     * Quotes the arguments following the Windows C runtime rules, so the executable receives them as they are.
+     * The arguments are passed without changes on the other OSes.
+     *
+     * @param argv - the argument array
+     * @return the quoted argument array
+     */
+    private List<String> quote(List<String> argv) {
+        if (!isWindows()) {
+            return argv;
+        }
+        List<String> quoted = new ArrayList<>(argv.size());
+        for (String arg : argv) {
+            quoted.add(quoteWindowsArgument(arg));
+        }
+        return quoted;
+    }
+
+    private static String quoteWindowsArgument(String arg) {
+        if (!arg.isEmpty() && arg.indexOf(' ') < 0 && arg.indexOf('\t') < 0 && arg.indexOf('"') < 0) {
+            return arg;
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        int backslashes = 0;
+        for (char c : arg.toCharArray()) {
+            if (c == '\\') {
+                backslashes++;
+                continue;
+            }
+            // backslashes are only escaped when they precede a quote
+            int repeat = c == '"' ? backslashes * 2 + 1 : backslashes;
+            for (int i = 0; i < repeat; i++) {
+                sb.append('\\');
+            }
+            backslashes = 0;
+            sb.append(c);
+        }
+        for (int i = 0; i < backslashes * 2; i++) {
+            sb.append('\\');
+        }
+        return sb.append('"').toString();
+    }
+
+    private static boolean isWindows() {
+        return File.pathSeparatorChar == ';';
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import com.ca.mat.application.performance.model.ApplyJournal;
+import com.ca.mat.application.performance.view.MultipleEntryFields;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class applies the submitted changes of the configuration pages on a background worker, off the HTTP
+ * threads. The submit writes the journal of the changes and queues a submission; the worker applies the journals
+ * one page at a time, in their submit order, whether or not a page view follows them.
+ *
+ * <p>The queue is durable as the journals are: a submission interrupted by a shutdown keeps its journal, which
+ * is queued again after the restart. The page views attach to the running submission of their page, and the
+ * status of every submission is kept for the last {@link #MAX_FINISHED} finished submissions.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ApplyQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplyQueue.class);
+    /**
+     * The number of finished submissions whose status is kept.
+     */
+    private static final int MAX_FINISHED = 50;
+    /**
+     * The time in seconds given to the running submission when Jenkins shuts down.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 10;
+    /**
+     * The thread name.
+     */
+    private static final String THREAD_NAME = "performance-benchmarking-apply";
+    /**
+     * The singleton instance.
+     */
+    private static final ApplyQueue INSTANCE = new ApplyQueue();
+    /**
+     * The submissions by id, in their submit order.
+     */
+    private final Map<String, Submission> submissions = new LinkedHashMap<>();
+    /**
+     * The worker, null until the first submission or after the shutdown.
+     */
+    private ExecutorService worker;
+
+    private ApplyQueue() {
+    }
+
+    /**
+     * Get the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ApplyQueue get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues the journal of a page. A page has at most one queued or running submission, returned when the
+     * journal is already queued.
+     *
+     * @param page - the page, whose journal is written
+     * @return the submission
+     */
+    public synchronized Submission submit(MultipleEntryFields<?> page) {
+        Submission pending = getPending(page.getXMLFile());
+        if (pending != null) {
+            return pending;
+        }
+        Submission submission = new Submission(page.getXMLFile());
+        submissions.put(submission.getId(), submission);
+        prune();
+        if (worker == null) {
+            worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    new NamingThreadFactory(new DaemonThreadFactory(), THREAD_NAME));
+        }
+        worker.execute(() -> apply(page, submission));
+        return submission;
+    }
+
+    /**
+     * Get a submission.
+     *
+     * @param id - the submission id
+     * @return the submission, or null if it is unknown or its status is no longer kept
+     */
+    public synchronized Submission getSubmission(String id) {
+        return id == null ? null : submissions.get(id);
+    }
+
+    /**
+     * Get the submission of a page that a page view should follow: the queued or running submission, or the last
+     * finished submission not yet followed to its end.
+     *
+     * @param page - the XML file of the page
+     * @return the submission, or null if there is none to follow
+     */
+    public synchronized Submission getFollowed(String page) {
+        Submission last = null;
+        for (Submission submission : submissions.values()) {
+            if (submission.getPage().equals(page)) {
+                last = submission;
+            }
+        }
+        return last == null || last.isFollowed() ? null : last;
+    }
+
+    /**
+     * Shuts the worker down when Jenkins shuts down, interrupting the running submission after
+     * {@link #SHUTDOWN_TIMEOUT} seconds; its journal is applied again after the restart.
+     */
+    @Terminator
+    public static void shutdown() {
+        ExecutorService stopped;
+        synchronized (INSTANCE) {
+            stopped = INSTANCE.worker;
+            INSTANCE.worker = null;
+        }
+        if (stopped == null) {
+            return;
+        }
+        stopped.shutdown();
+        try {
+            if (!stopped.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                LOGGER.info("Interrupting the configuration changes still running, they resume after the restart");
+                stopped.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            stopped.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Submission getPending(String page) {
+        for (Submission submission : submissions.values()) {
+            if (submission.getPage().equals(page) && !submission.isDone()) {
+                return submission;
+            }
+        }
+        return null;
+    }
+
+    private void prune() {
+        int finished = 0;
+        for (Submission submission : submissions.values()) {
+            if (submission.isDone()) {
+                finished++;
+            }
+        }
+        Iterator<Submission> iterator = submissions.values().iterator();
+        while (finished > MAX_FINISHED && iterator.hasNext()) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    private static void apply(MultipleEntryFields<?> page, Submission submission) {
+        submission.start();
+        try {
+            ApplyJournal<?> journal = page.applyJournal(new OrderedApplier.Listener<List<String>>() {
+                @Override
+                public void applied(int index, List<String> messages) {
+                    submission.addMessages(messages);
+                }
+
+                @Override
+                public void progress(int completed, int total) {
+                    submission.setProgress(completed, total);
+                }
+            });
+            submission.finish(journal != null && journal.isRollingBack() ? State.rolledBack : State.applied, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            submission.finish(State.interrupted, "The changes were interrupted, they resume after the restart.");
+        } catch (Exception e) {
+            LOGGER.info("An error occured while applying the changes of " + submission.getPage(), e);
+            submission.finish(State.failed, "An internal error occurred while processing an entry, "
+                    + "please check the logs for more details");
+        }
+    }
+
+    /**
+     * The class that represents the status of a submission, shared by the worker and the page views.
+     */
+    public static final class Submission {
+
+        /**
+         * The submission id.
+         */
+        private final String id = UUID.randomUUID().toString();
+        /**
+         * The XML file of the page.
+         */
+        private final String page;
+        /**
+         * The time of the submit, in milliseconds.
+         */
+        private final long submitted = System.currentTimeMillis();
+        /**
+         * The messages of the entry actions, in their order.
+         */
+        private final List<String> messages = new ArrayList<>();
+        /**
+         * The state.
+         */
+        private State state = State.queued;
+        /**
+         * The number of applied entry actions.
+         */
+        private int completed;
+        /**
+         * The number of entry actions to apply.
+         */
+        private int total;
+        /**
+         * Whether a page view followed the submission to its end.
+         */
+        private boolean followed;
+
+        private Submission(String page) {
+            this.page = page;
+        }
+
+        /**
+         * Get the submission id.
+         *
+         * @return the id
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Get the XML file of the page.
+         *
+         * @return the XML file name
+         */
+        public String getPage() {
+            return page;
+        }
+
+        /**
+         * Get the state.
+         *
+         * @return the state
+         */
+        public synchronized State getState() {
+            return state;
+        }
+
+        /**
+         * Get whether the submission is finished.
+         *
+         * @return true if the submission is applied, rolled back, failed or interrupted
+         */
+        public synchronized boolean isDone() {
+            return state != State.queued && state != State.applying;
+        }
+
+        /**
+         * Get the number of entry actions to apply.
+         *
+         * @return the total, 0 until the progress of the first entry action
+         */
+        public synchronized int getTotal() {
+            return total;
+        }
+
+        /**
+         * Get the progress of the entry actions.
+         *
+         * @return the progress, between 0 and 1
+         */
+        public synchronized double getProgress() {
+            return isDone() ? 1 : total == 0 ? 0 : (double) completed / total;
+        }
+
+        /**
+         * Waits for the messages after the given number of messages, or for the end of the submission.
+         *
+         * @param from    - the number of messages already read
+         * @param timeout - the maximum time to wait, in milliseconds
+         * @return the messages after the given number of messages, empty if there is none
+         * @throws InterruptedException if the thread is interrupted
+         */
+        public synchronized List<String> awaitMessages(int from, long timeout) throws InterruptedException {
+            if (messages.size() <= from && !isDone()) {
+                wait(timeout);
+            }
+            return new ArrayList<>(messages.subList(Math.min(from, messages.size()), messages.size()));
+        }
+
+        /**
+         * Get whether a page view followed the submission to its end.
+         *
+         * @return true if the messages were shown
+         */
+        public synchronized boolean isFollowed() {
+            return followed;
+        }
+
+        /**
+         * Marks the submission as followed to its end, the next page views do not show it.
+         */
+        public synchronized void setFollowed() {
+            this.followed = true;
+        }
+
+        /**
+         * Get the status, as returned by the status endpoint of the pages.
+         *
+         * @param from - the number of messages already read
+         * @return the status, with the messages after the given number of messages
+         */
+        public synchronized JSONObject toJSON(int from) {
+            JSONArray list = new JSONArray();
+            for (int i = Math.max(0, from); i < messages.size(); i++) {
+                list.add(messages.get(i));
+            }
+            return new JSONObject().element("id", id).element("page", page).element("state", state.name())
+                    .element("submitted", submitted).element("completed", completed).element("total", total)
+                    .element("progress", getProgress()).element("messages", list)
+                    .element("next", messages.size());
+        }
+
+        private synchronized void start() {
+            state = State.applying;
+            notifyAll();
+        }
+
+        private synchronized void addMessages(List<String> added) {
+            messages.addAll(added);
+            notifyAll();
+        }
+
+        private synchronized void setProgress(int completed, int total) {
+            this.completed = completed;
+            this.total = total;
+            notifyAll();
+        }
+
+        private synchronized void finish(State finished, String message) {
+            if (message != null) {
+                messages.add(message);
+            }
+            state = finished;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Submission state enum.
+     */
+    public enum State {
+        /**
+         * The submission waits for the worker.
+         */
+        queued,
+        /**
+         * The entry actions are being applied.
+         */
+        applying,
+        /**
+         * Every entry action is applied, and the configuration is saved.
+         */
+        applied,
+        /**
+         * Not every entry action could be applied, the applied actions are reverted.
+         */
+        rolledBack,
+        /**
+         * The entry actions could not be run, the journal is applied again by the retry action of the page.
+         */
+        failed,
+        /**
+         * The worker was interrupted by a shutdown, the journal is applied again after the restart.
+         */
+        interrupted
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import com.ca.mat.application.performance.model.ListSnapshot;
+import com.ca.mat.application.performance.view.MultipleEntryFields;
+import hudson.XmlFile;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class keeps the saved entries of a configuration page in memory, as the source of truth of the page, and
+ * writes them behind to the XML file of the page. The XML file is read once, by the first instance of the page;
+ * the readers get an immutable snapshot of the entries, without reading the file. The snapshot holds copies of
+ * the entries, and every page gets its own copies, so a page or a form never changes the saved entries.
+ *
+ * <p>Every snapshot has a version, and a change is compared and set on the version it was made from: the readers
+ * never wait for a change, and a change made from an older version is merged again by its writer, e.g.: a submit
+ * made while the entries were retrieved. The entries of the last {@link #HISTORY} versions are kept for the merges.
+ *
+ * <p>Every change publishes a new snapshot and schedules a write after {@link #COALESCE_DELAY} milliseconds, so
+ * the changes of a burst, e.g.: the sources of a retrieval, are written once, with the latest entries. The file
+ * is replaced atomically by {@link XmlFile#write(Object)}, a reader never sees a partial file. The pending writes
+ * are flushed when Jenkins shuts down.
+ *
+ * @param <T> - a program exclusion, program inclusion, zosmf, mat or pma profile.
+ * @author Arthur Pessoa
+ */
+public final class ConfigStore<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigStore.class);
+    /**
+     * The time in milliseconds the changes are gathered before they are written.
+     */
+    private static final long COALESCE_DELAY = 500;
+    /**
+     * The number of versions whose entries are kept.
+     */
+    private static final int HISTORY = 16;
+    /**
+     * The stores, by XML file.
+     */
+    private static final ConcurrentMap<String, ConfigStore<?>> STORES = new ConcurrentHashMap<>();
+    /**
+     * The writer of the stores, one thread shared by the pages.
+     */
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "performance-benchmarking-store"));
+    /**
+     * The XML file.
+     */
+    private final XmlFile file;
+    /**
+     * The lock of the file writes.
+     */
+    private final Object writeLock = new Object();
+    /**
+     * The saved entries and their version.
+     */
+    private volatile ListSnapshot<T> snapshot = new ListSnapshot<>(0, 0, Collections.emptyList());
+    /**
+     * The entries of the last versions, by version.
+     */
+    private final Map<Long, List<T>> history = new LinkedHashMap<Long, List<T>>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<T>> eldest) {
+            return size() > HISTORY;
+        }
+    };
+    /**
+     * Whether the entries are loaded.
+     */
+    private boolean loaded;
+    /**
+     * Whether the entries were saved, the XML file exists or is being written.
+     */
+    private volatile boolean saved;
+    /**
+     * The version of the entries last written.
+     */
+    private long writtenVersion;
+    /**
+     * Whether a write is scheduled.
+     */
+    private boolean scheduled;
+    /**
+     * The page written, the last one to change the entries.
+     */
+    private MultipleEntryFields<T> page;
+
+    private ConfigStore(XmlFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the store of a page.
+     *
+     * @param page - the page
+     * @param <T>  - the entry type
+     * @return the store of the XML file of the page
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ConfigStore<T> of(MultipleEntryFields<T> page) {
+        return (ConfigStore<T>) STORES.computeIfAbsent(page.getXMLFile(),
+                xmlFile -> new ConfigStore<>(page.getConfigFile()));
+    }
+
+    /**
+     * Loads a page: the first instance of the page reads the XML file, the next ones get the saved entries.
+     *
+     * @param page - the page, loaded with the saved entries
+     * @throws IOException if the XML file cannot be read
+     */
+    public synchronized void load(MultipleEntryFields<T> page) throws IOException {
+        if (loaded) {
+            // the configuration of a new instance is created by its first access
+            page.getEntries();
+            page.setEntries(page.copyEntries(snapshot.getEntries()));
+            return;
+        }
+        saved = file.exists();
+        if (saved) {
+            file.unmarshal(page);
+        }
+        // the first version is the time of the load, a version of a previous start is not taken for a current one
+        long now = System.currentTimeMillis();
+        snapshot = new ListSnapshot<>(now, now, page.copyEntries(page.getEntries()));
+        history.put(snapshot.getVersion(), snapshot.getEntries());
+        this.page = page;
+        loaded = true;
+    }
+
+    /**
+     * Get the saved entries and their version.
+     *
+     * @return the immutable snapshot
+     */
+    public ListSnapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the saved entries.
+     *
+     * @return the immutable entries
+     */
+    public List<T> getEntries() {
+        return snapshot.getEntries();
+    }
+
+    /**
+     * Get the version of the saved entries, e.g.: sent with the form of the page.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * Get the entries of a previous version, e.g.: the entries a form was made from.
+     *
+     * @param version - the version
+     * @return the immutable entries, or null if the version is no longer kept
+     */
+    public synchronized List<T> getEntries(long version) {
+        return history.get(version);
+    }
+
+    /**
+     * Get whether the entries were saved.
+     *
+     * @return true if the XML file exists or is being written
+     */
+    public boolean isSaved() {
+        return saved;
+    }
+
+    /**
+     * Get the XML file.
+     *
+     * @return the XML file
+     */
+    public XmlFile getFile() {
+        return file;
+    }
+
+    /**
+     * Saves the entries if they are still at the expected version, and sets them on the page. The entries are
+     * written behind with the next changes.
+     *
+     * @param expected - the version the entries were made from
+     * @param entries  - the entries to save
+     * @param page     - the page, written with the entries
+     * @return true if the entries are saved, false if other entries were saved meanwhile
+     */
+    public synchronized boolean compareAndSet(long expected, List<T> entries, MultipleEntryFields<T> page) {
+        if (snapshot.getVersion() != expected) {
+            return false;
+        }
+        // the saved entries are copies, the entries of the forms and the pages are never published
+        ListSnapshot<T> next = new ListSnapshot<>(expected + 1, System.currentTimeMillis(),
+                page.copyEntries(entries));
+        // the page is set first: a form made from a version never shows older entries than the version
+        page.setEntries(page.copyEntries(next.getEntries()));
+        snapshot = next;
+        history.put(next.getVersion(), next.getEntries());
+        this.page = page;
+        saved = true;
+        if (!scheduled) {
+            scheduled = true;
+            WRITER.schedule(this::flushQuietly, COALESCE_DELAY, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the entries now if they changed since the last write, e.g.: before the journal of the applied
+     * changes is removed.
+     *
+     * @throws IOException if the XML file cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            MultipleEntryFields<T> writing;
+            long writingVersion;
+            synchronized (this) {
+                scheduled = false;
+                if (writtenVersion == snapshot.getVersion()) {
+                    return;
+                }
+                writing = page;
+                writingVersion = snapshot.getVersion();
+            }
+            synchronized (writing) {
+                file.write(writing);
+            }
+            synchronized (this) {
+                writtenVersion = writingVersion;
+            }
+        }
+    }
+
+    /**
+     * Flushes the pending writes when Jenkins shuts down.
+     */
+    @Terminator
+    public static void shutdown() {
+        WRITER.shutdown();
+        for (ConfigStore<?> store : STORES.values()) {
+            store.flushQuietly();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            LOGGER.info("Could not save the configuration file " + file, e);
+        }
+    }
+}
@@ -27,33 +27,25 @@
  */
 package com.ca.mat.application.performance.control.future;
 
+import com.ca.mat.application.performance.control.build.CommandClass;
+import com.ca.mat.application.performance.control.build.ZoweCommandCache;
 import com.ca.mat.application.performance.control.build.ZoweCommandLineBuilder;
+import com.ca.mat.application.performance.control.build.ZoweProcessLauncher;
+import com.ca.mat.application.performance.model.CommandResponse;
 import com.ca.mat.application.performance.view.InclusionsAndExclusions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * The abstract class that retrieves the zowe pma scope entry list (for programs and jobs).
  *
  * @author Arthur Pessoa
  */
-public abstract class GetEntryList implements Callable<List<InclusionsAndExclusions.Entry>> {
+public abstract class GetEntryList implements ListSource<InclusionsAndExclusions.Entry> {
 
-    // Matches the return output of the mat-detect-for-zowe-cli command "zowe pma scope getlj or getlp.txt,
-    // examples of the output are referenced in the project resources (getlj.txt and getlp.txt.txt)"
-    private static final String SCOPE_GET_LIST_INCLUSION_PATTERN =
-            "^\\s([a-zA-Z#@&$._)][a-zA-Z0-9#@%&$_)*]{0,7})\\s{1,8}([a-zA-Z#@&$._)]" +
-                    "[a-zA-Z0-9#@%&$)*]{0,7})?\\s{1,8}([a-z0-9A-Z#@&$._)]" +
-                    "[a-zA-Z0-9#@%&$)*]{0,7})?\\s{1,8}[I|E](.*)$";
-    private static final String SCOPE_GET_LIST_EXCLUSION_PATTERN =
-            "\\s([a-zA-Z#@&$._)][a-zA-Z0-9#@%&$)*]" +
-            "{0,9})\\s{1,9}EXCLUDED (.*)";
     private static final Logger LOGGER = LoggerFactory.getLogger(GetEntryList.class);
 
     /**
@@ -62,38 +54,53 @@ public abstract class GetEntryList implements Callable<List<InclusionsAndExclusi
      */
     protected abstract String getListParam();
 
+    /**
+     * Creates the parser of the command output.
+     * @return - the parser of the included jobs or of the excluded programs.
+     */
+    protected abstract ScopeListParser createParser();
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.REMOTE;
+    }
+
     @Override
     public List<InclusionsAndExclusions.Entry> call() {
-        List<InclusionsAndExclusions.Entry> entries = new ArrayList<>();
         String scopeType = this instanceof GetListInclusionsTask ? " jobs" : "programs";
         LOGGER.info("Getting scope list of " + scopeType);
-        String[] parameters = new String[]{"pma", "scope", "getl" + getListParam()};
+        List<String> command = Arrays.asList(ZoweProcessLauncher.ZOWE, "pma", "scope", "getl" + getListParam());
         ZoweCommandLineBuilder zoweCmd = new ZoweCommandLineBuilder();
-        String response = zoweCmd.getCommandOutputNoTimeout(parameters);
-        String[] outputLines = response.split(System.lineSeparator());
-        final byte index = 2; // represents the starting line with the scope definition from the command output.
-        for (int i = index; i < outputLines.length; i++) {
-            String line = outputLines[i];
-            if (this instanceof GetListInclusionsTask) {
-                Pattern pattern = Pattern.compile(SCOPE_GET_LIST_INCLUSION_PATTERN);
-                Matcher matcher = pattern.matcher(line);
-                while (matcher.find()) {
-                    String jobName = matcher.group(1) == null ? "" : matcher.group(1);
-                    String stepName = matcher.group(2) == null ? "" : matcher.group(2);
-                    String procStep = matcher.group(3) == null ? "" : matcher.group(3);
-                    String description = matcher.group(4) == null ? "" : matcher.group(4).trim();
-                    entries.add(new InclusionsAndExclusions.PMAInclusion(jobName, stepName, procStep, description));
+        // the output is walked line by line with precompiled patterns, see getlj.txt and getlp.txt
+        ScopeListParser parser = createParser();
+        String error;
+        try {
+            if (ZoweCommandCache.get().isCacheable(command)) {
+                // the cache keeps the whole output, the output is read first then parsed
+                CommandResponse response = zoweCmd.getCachedCommandResponse(getCommandClass(), command);
+                error = response.getStatus() != 0 ? "exit status " + response.getStatus() + ", "
+                        + response.getMessage() : null;
+                if (error == null) {
+                    parser.parse(response.getMessage());
                 }
             } else {
-                Pattern pattern = Pattern.compile(SCOPE_GET_LIST_EXCLUSION_PATTERN);
-                Matcher matcher = pattern.matcher(line);
-                while (matcher.find()) {
-                    String program = matcher.group(1) == null ? "" : matcher.group(1);
-                    String description = matcher.group(2) == null ? "" : matcher.group(2).trim();
-                    entries.add(new InclusionsAndExclusions.PMAExclusion(program, description));
-                }
+                // without the cache, the output is parsed as it arrives and is never kept whole
+                StringBuilder errors = new StringBuilder();
+                int status = zoweCmd.streamCommandOutput(getCommandClass(), parser,
+                        line -> errors.append(line).append(System.lineSeparator()), command);
+                error = status != 0 ? "exit status " + status + ", " + errors : null;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("The retrieval of the scope list of " + scopeType + " was interrupted", e);
+        }
+        if (error != null) {
+            // a failed or timed out command may have printed a part of the list only, the current entries of the
+            // source are kept
+            LOGGER.info("Could not get the scope list of " + scopeType + ": " + error);
+            return null;
         }
+        List<InclusionsAndExclusions.Entry> entries = parser.getEntries();
         LOGGER.info("Scope list of " + scopeType + " is: " + entries.size());
         return entries;
     }
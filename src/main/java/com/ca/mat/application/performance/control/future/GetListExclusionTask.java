@@ -27,6 +27,8 @@
  */
 package com.ca.mat.application.performance.control.future;
 
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+
 /**
  * The concurrent worker class that retrieves the list of excluded programs:  zowe pma scope getlp.
  *
@@ -39,4 +41,19 @@ public class GetListExclusionTask extends GetEntryList {
     protected String getListParam() {
         return "p";
     }
+
+    @Override
+    protected ScopeListParser createParser() {
+        return ScopeListParser.exclusions();
+    }
+
+    @Override
+    public String getSourceName() {
+        return "excluded programs";
+    }
+
+    @Override
+    public boolean owns(Object entry) {
+        return entry instanceof InclusionsAndExclusions.PMAExclusion;
+    }
 }
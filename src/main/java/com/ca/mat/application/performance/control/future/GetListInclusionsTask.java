@@ -27,6 +27,8 @@
  */
 package com.ca.mat.application.performance.control.future;
 
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+
 /**
  * The concurrent worker class that retrieves the list of included jobs:  zowe pma scope getlj.
  *
@@ -38,4 +40,19 @@ public class GetListInclusionsTask extends GetEntryList {
     protected String getListParam() {
         return "j";
     }
+
+    @Override
+    protected ScopeListParser createParser() {
+        return ScopeListParser.inclusions();
+    }
+
+    @Override
+    public String getSourceName() {
+        return "included jobs";
+    }
+
+    @Override
+    public boolean owns(Object entry) {
+        return entry instanceof InclusionsAndExclusions.PMAInclusion;
+    }
 }
@@ -27,23 +27,20 @@
  */
 package com.ca.mat.application.performance.control.future;
 
-import com.ca.mat.application.performance.control.annotation.ProfileMapping;
+import com.ca.mat.application.performance.control.build.CommandClass;
 import com.ca.mat.application.performance.control.build.ZoweCommandLineBuilder;
+import com.ca.mat.application.performance.control.mapping.EntryMapper;
 import com.ca.mat.application.performance.view.CreateProfile;
-import hudson.util.Secret;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONException;
 import net.sf.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
 
 /**
  * The concurrent abstract worker class that retrieves the zowe profiles.
@@ -51,11 +48,21 @@ import java.util.concurrent.Callable;
  * @param <T> The Generic type (AddProfile for each subclass)
  * @author Arthur Pessoa
  */
-public abstract class GetProfileList<T extends CreateProfile.AddProfile> implements Callable<List<T>> {
+public abstract class GetProfileList<T extends CreateProfile.AddProfile> implements ListSource<T> {
     /**
      * The logger.
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(GetProfileList.class);
+    /**
+     * The profile mappers, by subclass, resolved from the type argument of the subclass once.
+     */
+    private static final ClassValue<EntryMapper<?>> PROFILE_MAPPERS = new ClassValue<EntryMapper<?>>() {
+        @Override
+        protected EntryMapper<?> computeValue(Class<?> type) {
+            Type profileType = ((ParameterizedType) type.getGenericSuperclass()).getActualTypeArguments()[0];
+            return EntryMapper.of((Class<?>) profileType);
+        }
+    };
 
     /**
      * The zowe plugin command.
@@ -64,78 +71,52 @@ public abstract class GetProfileList<T extends CreateProfile.AddProfile> impleme
      */
     protected abstract String getPluginCmd();
 
+    /**
+     * Returns the mapper of the profile class, the type argument of the subclass, e.g.: AddProfile of z/OSMF.
+     *
+     * @return the profile mapper
+     */
+    @SuppressWarnings("unchecked")
+    protected EntryMapper<T> getMapper() {
+        return (EntryMapper<T>) PROFILE_MAPPERS.get(getClass());
+    }
+
+    @Override
+    public String getSourceName() {
+        return getPluginCmd() + " profiles";
+    }
+
+    @Override
+    public boolean owns(Object entry) {
+        return getMapper().getType().isInstance(entry);
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.LOCAL;
+    }
+
     @Override
     public List<T> call() {
         LOGGER.info(String.format("Getting list of %s profiles...", getPluginCmd()));
+        JSONArray storedProfiles = ProfileStore.get().getProfiles(getPluginCmd());
+        if (storedProfiles != null) {
+            // the profiles of every type are read from the profile store at once, without a zowe command
+            List<T> entries = readProfiles(storedProfiles);
+            LOGGER.info(String.format("List of %s profiles from the profile store: %d", getPluginCmd(),
+                    entries.size()));
+            return entries;
+        }
         List<T> entries = new ArrayList<>();
         String[] parameters = new String[]{"profiles", "list", getPluginCmd(), "--rfj"};
-        String profiles = new ZoweCommandLineBuilder().getCommandOutputNoTimeout(parameters);
+        String profiles = new ZoweCommandLineBuilder().getCommandOutput(getCommandClass(), parameters);
         try {
             JSONObject response = JSONObject.fromObject(profiles);
             if (response.has("success")) {
                 Object success = response.get("success");
                 if (success instanceof Boolean && Boolean.parseBoolean(success.toString())) {
                     if (response.has("data")) {
-                        JSONArray listProfiles = response.getJSONArray("data");
-                        for (Object profile : listProfiles) {
-                            if (profile instanceof JSONObject) {
-                                JSONObject profileObj = ((JSONObject) profile);
-                                String profileName = profileObj.getString("name");
-                                boolean defaultProfile = false;
-                                if (profileName.contains("(default)")) {
-                                    profileName = profileName.replace("(default)", "").trim();
-                                    defaultProfile = true;
-                                }
-                                if (profileObj.containsKey("profile")) {
-                                    JSONObject profilesObj = (JSONObject) profileObj.get("profile");
-                                    Type[] types = ((ParameterizedType) getClass()
-                                            .getGenericSuperclass()).getActualTypeArguments();
-                                    for (Type type : types) {
-                                        Class<?> classType = Class.forName(type.getTypeName());
-                                        Constructor<?> constructor = classType.getConstructor(String.class,
-                                                boolean.class);
-                                        @SuppressWarnings("unchecked")
-                                        T instance = (T) constructor.newInstance(profileName,
-                                                defaultProfile);
-                                        for (Field field : classType.getDeclaredFields()) {
-                                            if (!field.isAccessible()) {
-                                                field.setAccessible(true);
-                                            }
-                                            String fieldName = field.getName();
-                                            if (!profilesObj.has(fieldName)) {
-                                                if (field.isAnnotationPresent(ProfileMapping.class)) {
-                                                    fieldName = field.getAnnotation(ProfileMapping.class).value();
-                                                }
-                                            }
-                                            Object content = profilesObj.has(fieldName) ?
-                                                    profilesObj.get(fieldName) : "";
-                                            switch (field.getType().getTypeName()) {
-                                                case "long":
-                                                    content = Long.parseLong(content.toString());
-                                                    break;
-                                                case "double":
-                                                    content = Double.parseDouble(content.toString());
-                                                    break;
-                                                case "int":
-                                                    content = Integer.parseInt(content.toString());
-                                                    break;
-                                                case "boolean":
-                                                    content = Boolean.parseBoolean(content.toString());
-                                                    break;
-                                                case "hudson.util.Secret":
-                                                    content = Secret.fromString(content.toString());
-                                                    break;
-                                                default:
-                                                    content = content.toString();
-                                                    break;
-                                            }
-                                            field.set(instance, content);
-                                        }
-                                        entries.add(instance);
-                                    }
-                                }
-                            }
-                        }
+                        entries.addAll(readProfiles(response.getJSONArray("data")));
                     } else {
                         LOGGER.info("No data reported on JSON");
                     }
@@ -152,8 +133,40 @@ public abstract class GetProfileList<T extends CreateProfile.AddProfile> impleme
             LOGGER.info(String.format("List of %s profiles: %d", getPluginCmd(), entries.size()));
         } catch (JSONException e) {
             LOGGER.info(String.format("An error occurred while trying to parse a output JSON \"%s\"", profiles));
+            // a failed command must not empty the list, the current profiles are kept
+            return null;
         } catch (Exception e) {
             LOGGER.info("An error occurred while retrieving the profiles list", e);
+            return null;
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the profiles listed by zowe profiles list --rfj, or read from the profile store.
+     *
+     * @param listProfiles - the listed profiles, e.g.: [{"name": "zosmf1 (default)", "profile": {...}}]
+     * @return the profiles
+     */
+    private List<T> readProfiles(JSONArray listProfiles) {
+        EntryMapper<T> mapper = getMapper();
+        List<T> entries = new ArrayList<>();
+        for (Object profile : listProfiles) {
+            if (profile instanceof JSONObject) {
+                JSONObject profileObj = ((JSONObject) profile);
+                String profileName = profileObj.getString("name");
+                boolean defaultProfile = false;
+                if (profileName.contains("(default)")) {
+                    profileName = profileName.replace("(default)", "").trim();
+                    defaultProfile = true;
+                }
+                if (profileObj.containsKey("profile")) {
+                    JSONObject profilesObj = (JSONObject) profileObj.get("profile");
+                    T instance = mapper.newProfile(profileName, defaultProfile);
+                    mapper.read(instance, profilesObj);
+                    entries.add(instance);
+                }
+            }
         }
         return entries;
     }
@@ -0,0 +1,136 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import com.ca.mat.application.performance.model.ApplyJournal;
+import com.ca.mat.application.performance.model.ListSnapshot;
+import com.ca.mat.application.performance.view.MultipleEntryFields;
+import com.ca.mat.application.performance.view.PerformanceBenchmarking;
+import com.ca.mat.application.performance.view.PluginConfiguration;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class retrieves the entries of the configuration pages (e.g.: the zowe profiles, the pma scope lists) in
+ * the background, so that the pages show the last snapshot at once instead of waiting for zowe.
+ *
+ * <p>The work runs every minute and refreshes the pages whose last retrieval is older than the refresh interval
+ * of the plugin configuration, so a change of the interval applies without a restart. An interval of 0 disables
+ * the background refresh; the pages are then retrieved on their first view and with the refresh button.
+ *
+ * <p>The work also queues the journals of the changes left by a previous run of Jenkins again, e.g.: a restart
+ * while the changes of a page were applied, whatever the refresh interval.
+ *
+ * @author Arthur Pessoa
+ */
+@Extension
+public class ListRefreshWork extends AsyncPeriodicWork {
+
+    /**
+     * The default refresh interval in minutes.
+     */
+    public static final int DEFAULT_INTERVAL = 15;
+    /**
+     * The start time of Jenkins, the journals written before are queued again.
+     */
+    private static final long STARTED = System.currentTimeMillis();
+    /**
+     * The XML files of the pages whose journal was queued again, once after the start.
+     */
+    private final Set<String> resumed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Default constructor.
+     */
+    public ListRefreshWork() {
+        super("Performance Benchmarking list refresh");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return MIN;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        for (PerformanceBenchmarking page : PerformanceBenchmarking.all()) {
+            if (page instanceof MultipleEntryFields) {
+                resume((MultipleEntryFields<?>) page, listener);
+            }
+        }
+        PluginConfiguration configuration = PluginConfiguration.getOrNull();
+        int interval = configuration == null ? DEFAULT_INTERVAL : configuration.getRefreshInterval();
+        if (interval <= 0) {
+            return;
+        }
+        long intervalMillis = TimeUnit.MINUTES.toMillis(interval);
+        for (PerformanceBenchmarking page : PerformanceBenchmarking.all()) {
+            if (!(page instanceof MultipleEntryFields)) {
+                continue;
+            }
+            MultipleEntryFields<?> fields = (MultipleEntryFields<?>) page;
+            if (fields.isRefreshing() || System.currentTimeMillis() - fields.getLastRefresh() < intervalMillis) {
+                // the page was retrieved recently, or a page view is retrieving it
+                continue;
+            }
+            ListSnapshot<?> snapshot = fields.refresh(null);
+            listener.getLogger().println(snapshot == null ? "The entries of " + fields.getXMLFile()
+                    + " could not be retrieved" : String.format("The entries of %s are at version %d",
+                    fields.getXMLFile(), snapshot.getVersion()));
+        }
+    }
+
+    /**
+     * Queues the journal of a page written before the start of Jenkins, unless it is already queued. The journals
+     * of the failed submissions are queued again by the retry action of the page.
+     *
+     * @param fields   - the page
+     * @param listener - the listener of the work
+     */
+    private void resume(MultipleEntryFields<?> fields, TaskListener listener) {
+        try {
+            ApplyJournal<?> journal = fields.getJournal();
+            if (journal == null || journal.getTime() >= STARTED || !resumed.add(fields.getXMLFile())) {
+                return;
+            }
+        } catch (IOException e) {
+            listener.getLogger().println("Could not read the journal of " + fields.getXMLFile() + ": "
+                    + e.getMessage());
+            return;
+        }
+        ApplyQueue.Submission submission = ApplyQueue.get().submit(fields);
+        listener.getLogger().println(String.format("The changes of %s are %s, submission %s", fields.getXMLFile(),
+                submission.getState(), submission.getId()));
+    }
+}
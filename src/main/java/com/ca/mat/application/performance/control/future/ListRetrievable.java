@@ -27,70 +27,381 @@
  */
 package com.ca.mat.application.performance.control.future;
 
+import com.ca.mat.application.performance.control.mapping.EntryMapper;
+import com.ca.mat.application.performance.model.ListSnapshot;
 import com.ca.mat.application.performance.view.MultipleEntryFields;
-import hudson.XmlFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Needs a description, left without full stop to pick this up in checkstyle.
+ * This class retrieves the entries of a configuration page from its sources (e.g.: the included jobs and the
+ * excluded programs of the pma scope) and applies them to the page and its XML file.
+ *
+ * <p>The sources run concurrently and each of them is applied as soon as it completes, in the completion order,
+ * so a slow source does not delay the others. A source that fails or does not complete within its time out keeps
+ * its current entries, without discarding the entries of the other sources.
  *
  * @param <T> the multiple field instance
  */
 public class ListRetrievable<T> implements Runnable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ListRetrievable.class);
+    /**
+     * The time in milliseconds a source may wait for a zowe command permit, on top of the command time out.
+     */
+    private static final long PERMIT_WAIT = TimeUnit.MINUTES.toMillis(1);
 
     /**
      * The multiple field instance.
      */
     private MultipleEntryFields<T> instance;
     /**
-     * The XML file.
+     * The store of the saved entries.
+     */
+    private ConfigStore<T> store;
+    /**
+     * The listener of the sources, null when nobody follows the retrieval.
+     */
+    private Listener listener;
+    /**
+     * Whether at least one source was retrieved.
      */
-    private XmlFile xmlFile;
+    private boolean retrieved;
+    /**
+     * Whether the retrieved entries changed the instance.
+     */
+    private boolean changed;
 
     /**
      * Constructor.
      *
-     * @param xmlFile  the XML file
+     * @param store    the store of the saved entries
      * @param instance the multiple field instance
      */
-    public ListRetrievable(XmlFile xmlFile, MultipleEntryFields<T> instance) {
-        this.xmlFile = xmlFile;
+    public ListRetrievable(ConfigStore<T> store, MultipleEntryFields<T> instance) {
+        this(store, instance, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param store    the store of the saved entries
+     * @param instance the multiple field instance
+     * @param listener the listener told of every source as it completes, e.g.: the progressive rendering
+     */
+    public ListRetrievable(ConfigStore<T> store, MultipleEntryFields<T> instance, Listener listener) {
+        this.store = store;
         this.instance = instance;
+        this.listener = listener;
+    }
+
+    /**
+     * Get whether at least one source was retrieved by the last run, the others may have failed.
+     *
+     * @return true if a source was retrieved
+     */
+    public boolean isRetrieved() {
+        return retrieved;
+    }
+
+    /**
+     * Get whether the last run changed the entries of the instance.
+     *
+     * @return true if the entries changed
+     */
+    public boolean isChanged() {
+        return changed;
     }
 
     @Override
     public void run() {
+        retrieved = false;
+        changed = false;
+        List<Callable<List<T>>> sources = new ArrayList<>(instance.getProcesses());
+        Map<Future<List<T>>, Integer> pending = new LinkedHashMap<>();
+        long[] deadlines = new long[sources.size()];
+        int completed = 0;
         try {
-            ExecutorService threadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-            List<Future<List<T>>> futureEntries = threadPool.invokeAll(instance.getProcesses());
-            List<T> totalEntries = new ArrayList<>();
-            boolean noEntries = false;
-            for (Future<List<T>> futureEntry : futureEntries) {
-                List<T> entries = futureEntry.get();
-                if (entries == null) {
-                    noEntries = true;
-                    break;
-                }
-                totalEntries.addAll(entries);
+            CompletionService<List<T>> completionService = ListRetrievalExecutor.get().newCompletionService();
+            for (int i = 0; i < sources.size(); i++) {
+                deadlines[i] = getDeadline(sources.get(i));
+                pending.put(completionService.submit(sources.get(i)), i);
             }
-            if (!noEntries) {
-                instance.setEntries(totalEntries);
-                xmlFile.write(instance);
-                xmlFile.unmarshal(instance);
+            while (!pending.isEmpty()) {
+                long deadline = Long.MAX_VALUE;
+                for (int index : pending.values()) {
+                    deadline = Math.min(deadline, deadlines[index]);
+                }
+                Future<List<T>> future = deadline == Long.MAX_VALUE ? completionService.take()
+                        : completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    completed = expire(sources, pending, deadlines, completed);
+                    continue;
+                }
+                Integer index = pending.remove(future);
+                if (index == null) {
+                    // an expired source that completed after its cancellation
+                    continue;
+                }
+                completed++;
+                complete(sources, index, future, completed);
             }
-        } catch (InterruptedException | ExecutionException | IOException e) {
+        } catch (InterruptedException e) {
+            LOGGER.info("The retrieval of the list of entities was interrupted", e);
+            cancel(pending);
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
             LOGGER.info("An error occurred while retrieving the list of entities", e);
+            cancel(pending);
         }
     }
+
+    /**
+     * Applies a completed source, or keeps its current entries when it failed.
+     *
+     * @param sources   - the sources of the page
+     * @param index     - the index of the completed source
+     * @param future    - the completed source
+     * @param completed - the number of completed sources, this one included
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void complete(List<Callable<List<T>>> sources, int index, Future<List<T>> future, int completed)
+            throws InterruptedException {
+        Callable<List<T>> source = sources.get(index);
+        try {
+            List<T> entries = future.get();
+            if (entries == null) {
+                failed(source, "no entries were reported", completed, sources.size());
+                return;
+            }
+            changed |= sync(sources, index, entries);
+            retrieved = true;
+            if (listener != null) {
+                listener.retrieved(getSourceName(source, index), entries.size(), completed, sources.size());
+            }
+        } catch (ExecutionException e) {
+            LOGGER.info("An error occurred while retrieving the list of entities", e.getCause());
+            failed(source, String.valueOf(e.getCause().getMessage()), completed, sources.size());
+        } catch (CancellationException e) {
+            failed(source, "the retrieval was cancelled", completed, sources.size());
+        }
+    }
+
+    /**
+     * Cancels the sources past their time out.
+     *
+     * @param sources   - the sources of the page
+     * @param pending   - the sources not completed yet, by their future
+     * @param deadlines - the deadlines of the sources, in nanoseconds
+     * @param completed - the number of completed sources
+     * @return the number of completed sources, the expired sources included
+     */
+    private int expire(List<Callable<List<T>>> sources, Map<Future<List<T>>, Integer> pending, long[] deadlines,
+                       int completed) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Future<List<T>>, Integer>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Future<List<T>>, Integer> entry = iterator.next();
+            if (deadlines[entry.getValue()] - now <= 0) {
+                iterator.remove();
+                entry.getKey().cancel(true);
+                completed++;
+                Callable<List<T>> source = sources.get(entry.getValue());
+                long timeout = TimeUnit.NANOSECONDS.toSeconds(getTimeout(source));
+                failed(source, String.format("the retrieval did not complete within %d seconds", timeout),
+                        completed, sources.size());
+            }
+        }
+        return completed;
+    }
+
+    private void failed(Callable<List<T>> source, String reason, int completed, int total) {
+        LOGGER.info(String.format("The %s of %s were not retrieved, its current entries are kept: %s",
+                getSourceName(source, -1), store.getFile(), reason));
+        if (listener != null) {
+            listener.failed(getSourceName(source, -1), reason, completed, total);
+        }
+    }
+
+    private void cancel(Map<Future<List<T>>, Integer> pending) {
+        for (Future<List<T>> future : pending.keySet()) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Applies the retrieved entries of a source to the instance and its XML file, only when they differ from the
+     * current entries of the source, which are the persisted state. The contents of both lists are compared
+     * first; when they differ, the unchanged entries are kept as they are and only the added and removed
+     * entries are applied, then the file is written once. The entries of the other sources are kept, and the
+     * entries of the source keep their place among them.
+     *
+     * <p>The entries are compared and set on the version of the store they were read from; when a submit saved
+     * other entries meanwhile, the retrieved entries are applied again on the saved ones.
+     *
+     * @param sources   - the sources of the page
+     * @param index     - the index of the retrieved source
+     * @param retrieved - the retrieved entries, in the mainframe order
+     * @return true if the entries changed
+     */
+    private boolean sync(List<Callable<List<T>>> sources, int index, List<T> retrieved) {
+        while (true) {
+            ListSnapshot<T> saved = store.getSnapshot();
+            List<T> synced = sync(sources, index, retrieved, saved.getEntries());
+            if (synced == null) {
+                return false;
+            }
+            // the store writes the entries of the sources completed together once
+            if (store.compareAndSet(saved.getVersion(), synced, instance)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Applies the retrieved entries of a source to the saved entries.
+     *
+     * @param sources   - the sources of the page
+     * @param index     - the index of the retrieved source
+     * @param retrieved - the retrieved entries, in the mainframe order
+     * @param entries   - the saved entries
+     * @return the entries with the retrieved entries of the source, or null if they did not change
+     */
+    private List<T> sync(List<Callable<List<T>>> sources, int index, List<T> retrieved, List<T> entries) {
+        instance.mergePluginSettings(retrieved, entries);
+        List<T> current = new ArrayList<>();
+        List<T> others = new ArrayList<>();
+        int position = -1;
+        for (T entry : entries) {
+            if (owns(sources, index, entry)) {
+                if (position < 0) {
+                    position = others.size();
+                }
+                current.add(entry);
+            } else {
+                others.add(entry);
+            }
+        }
+        if (position < 0) {
+            // the source had no entries, they go before the entries of the next sources
+            position = others.size();
+            for (int i = 0; i < others.size() && position == others.size(); i++) {
+                for (int next = index + 1; next < sources.size(); next++) {
+                    if (owns(sources, next, others.get(i))) {
+                        position = i;
+                        break;
+                    }
+                }
+            }
+        }
+        List<String> retrievedContents = getContents(retrieved);
+        List<String> currentContents = getContents(current);
+        if (store.isSaved() && retrievedContents.equals(currentContents)) {
+            LOGGER.info(String.format("The %d %s of %s did not change", retrieved.size(),
+                    getSourceName(sources.get(index), index), store.getFile()));
+            return null;
+        }
+        Map<String, Deque<T>> unchanged = new HashMap<>();
+        for (int i = 0; i < current.size(); i++) {
+            unchanged.computeIfAbsent(currentContents.get(i), key -> new ArrayDeque<>()).add(current.get(i));
+        }
+        List<T> merged = new ArrayList<>(retrieved.size());
+        int added = 0;
+        for (int i = 0; i < retrieved.size(); i++) {
+            Deque<T> same = unchanged.get(retrievedContents.get(i));
+            if (same != null && !same.isEmpty()) {
+                merged.add(same.poll());
+            } else {
+                merged.add(retrieved.get(i));
+                added++;
+            }
+        }
+        int removed = current.size() - (retrieved.size() - added);
+        LOGGER.info(String.format("Applying %d added and %d removed %s to %s", added, removed,
+                getSourceName(sources.get(index), index), store.getFile()));
+        others.addAll(position, merged);
+        return others;
+    }
+
+    /**
+     * Get whether an entry comes from a source; a source that does not tell its entries owns all of them.
+     */
+    private static boolean owns(List<? extends Callable<?>> sources, int index, Object entry) {
+        Callable<?> source = sources.get(index);
+        return !(source instanceof ListSource) || ((ListSource<?>) source).owns(entry);
+    }
+
+    private static String getSourceName(Callable<?> source, int index) {
+        if (source instanceof ListSource) {
+            return ((ListSource<?>) source).getSourceName();
+        }
+        return index < 0 ? "entries" : "entries of source " + (index + 1);
+    }
+
+    /**
+     * Get the time out of a source, in nanoseconds, or 0 when the source has no time out.
+     */
+    private static long getTimeout(Callable<?> source) {
+        if (!(source instanceof ListSource)) {
+            return 0;
+        }
+        long timeout = ((ListSource<?>) source).getCommandClass().getTimeoutMillis();
+        return timeout <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(timeout + PERMIT_WAIT);
+    }
+
+    private static long getDeadline(Callable<?> source) {
+        long timeout = getTimeout(source);
+        return timeout == 0 ? Long.MAX_VALUE : System.nanoTime() + timeout;
+    }
+
+    private List<String> getContents(List<T> entries) {
+        List<String> contents = new ArrayList<>(entries.size());
+        for (T entry : entries) {
+            contents.add(EntryMapper.of(entry).getContent(entry));
+        }
+        return contents;
+    }
+
+    /**
+     * The listener of the sources of a retrieval, told of every source as it completes, in the completion order.
+     */
+    public interface Listener {
+
+        /**
+         * A source was retrieved and applied.
+         *
+         * @param source    - the source name, e.g.: included jobs
+         * @param entries   - the number of retrieved entries
+         * @param completed - the number of completed sources
+         * @param total     - the number of sources
+         */
+        void retrieved(String source, int entries, int completed, int total);
+
+        /**
+         * A source failed or did not complete within its time out, its current entries are kept.
+         *
+         * @param source    - the source name, e.g.: included jobs
+         * @param reason    - the reason of the failure
+         * @param completed - the number of completed sources
+         * @param total     - the number of sources
+         */
+        void failed(String source, String reason, int completed, int total);
+    }
 }
@@ -0,0 +1,258 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import com.ca.mat.application.performance.control.build.ZoweCommandGovernor;
+import com.ca.mat.application.performance.view.PluginConfiguration;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs the list retrievals of the configuration pages (e.g.: the zowe profiles, the pma scope lists)
+ * on one plugin-wide executor, instead of a new thread pool for every page view.
+ *
+ * <p>The executor has as many threads as the concurrent zowe commands allowed by the plugin configuration, as
+ * every retrieval runs a zowe command. The idle threads are released after {@link #KEEP_ALIVE} seconds, and the
+ * executor is shut down when Jenkins shuts down. When the queue is full, the retrieval runs on the calling
+ * thread. On Java 21 or later, the retrievals can run on virtual threads, enabled in the plugin configuration.
+ *
+ * <p>Enabling or disabling the virtual threads replaces the executor; the previous one completes the retrievals it
+ * holds. The completion services are not bound to an executor, every retrieval is submitted to the current one,
+ * so a retrieval or an apply running across the change keeps submitting its tasks.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ListRetrievalExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListRetrievalExecutor.class);
+    /**
+     * The time in seconds an idle thread is kept.
+     */
+    private static final long KEEP_ALIVE = 60;
+    /**
+     * The maximum number of queued retrievals.
+     */
+    private static final int MAX_QUEUED = 256;
+    /**
+     * The time in seconds given to the running retrievals when Jenkins shuts down.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 10;
+    /**
+     * The thread name prefix.
+     */
+    private static final String THREAD_NAME = "performance-benchmarking-list";
+    /**
+     * The singleton instance.
+     */
+    private static final ListRetrievalExecutor INSTANCE = new ListRetrievalExecutor();
+    /**
+     * The executor, null until the first retrieval or after the shutdown.
+     */
+    private ThreadPoolExecutor executor;
+    /**
+     * Whether the executor threads are virtual threads.
+     */
+    private boolean virtual;
+    /**
+     * Whether the virtual threads were enabled when the executor was created.
+     */
+    private boolean virtualEnabled;
+
+    private ListRetrievalExecutor() {
+    }
+
+    /**
+     * Get the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ListRetrievalExecutor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates a completion service on the executor, which hands out the retrievals in their completion order.
+     *
+     * @param <T> - the retrieval result
+     * @return the completion service
+     */
+    public <T> CompletionService<T> newCompletionService() {
+        return new ExecutorCompletionService<>(this::execute);
+    }
+
+    /**
+     * Runs a retrieval on the current executor; a retrieval submitted while the executor is replaced is submitted
+     * again to the new one.
+     *
+     * @param task - the retrieval
+     */
+    private void execute(Runnable task) {
+        while (true) {
+            ThreadPoolExecutor current = getExecutor();
+            try {
+                current.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (!current.isShutdown()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of retrievals waiting for a thread.
+     *
+     * @return the queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * Get the number of running retrievals.
+     *
+     * @return the active count
+     */
+    public synchronized int getActiveCount() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    /**
+     * Get whether the retrievals run on virtual threads.
+     *
+     * @return true if the executor threads are virtual threads
+     */
+    public synchronized boolean isVirtual() {
+        return executor != null && virtual;
+    }
+
+    /**
+     * Shuts the executor down when Jenkins shuts down, interrupting the retrievals still running after
+     * {@link #SHUTDOWN_TIMEOUT} seconds.
+     */
+    @Terminator
+    public static void shutdown() {
+        ThreadPoolExecutor stopped;
+        synchronized (INSTANCE) {
+            stopped = INSTANCE.executor;
+            INSTANCE.executor = null;
+        }
+        if (stopped != null) {
+            stop(stopped);
+        }
+    }
+
+    /**
+     * Returns the executor, creating it or applying the changes of the plugin configuration.
+     *
+     * @return the executor
+     */
+    private synchronized ThreadPoolExecutor getExecutor() {
+        PluginConfiguration configuration = PluginConfiguration.getOrNull();
+        int threads = Math.max(1, configuration == null ? ZoweCommandGovernor.DEFAULT_MAX_COMMANDS
+                : configuration.getMaxCommands());
+        boolean useVirtual = configuration != null && configuration.isVirtualThreads();
+        if (executor != null && useVirtual != virtualEnabled) {
+            // the running retrievals complete on the previous threads
+            executor.shutdown();
+            executor = null;
+        }
+        if (executor == null) {
+            virtualEnabled = useVirtual;
+            ThreadFactory threadFactory = useVirtual ? getVirtualThreadFactory() : null;
+            virtual = threadFactory != null;
+            if (threadFactory == null) {
+                threadFactory = new NamingThreadFactory(new DaemonThreadFactory(), THREAD_NAME);
+            }
+            executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(MAX_QUEUED), threadFactory, (task, pool) -> {
+                        if (pool.isShutdown()) {
+                            throw new RejectedExecutionException("The list retrieval executor is shut down");
+                        }
+                        // the queue is full, the caller runs the retrieval itself
+                        task.run();
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        } else if (executor.getMaximumPoolSize() != threads) {
+            if (threads > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(threads);
+                executor.setCorePoolSize(threads);
+            } else {
+                executor.setCorePoolSize(threads);
+                executor.setMaximumPoolSize(threads);
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Returns the virtual thread factory of Java 21 or later, looked up by reflection as the plugin is built
+     * for Java 8.
+     *
+     * @return the virtual thread factory, or null if the virtual threads are not available
+     */
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, THREAD_NAME + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.info("The virtual threads are not available on Java " + System.getProperty("java.version")
+                    + ", using platform threads");
+            return null;
+        }
+    }
+
+    private static void stop(ThreadPoolExecutor stopped) {
+        stopped.shutdown();
+        try {
+            if (!stopped.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                LOGGER.info("Interrupting the list retrievals still running");
+                stopped.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            stopped.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
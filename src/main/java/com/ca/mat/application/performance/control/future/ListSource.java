@@ -0,0 +1,66 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import com.ca.mat.application.performance.control.build.CommandClass;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A retrieval of one source of the entries of a configuration page, e.g.: the included jobs of the pma scope.
+ * The sources of a page run concurrently and are applied one at a time, as each of them completes.
+ *
+ * @param <T> the entry type
+ * @author Arthur Pessoa
+ */
+public interface ListSource<T> extends Callable<List<T>> {
+
+    /**
+     * Get the name of the source, shown in the configuration page.
+     *
+     * @return the source name, e.g.: included jobs
+     */
+    String getSourceName();
+
+    /**
+     * Get whether an entry of the configuration page comes from this source, so that the current entries of
+     * the other sources are kept when this source is applied.
+     *
+     * @param entry - the entry
+     * @return true if the entry belongs to this source
+     */
+    boolean owns(Object entry);
+
+    /**
+     * Get the class of the zowe command that retrieves the source, which gives the time out of the retrieval.
+     *
+     * @return the command class
+     */
+    CommandClass getCommandClass();
+}
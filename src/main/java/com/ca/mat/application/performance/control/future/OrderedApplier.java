@@ -0,0 +1,241 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * This class applies the entry actions of a configuration page (e.g.: the added, deleted and updated scope
+ * entries) concurrently, on the list retrieval executor, with at most a given number of actions running at once.
+ *
+ * <p>The actions with the same ordering key (e.g.: the same job name) run one after the other, in the order of the
+ * list, and an action without a key (e.g.: a job name mask) waits for all the actions before it and holds back all
+ * the actions after it. The results are reported in the order of the list, whatever the completion order.
+ *
+ * @param <A> the action, e.g.: an entry action
+ * @param <R> the result of an action, e.g.: the messages shown on the page
+ * @author Arthur Pessoa
+ */
+public final class OrderedApplier<A, R> {
+
+    /**
+     * The default maximum number of actions running at once.
+     */
+    public static final int DEFAULT_CONCURRENCY = 4;
+    /**
+     * The maximum number of actions running at once.
+     */
+    private final int concurrency;
+    /**
+     * The ordering key of an action, null for an action that runs alone.
+     */
+    private final Function<A, Object> orderingKey;
+    /**
+     * The application of an action.
+     */
+    private final Function<A, R> application;
+
+    /**
+     * Constructor.
+     *
+     * @param concurrency - the maximum number of actions running at once, 1 applies the actions one at a time
+     * @param orderingKey - the ordering key of an action, null for an action that runs alone
+     * @param application - the application of an action, e.g.: a zowe command
+     */
+    public OrderedApplier(int concurrency, Function<A, Object> orderingKey, Function<A, R> application) {
+        this.concurrency = Math.max(1, concurrency);
+        this.orderingKey = orderingKey;
+        this.application = application;
+    }
+
+    /**
+     * Applies the actions and waits for all of them to complete.
+     *
+     * @param actions  - the actions, in their order
+     * @param listener - the listener told of the results in the order of the actions, and of the progress
+     * @throws InterruptedException if the thread is interrupted, the running actions are then cancelled
+     * @throws ExecutionException   if an action failed, after the running actions completed
+     */
+    public void apply(List<A> actions, Listener<R> listener) throws InterruptedException, ExecutionException {
+        int total = actions.size();
+        if (concurrency == 1) {
+            // no thread is needed to apply the actions one at a time
+            for (int i = 0; i < total; i++) {
+                listener.applied(i, application.apply(actions.get(i)));
+                listener.progress(i + 1, total);
+            }
+            return;
+        }
+        int[] dependencies = new int[total];
+        List<List<Integer>> dependents = getDependents(actions, dependencies);
+        List<Integer> ready = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (dependencies[i] == 0) {
+                ready.add(i);
+            }
+        }
+        List<R> results = new ArrayList<>(total);
+        boolean[] done = new boolean[total];
+        for (int i = 0; i < total; i++) {
+            results.add(null);
+        }
+        CompletionService<Integer> completionService = ListRetrievalExecutor.get().newCompletionService();
+        Map<Future<Integer>, Integer> running = new HashMap<>();
+        ExecutionException failure = null;
+        int reported = 0;
+        int completed = 0;
+        try {
+            while (completed < total) {
+                // the ready actions start in the order of the list
+                while (failure == null && running.size() < concurrency && !ready.isEmpty()) {
+                    int index = ready.remove(0);
+                    A action = actions.get(index);
+                    running.put(completionService.submit(() -> {
+                        results.set(index, application.apply(action));
+                        return index;
+                    }), index);
+                }
+                if (running.isEmpty()) {
+                    break;
+                }
+                Future<Integer> future = completionService.take();
+                int index = running.remove(future);
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                    continue;
+                }
+                done[index] = true;
+                completed++;
+                for (int dependent : dependents.get(index)) {
+                    if (--dependencies[dependent] == 0) {
+                        insertInOrder(ready, dependent);
+                    }
+                }
+                while (reported < total && done[reported]) {
+                    listener.applied(reported, results.get(reported));
+                    reported++;
+                }
+                listener.progress(completed, total);
+            }
+        } catch (InterruptedException e) {
+            for (Future<Integer> future : running.keySet()) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Evaluates the actions each action waits for: the previous action with the same key, and the previous action
+     * without a key; an action without a key waits for every action since the previous action without a key.
+     *
+     * @param actions      - the actions
+     * @param dependencies - the number of actions each action waits for, filled in
+     * @return the actions waiting for each action
+     */
+    private List<List<Integer>> getDependents(List<A> actions, int[] dependencies) {
+        List<List<Integer>> dependents = new ArrayList<>(actions.size());
+        Map<Object, Integer> lastByKey = new HashMap<>();
+        List<Integer> sinceBarrier = new ArrayList<>();
+        int barrier = -1;
+        for (int i = 0; i < actions.size(); i++) {
+            dependents.add(new ArrayList<>());
+            Object key = orderingKey.apply(actions.get(i));
+            if (key == null) {
+                for (int previous : sinceBarrier) {
+                    dependents.get(previous).add(i);
+                    dependencies[i]++;
+                }
+                if (sinceBarrier.isEmpty() && barrier >= 0) {
+                    dependents.get(barrier).add(i);
+                    dependencies[i]++;
+                }
+                sinceBarrier.clear();
+                lastByKey.clear();
+                barrier = i;
+                continue;
+            }
+            Integer previous = lastByKey.put(key, i);
+            if (previous != null) {
+                dependents.get(previous).add(i);
+                dependencies[i]++;
+            } else if (barrier >= 0) {
+                dependents.get(barrier).add(i);
+                dependencies[i]++;
+            }
+            sinceBarrier.add(i);
+        }
+        return dependents;
+    }
+
+    private static void insertInOrder(List<Integer> ready, int index) {
+        int position = 0;
+        while (position < ready.size() && ready.get(position) < index) {
+            position++;
+        }
+        ready.add(position, index);
+    }
+
+    /**
+     * The listener of the application of the actions.
+     *
+     * @param <R> the result of an action
+     */
+    public interface Listener<R> {
+
+        /**
+         * An action was applied; the actions are reported in their order.
+         *
+         * @param index  - the index of the action
+         * @param result - the result of the action
+         */
+        void applied(int index, R result);
+
+        /**
+         * The number of completed actions changed.
+         *
+         * @param completed - the number of completed actions
+         * @param total     - the number of actions
+         */
+        void progress(int completed, int total);
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import com.ca.mat.application.performance.control.build.ZoweCommandCache;
+import com.ca.mat.application.performance.control.build.ZoweDaemon;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class reads the zowe profiles of every type (e.g.: zosmf, mat, pma, endevor) from the profile store of the
+ * zowe home directory in one pass, instead of launching <b>zowe profiles list &lt;type&gt; --rfj</b> per type.
+ *
+ * <p>The store holds a directory per profile type, with a YAML file per profile and a meta file naming the default
+ * profile, e.g.: ~/.zowe/profiles/zosmf/zosmf1.yaml and ~/.zowe/profiles/zosmf/zosmf_meta.yaml. The profiles are
+ * returned in the shape of the data of <b>zowe profiles list --rfj</b>. A type whose profiles cannot be read from
+ * the files alone, e.g.: with credentials kept by the secure credential manager, is left to the zowe command.
+ *
+ * <p>The profiles read are reused until the cache time to live of the plugin configuration expires, or a profile
+ * command invalidates the zowe query cache.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ProfileStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProfileStore.class);
+    /**
+     * The suffix of the meta file of a profile type.
+     */
+    private static final String META_SUFFIX = "_meta.yaml";
+    /**
+     * The suffix of a profile file.
+     */
+    private static final String PROFILE_SUFFIX = ".yaml";
+    /**
+     * The key of the default profile in the meta file.
+     */
+    private static final String DEFAULT_PROFILE = "defaultProfile";
+    /**
+     * The value of the properties kept by the secure credential manager, e.g.: managed by @zowe/cli.
+     */
+    private static final String SECURE_VALUE = "managed by ";
+    /**
+     * The singleton instance.
+     */
+    private static final ProfileStore INSTANCE = new ProfileStore();
+    /**
+     * The profiles read, by type; a null value marks a type left to the zowe command.
+     */
+    private Map<String, JSONArray> profiles;
+    /**
+     * The time the profiles were read, in nanoseconds.
+     */
+    private long created;
+    /**
+     * The generation of the zowe query cache when the profiles were read.
+     */
+    private long generation;
+
+    private ProfileStore() {
+    }
+
+    /**
+     * Get the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ProfileStore get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the profiles of a type, reading the whole profile store when the profiles read before are not valid.
+     *
+     * @param type - the profile type, e.g.: zosmf
+     * @return the profiles as listed by zowe profiles list --rfj, or null if the zowe command must list them
+     */
+    public JSONArray getProfiles(String type) {
+        Map<String, JSONArray> current;
+        synchronized (this) {
+            ZoweCommandCache cache = ZoweCommandCache.get();
+            if (profiles == null || generation != cache.getGeneration() || cache.isExpired(created)) {
+                generation = cache.getGeneration();
+                created = System.nanoTime();
+                profiles = read(new File(ZoweDaemon.get().getHome(), "profiles"));
+            }
+            current = profiles;
+        }
+        if (!current.containsKey(type)) {
+            // no profile of this type was created
+            return new JSONArray();
+        }
+        JSONArray typeProfiles = current.get(type);
+        return typeProfiles == null ? null : JSONArray.fromObject(typeProfiles);
+    }
+
+    /**
+     * Reads every profile type of the store.
+     *
+     * @param store - the profile store directory
+     * @return the profiles by type
+     */
+    private static Map<String, JSONArray> read(File store) {
+        Map<String, JSONArray> types = new HashMap<>();
+        File[] typeDirs = store.listFiles(File::isDirectory);
+        if (typeDirs == null) {
+            return types;
+        }
+        for (File typeDir : typeDirs) {
+            String type = typeDir.getName();
+            try {
+                types.put(type, readType(typeDir, type));
+            } catch (IOException e) {
+                LOGGER.info("Could not read the zowe " + type + " profiles, they are listed by zowe", e);
+                types.put(type, null);
+            }
+        }
+        LOGGER.info(String.format("Read %d zowe profile types from %s", types.size(), store));
+        return types;
+    }
+
+    /**
+     * Reads the profiles of a type.
+     *
+     * @param typeDir - the directory of the profile type
+     * @param type    - the profile type
+     * @return the profiles, or null if a profile cannot be read from its file alone
+     * @throws IOException if a file cannot be read
+     */
+    private static JSONArray readType(File typeDir, String type) throws IOException {
+        Map<String, String> meta = new HashMap<>();
+        File metaFile = new File(typeDir, type + META_SUFFIX);
+        if (metaFile.isFile()) {
+            readYaml(metaFile, meta);
+        }
+        String defaultProfile = meta.get(DEFAULT_PROFILE);
+        JSONArray typeProfiles = new JSONArray();
+        File[] files = typeDir.listFiles((dir, name) -> name.endsWith(PROFILE_SUFFIX) && !name.endsWith(META_SUFFIX));
+        if (files == null) {
+            return typeProfiles;
+        }
+        for (File file : files) {
+            JSONObject properties = new JSONObject();
+            Map<String, String> values = new HashMap<>();
+            if (!readYaml(file, values)) {
+                return null;
+            }
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                if (value.getValue().startsWith(SECURE_VALUE)) {
+                    return null;
+                }
+                properties.put(value.getKey(), value.getValue());
+            }
+            String name = file.getName().substring(0, file.getName().length() - PROFILE_SUFFIX.length());
+            JSONObject profile = new JSONObject();
+            // the same name as zowe profiles list, e.g.: zosmf1 (default)
+            profile.put("name", name.equals(defaultProfile) ? name + " (default)" : name);
+            profile.put("type", type);
+            profile.put("profile", properties);
+            typeProfiles.add(profile);
+        }
+        return typeProfiles;
+    }
+
+    /**
+     * Reads the top-level scalar values of a YAML file, as written by zowe for the profiles.
+     *
+     * @param file   - the YAML file
+     * @param values - the values read, by key
+     * @return false if the file has a nested value or a list, which only the zowe command reads
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean readYaml(File file, Map<String, String> values) throws IOException {
+        boolean flat = true;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#") || "---".equals(trimmed)) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                if (Character.isWhitespace(line.charAt(0)) || trimmed.startsWith("-") || colon < 0) {
+                    // a value of a nested key, e.g.: the configuration of the meta file
+                    flat = false;
+                    continue;
+                }
+                String key = unquote(line.substring(0, colon).trim());
+                String value = line.substring(colon + 1).trim();
+                if (value.isEmpty() || value.startsWith("|") || value.startsWith(">")) {
+                    flat = false;
+                    continue;
+                }
+                values.put(key, unquote(value));
+            }
+        }
+        return flat;
+    }
+
+    /**
+     * Returns a YAML scalar without its quotes, e.g.: 'it''s' is it's.
+     *
+     * @param value - the YAML scalar
+     * @return the value
+     */
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'")) {
+            return value.substring(1, value.length() - 1).replace("''", "'");
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class parses the output of the pma scope list commands (zowe pma scope getlj and getlp), one line at a time,
+ * into the included jobs or the excluded programs. Examples of the output are in the project resources
+ * (getlj.txt and getlp.txt).
+ *
+ * <p>The patterns are compiled once and their matchers are reused for every line, so the parser can be fed
+ * directly by the command output, or walk an output already read without splitting it.
+ *
+ * @author Arthur Pessoa
+ */
+public abstract class ScopeListParser implements Consumer<String> {
+
+    /**
+     * Matches an included job: job name, step name, proc step and description.
+     */
+    private static final Pattern INCLUSION_PATTERN =
+            Pattern.compile("^\\s([a-zA-Z#@&$._)][a-zA-Z0-9#@%&$_)*]{0,7})\\s{1,8}([a-zA-Z#@&$._)]" +
+                    "[a-zA-Z0-9#@%&$)*]{0,7})?\\s{1,8}([a-z0-9A-Z#@&$._)]" +
+                    "[a-zA-Z0-9#@%&$)*]{0,7})?\\s{1,8}[I|E](.*)$");
+    /**
+     * Matches an excluded program: program name and description.
+     */
+    private static final Pattern EXCLUSION_PATTERN =
+            Pattern.compile("\\s([a-zA-Z#@&$._)][a-zA-Z0-9#@%&$)*]{0,9})\\s{1,9}EXCLUDED (.*)");
+    /**
+     * The title and the column names that start the output.
+     */
+    private static final int HEADER_LINES = 2;
+    /**
+     * The parsed entries.
+     */
+    private final List<InclusionsAndExclusions.Entry> entries = new ArrayList<>();
+    /**
+     * The matcher of the entry lines, reused for every line.
+     */
+    private final Matcher matcher;
+    /**
+     * The number of lines read.
+     */
+    private int lines;
+
+    private ScopeListParser(Pattern pattern) {
+        this.matcher = pattern.matcher("");
+    }
+
+    /**
+     * Creates a parser of the included jobs, zowe pma scope getlj.
+     *
+     * @return the parser
+     */
+    public static ScopeListParser inclusions() {
+        return new ScopeListParser(INCLUSION_PATTERN) {
+            @Override
+            protected InclusionsAndExclusions.Entry toEntry(Matcher matcher) {
+                return new InclusionsAndExclusions.PMAInclusion(group(matcher, 1), group(matcher, 2),
+                        group(matcher, 3), group(matcher, 4).trim());
+            }
+        };
+    }
+
+    /**
+     * Creates a parser of the excluded programs, zowe pma scope getlp.
+     *
+     * @return the parser
+     */
+    public static ScopeListParser exclusions() {
+        return new ScopeListParser(EXCLUSION_PATTERN) {
+            @Override
+            protected InclusionsAndExclusions.Entry toEntry(Matcher matcher) {
+                return new InclusionsAndExclusions.PMAExclusion(group(matcher, 1), group(matcher, 2).trim());
+            }
+        };
+    }
+
+    /**
+     * Creates the entry of a matched line.
+     *
+     * @param matcher - the matcher of the line
+     * @return the entry
+     */
+    protected abstract InclusionsAndExclusions.Entry toEntry(Matcher matcher);
+
+    @Override
+    public void accept(String line) {
+        if (lines++ < HEADER_LINES) {
+            return;
+        }
+        matcher.reset(line);
+        while (matcher.find()) {
+            entries.add(toEntry(matcher));
+        }
+    }
+
+    /**
+     * Parses a command output already read, line by line, without splitting it first.
+     *
+     * @param output - the command output
+     * @return the parsed entries
+     */
+    public List<InclusionsAndExclusions.Entry> parse(String output) {
+        int start = 0;
+        int length = output.length();
+        while (start < length) {
+            int end = output.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            int lineEnd = end > start && output.charAt(end - 1) == '\r' ? end - 1 : end;
+            accept(output.substring(start, lineEnd));
+            start = end + 1;
+        }
+        return entries;
+    }
+
+    /**
+     * Get the entries parsed so far.
+     *
+     * @return the parsed entries
+     */
+    public List<InclusionsAndExclusions.Entry> getEntries() {
+        return entries;
+    }
+
+    private static String group(Matcher matcher, int group) {
+        String value = matcher.group(group);
+        return value == null ? "" : value;
+    }
+}
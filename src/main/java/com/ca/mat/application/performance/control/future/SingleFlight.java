@@ -0,0 +1,158 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * This class coalesces the concurrent list retrievals of a configuration page, keyed by its XML file: the first
+ * request runs the retrieval, and the requests made while it runs join it instead of launching their own zowe
+ * commands. Every request receives the result of the shared retrieval, and its listener is told of every source,
+ * the sources completed before it joined included.
+ *
+ * @param <K> the key of the retrievals, e.g.: the XML file name of the page
+ * @author Arthur Pessoa
+ */
+public final class SingleFlight<K> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlight.class);
+    /**
+     * The running retrievals, by key.
+     */
+    private final ConcurrentMap<K, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the retrieval, or joins the retrieval of the same key already running.
+     *
+     * @param key       - the key of the retrieval, e.g.: pma-scope.xml
+     * @param listener  - the listener of the sources, null when nobody follows the retrieval
+     * @param retrieval - the retrieval, given the listener shared by all the requests
+     * @param <V>       - the result of the retrieval
+     * @return the result of the retrieval, or null if the thread was interrupted while waiting for it
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V run(K key, ListRetrievable.Listener listener, Function<ListRetrievable.Listener, V> retrieval) {
+        Flight flight = new Flight();
+        Flight running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            LOGGER.info("Joining the running retrieval of " + key);
+            running.join(listener);
+            return (V) running.await();
+        }
+        flight.join(listener);
+        try {
+            V result = retrieval.apply(flight);
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Get whether a retrieval of the key is running.
+     *
+     * @param key - the key of the retrieval
+     * @return true if a retrieval is running
+     */
+    public boolean isRunning(K key) {
+        return flights.containsKey(key);
+    }
+
+    /**
+     * A running retrieval, which forwards the completed sources to the listeners of all its requests.
+     */
+    private static final class Flight implements ListRetrievable.Listener {
+        /**
+         * The result of the retrieval.
+         */
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        /**
+         * The listeners of the requests.
+         */
+        private final List<ListRetrievable.Listener> listeners = new ArrayList<>();
+        /**
+         * The sources completed so far, replayed to the listeners joining later.
+         */
+        private final List<Consumer<ListRetrievable.Listener>> events = new ArrayList<>();
+
+        private synchronized void join(ListRetrievable.Listener listener) {
+            if (listener == null) {
+                return;
+            }
+            for (Consumer<ListRetrievable.Listener> event : events) {
+                event.accept(listener);
+            }
+            listeners.add(listener);
+        }
+
+        private Object await() {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException("The shared retrieval failed", e.getCause());
+            }
+        }
+
+        private synchronized void publish(Consumer<ListRetrievable.Listener> event) {
+            events.add(event);
+            for (ListRetrievable.Listener listener : listeners) {
+                event.accept(listener);
+            }
+        }
+
+        @Override
+        public void retrieved(String source, int entries, int completed, int total) {
+            publish(listener -> listener.retrieved(source, entries, completed, total));
+        }
+
+        @Override
+        public void failed(String source, String reason, int completed, int total) {
+            publish(listener -> listener.failed(source, reason, completed, total));
+        }
+    }
+}
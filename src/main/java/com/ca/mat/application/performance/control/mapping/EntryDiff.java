@@ -0,0 +1,242 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.mapping;
+
+import com.ca.mat.application.performance.model.EntryAction;
+import com.ca.mat.application.performance.model.UpdateAction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class evaluates the entries deleted, added and updated between the saved configuration and the submitted
+ * one, in linear time. The entries are indexed by their key (see {@link EntryMapper#getKey(Object)}), computed once
+ * per entry, instead of comparing every entry with every other by reflection; a deleted and an added entry with
+ * the same main field (e.g.: the profile name) make an update.
+ *
+ * <p>The diffs also merge the changes made from the same saved configuration, see
+ * {@link #merge(List, List, List, Function, List)}.
+ *
+ * @param <T> - a program exclusion, program inclusion, zosmf, mat or pma profile.
+ * @author Arthur Pessoa
+ */
+public final class EntryDiff<T> {
+
+    /**
+     * The deleted entries, in the order of the saved configuration.
+     */
+    private final List<EntryAction<T>> deleted;
+    /**
+     * The added entries, in the order of the submitted configuration.
+     */
+    private final List<EntryAction<T>> added;
+    /**
+     * The updated entries, in the order of the saved configuration.
+     */
+    private final List<EntryAction<T>> updated = new ArrayList<>();
+
+    /**
+     * Evaluates the diff of the configurations.
+     *
+     * @param saved     - the entries of the saved configuration
+     * @param submitted - the entries of the submitted configuration
+     * @param mainField - the unique field of an entry, e.g.: the profile name or the job name
+     */
+    public EntryDiff(List<T> saved, List<T> submitted, Function<T, String> mainField) {
+        List<String> savedKeys = getKeys(saved);
+        List<String> submittedKeys = getKeys(submitted);
+        this.deleted = getDifferentEntries(saved, savedKeys, new HashSet<>(submittedKeys),
+                EntryAction.ActionType.delete);
+        this.added = getDifferentEntries(submitted, submittedKeys, new HashSet<>(savedKeys),
+                EntryAction.ActionType.add);
+        Map<String, Deque<EntryAction<T>>> addedByMainField = new HashMap<>();
+        for (EntryAction<T> add : added) {
+            addedByMainField.computeIfAbsent(mainField.apply(add.getEntry()), key -> new ArrayDeque<>()).add(add);
+        }
+        Set<EntryAction<T>> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (EntryAction<T> delete : deleted) {
+            Deque<EntryAction<T>> sameMainField = addedByMainField.get(mainField.apply(delete.getEntry()));
+            EntryAction<T> add = sameMainField == null ? null : sameMainField.poll();
+            if (add != null) {
+                T deletedEntry = delete.getEntry();
+                T newEntry = add.getEntry();
+                List<String> updatedFields = EntryMapper.of(deletedEntry).getUpdatedFields(deletedEntry, newEntry);
+                updated.add(new UpdateAction<>(newEntry, deletedEntry, updatedFields));
+                matched.add(delete);
+                matched.add(add);
+            }
+        }
+        deleted.removeIf(matched::contains);
+        added.removeIf(matched::contains);
+    }
+
+    /**
+     * Merges the changes made from a base configuration into the current one, e.g.: a submit made while another
+     * submit, or a retrieval, changed the saved configuration. The changes of the submitted configuration are
+     * applied to the current one; a change of an entry also changed by the current configuration is a conflict,
+     * the current entry is kept. A change already made by the current configuration is not a conflict.
+     *
+     * @param base      - the entries the submitted configuration was made from
+     * @param submitted - the entries of the submitted configuration
+     * @param current   - the entries of the current configuration
+     * @param mainField - the unique field of an entry, e.g.: the profile name or the job name
+     * @param conflicts - the messages of the conflicting changes, not applied
+     * @param <T>       - the entry type
+     * @return the merged entries, in the order of the current configuration, the added entries last
+     */
+    public static <T> List<T> merge(List<T> base, List<T> submitted, List<T> current, Function<T, String> mainField,
+                                    List<String> conflicts) {
+        EntryDiff<T> mine = new EntryDiff<>(base, submitted, mainField);
+        EntryDiff<T> theirs = new EntryDiff<>(base, current, mainField);
+        Set<String> changed = new HashSet<>();
+        for (List<EntryAction<T>> actions : Arrays.asList(theirs.deleted, theirs.added, theirs.updated)) {
+            for (EntryAction<T> action : actions) {
+                changed.add(mainField.apply(action.getEntry()));
+            }
+        }
+        List<T> merged = new ArrayList<>(current);
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> keys = getKeys(current);
+        for (int i = 0; i < keys.size(); i++) {
+            indexes.putIfAbsent(keys.get(i), i);
+        }
+        for (EntryAction<T> delete : mine.deleted) {
+            String key = EntryMapper.of(delete.getEntry()).getKey(delete.getEntry());
+            if (indexes.containsKey(key) && !isConflict(delete, changed, mainField, conflicts)) {
+                merged.set(indexes.remove(key), null);
+            }
+        }
+        for (EntryAction<T> update : mine.updated) {
+            T oldEntry = ((UpdateAction<T>) update).getOldEntry();
+            String key = EntryMapper.of(update.getEntry()).getKey(update.getEntry());
+            if (!indexes.containsKey(key) && !isConflict(update, changed, mainField, conflicts)) {
+                Integer index = indexes.remove(EntryMapper.of(oldEntry).getKey(oldEntry));
+                if (index == null) {
+                    index = merged.size();
+                    merged.add(null);
+                }
+                merged.set(index, update.getEntry());
+                indexes.put(key, index);
+            }
+        }
+        for (EntryAction<T> add : mine.added) {
+            String key = EntryMapper.of(add.getEntry()).getKey(add.getEntry());
+            if (!indexes.containsKey(key) && !isConflict(add, changed, mainField, conflicts)) {
+                indexes.put(key, merged.size());
+                merged.add(add.getEntry());
+            }
+        }
+        merged.removeIf(Objects::isNull);
+        return merged;
+    }
+
+    private static <T> boolean isConflict(EntryAction<T> action, Set<String> changed, Function<T, String> mainField,
+                                          List<String> conflicts) {
+        String name = mainField.apply(action.getEntry());
+        if (!changed.contains(name)) {
+            return false;
+        }
+        conflicts.add(String.format("Could not %s \"%s\": it was changed meanwhile, the current one is kept.",
+                action.getType(), name));
+        return true;
+    }
+
+    /**
+     * Returns the entries of the first list without an entry of the same key in the second list.
+     *
+     * @param entries    - the first list
+     * @param keys       - the keys of the first list
+     * @param otherKeys  - the keys of the second list
+     * @param type       - the action type of the different entries
+     * @param <T>        - the entry type
+     * @return the different entries, in the order of the first list
+     */
+    public static <T> List<EntryAction<T>> getDifferentEntries(List<T> entries, List<String> keys,
+                                                              Set<String> otherKeys, EntryAction.ActionType type) {
+        List<EntryAction<T>> different = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (!otherKeys.contains(keys.get(i))) {
+                different.add(new EntryAction<>(entries.get(i), type));
+            }
+        }
+        return different;
+    }
+
+    /**
+     * Returns the keys of the entries.
+     *
+     * @param entries - the entries
+     * @param <T>     - the entry type
+     * @return the keys, in the order of the entries
+     */
+    public static <T> List<String> getKeys(List<T> entries) {
+        List<String> keys = new ArrayList<>(entries.size());
+        for (T entry : entries) {
+            keys.add(EntryMapper.of(entry).getKey(entry));
+        }
+        return keys;
+    }
+
+    /**
+     * Get the deleted entries, without the updated ones.
+     *
+     * @return the deleted entries
+     */
+    public List<EntryAction<T>> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Get the added entries, without the updated ones.
+     *
+     * @return the added entries
+     */
+    public List<EntryAction<T>> getAdded() {
+        return added;
+    }
+
+    /**
+     * Get the updated entries, a deleted and an added entry with the same main field.
+     *
+     * @return the updated entries
+     */
+    public List<EntryAction<T>> getUpdated() {
+        return updated;
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.mapping;
+
+import com.ca.mat.application.performance.control.annotation.Default;
+import com.ca.mat.application.performance.control.annotation.PluginSetting;
+import com.ca.mat.application.performance.control.annotation.ProfileMapping;
+import hudson.util.Secret;
+import net.sf.json.JSONObject;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * This class maps the fields of an entry class (e.g.: a zowe profile) to the zowe command options and back.
+ *
+ * <p>The mapper is built once per class from the {@link ProfileMapping}, {@link Default} and {@link PluginSetting}
+ * metadata of its declared fields. The fields are then read and written through the cached, accessible fields
+ * with a converter per field type, instead of looking up the fields and their annotations for every entry.
+ *
+ * @param <T> - the entry class, e.g.: CreateZOSMFProfile.AddProfile
+ * @author Arthur Pessoa
+ */
+public final class EntryMapper<T> {
+
+    /**
+     * The mappers, by entry class.
+     */
+    private static final ClassValue<EntryMapper<?>> MAPPERS = new ClassValue<EntryMapper<?>>() {
+        @Override
+        protected EntryMapper<?> computeValue(Class<?> type) {
+            return new EntryMapper<>(type);
+        }
+    };
+    /**
+     * The entry class.
+     */
+    private final Class<T> type;
+    /**
+     * The mapped fields, in declaration order.
+     */
+    private final List<MappedField> fields;
+    /**
+     * The mapped fields, by field name.
+     */
+    private final Map<String, MappedField> fieldsByName;
+    /**
+     * The fields that make the content of an entry, including the inherited ones and excluding the plugin settings.
+     */
+    private final List<MappedField> contentFields;
+    /**
+     * The fields that identify an entry when the configuration is saved, all the instance fields of the class and
+     * its superclasses, the plugin settings included.
+     */
+    private final List<MappedField> keyFields;
+    /**
+     * The profile constructor, null if the class has none.
+     */
+    private final Constructor<T> constructor;
+
+    private EntryMapper(Class<T> type) {
+        this.type = type;
+        List<MappedField> mappedFields = new ArrayList<>();
+        Map<String, MappedField> byName = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            MappedField mappedField = new MappedField(field);
+            mappedFields.add(mappedField);
+            byName.put(mappedField.name, mappedField);
+        }
+        this.fields = Collections.unmodifiableList(mappedFields);
+        this.fieldsByName = byName;
+        List<MappedField> content = new ArrayList<>();
+        for (MappedField field : mappedFields) {
+            if (!field.pluginSetting) {
+                content.add(field);
+            }
+        }
+        List<MappedField> key = new ArrayList<>(mappedFields);
+        for (Class<?> superclass = type.getSuperclass(); superclass != null && superclass != Object.class;
+             superclass = superclass.getSuperclass()) {
+            for (Field field : superclass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                MappedField inherited = new MappedField(field);
+                key.add(inherited);
+                if (!Modifier.isTransient(field.getModifiers()) && !inherited.pluginSetting) {
+                    content.add(inherited);
+                }
+            }
+        }
+        this.contentFields = Collections.unmodifiableList(content);
+        this.keyFields = Collections.unmodifiableList(key);
+        // e.g.: AddProfile(String profileName, boolean defaultp)
+        Constructor<T> profileConstructor;
+        try {
+            profileConstructor = type.getConstructor(String.class, boolean.class);
+        } catch (NoSuchMethodException e) {
+            profileConstructor = null;
+        }
+        this.constructor = profileConstructor;
+    }
+
+    /**
+     * Get the mapper of the entry class, built on the first call.
+     *
+     * @param type - the entry class
+     * @param <T>  - the entry class
+     * @return the mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntryMapper<T> of(Class<T> type) {
+        return (EntryMapper<T>) MAPPERS.get(type);
+    }
+
+    /**
+     * Get the mapper of the class of the entry.
+     *
+     * @param entry - the entry
+     * @param <T>   - the entry class
+     * @return the mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntryMapper<T> of(T entry) {
+        return (EntryMapper<T>) MAPPERS.get(entry.getClass());
+    }
+
+    /**
+     * Get the entry class.
+     *
+     * @return the entry class
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Creates a profile with the profile constructor, e.g.: AddProfile(String profileName, boolean defaultp).
+     *
+     * @param profileName - the profile name
+     * @param defaultp    - whether this is the default profile
+     * @return the new profile
+     */
+    public T newProfile(String profileName, boolean defaultp) {
+        if (constructor == null) {
+            throw new RuntimeException(type.getName() + " has no constructor for a profile name and default flag");
+        }
+        try {
+            return constructor.newInstance(profileName, defaultp);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Could not create the profile " + profileName, e);
+        }
+    }
+
+    /**
+     * Sets the fields of the entry from the profile properties listed by zowe, e.g.: zowe profiles list zosmf --rfj.
+     * A property is looked up by the field name, then by its {@link ProfileMapping}; the missing properties are
+     * read as empty. The {@link PluginSetting} fields are left unchanged.
+     *
+     * @param entry      - the entry
+     * @param properties - the profile properties, e.g.: {"host": "...", "port": 443, "user": "...", ...}
+     */
+    public void read(T entry, JSONObject properties) {
+        for (MappedField field : fields) {
+            if (field.pluginSetting) {
+                continue;
+            }
+            String key = !properties.has(field.name) && field.mapping != null ? field.mapping : field.name;
+            Object content = properties.has(key) ? properties.get(key) : "";
+            field.set(entry, field.converter.apply(content.toString()));
+        }
+    }
+
+    /**
+     * Returns the zowe command options of the non-empty fields, e.g.: [--host, myhost, --port, 443].
+     * The {@link PluginSetting} fields are not zowe options and are skipped.
+     *
+     * @param entry - the entry
+     * @return the options followed by their values
+     */
+    public List<String> getOptions(T entry) {
+        List<String> options = new ArrayList<>();
+        for (MappedField field : fields) {
+            if (field.pluginSetting) {
+                continue;
+            }
+            Object value = field.get(entry);
+            String content = value == null ? null : value.toString();
+            if (content != null && !content.isEmpty()) {
+                options.add(field.option);
+                options.add(content);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Returns the zowe command options of the given fields, e.g.: [--host, myhost] for the updated fields [hostname].
+     * The {@link PluginSetting} fields and the unknown fields are skipped.
+     *
+     * @param entry      - the entry
+     * @param fieldNames - the field names, e.g.: the updated fields
+     * @return the options followed by their values
+     */
+    public List<String> getOptions(T entry, Collection<String> fieldNames) {
+        List<String> options = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            MappedField field = fieldsByName.get(fieldName);
+            if (field == null || field.pluginSetting) {
+                continue;
+            }
+            options.add(field.option);
+            options.add(Objects.toString(field.get(entry), ""));
+        }
+        return options;
+    }
+
+    /**
+     * Sets the empty fields of the entry to their {@link Default} value.
+     *
+     * @param entry - the entry
+     */
+    public void applyDefaults(T entry) {
+        for (MappedField field : fields) {
+            if (field.defaultValue != null) {
+                Object value = field.get(entry);
+                if (value == null || value.toString().isEmpty()) {
+                    field.set(entry, field.converter.apply(field.defaultValue));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the fields that differ between the two entries.
+     *
+     * @param previous - the previous entry
+     * @param current  - the current entry
+     * @return the updated field names, in declaration order
+     */
+    public List<String> getUpdatedFields(T previous, T current) {
+        List<String> updatedFields = new ArrayList<>();
+        for (MappedField field : fields) {
+            if (!Objects.equals(field.get(previous), field.get(current))) {
+                updatedFields.add(field.name);
+            }
+        }
+        return updatedFields;
+    }
+
+    /**
+     * Returns the content of the entry as text, the name and value of every field, e.g.: hostname=myhost, port=443.
+     * The entries with the same content have the same text, so it can be compared or digested instead of the entry.
+     * The {@link PluginSetting} fields are not part of the content, as they are not retrieved from the mainframe.
+     *
+     * @param entry - the entry
+     * @return the content
+     */
+    public String getContent(T entry) {
+        StringBuilder content = new StringBuilder();
+        for (MappedField field : contentFields) {
+            Object value = field.get(entry);
+            content.append(field.name).append('=')
+                    .append(value instanceof Secret ? ((Secret) value).getPlainText() : value).append('\0');
+        }
+        return content.toString();
+    }
+
+    /**
+     * Returns the key of an entry: its class and the values of all its fields, the plugin settings included. Two
+     * entries with the same key are the same entry of the configuration, and an entry changed in any field has a
+     * new key.
+     *
+     * @param entry - the entry
+     * @return the key
+     */
+    public String getKey(T entry) {
+        StringBuilder key = new StringBuilder(type.getName());
+        for (MappedField field : keyFields) {
+            Object value = field.get(entry);
+            key.append('\0').append(field.name);
+            if (value == null) {
+                key.append('\1');
+            } else {
+                key.append('=').append(value instanceof Secret ? ((Secret) value).getPlainText() : value);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the converter from the zowe property text to the field type.
+     *
+     * @param fieldType - the field type
+     * @return the converter
+     */
+    private static Function<String, Object> getConverter(Class<?> fieldType) {
+        if (fieldType == long.class || fieldType == Long.class) {
+            return Long::parseLong;
+        } else if (fieldType == double.class || fieldType == Double.class) {
+            return Double::parseDouble;
+        } else if (fieldType == int.class || fieldType == Integer.class) {
+            return Integer::parseInt;
+        } else if (fieldType == boolean.class || fieldType == Boolean.class) {
+            return Boolean::parseBoolean;
+        } else if (fieldType == Secret.class) {
+            return Secret::fromString;
+        }
+        return content -> content;
+    }
+
+    /**
+     * A field with its metadata and its cached accessors.
+     */
+    private static final class MappedField {
+        /**
+         * The field name.
+         */
+        private final String name;
+        /**
+         * The {@link ProfileMapping} value, null if not mapped.
+         */
+        private final String mapping;
+        /**
+         * The zowe command option, e.g.: --host.
+         */
+        private final String option;
+        /**
+         * The {@link Default} value, null if none.
+         */
+        private final String defaultValue;
+        /**
+         * Whether the field is a {@link PluginSetting}.
+         */
+        private final boolean pluginSetting;
+        /**
+         * The converter from the zowe property text to the field type.
+         */
+        private final Function<String, Object> converter;
+        /**
+         * The field, accessible.
+         */
+        private final Field field;
+
+        private MappedField(Field field) {
+            this.name = field.getName();
+            ProfileMapping profileMapping = field.getAnnotation(ProfileMapping.class);
+            this.mapping = profileMapping == null ? null : profileMapping.value();
+            this.option = "--" + (mapping == null ? name : mapping);
+            Default defaultAnnotation = field.getAnnotation(Default.class);
+            this.defaultValue = defaultAnnotation == null ? null : defaultAnnotation.value();
+            this.pluginSetting = field.isAnnotationPresent(PluginSetting.class);
+            this.converter = getConverter(field.getType());
+            field.setAccessible(true);
+            this.field = field;
+        }
+
+        private Object get(Object entry) {
+            try {
+                return field.get(entry);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Could not get the value of the field " + name, e);
+            }
+        }
+
+        private void set(Object entry, Object value) {
+            if (Modifier.isFinal(field.getModifiers())) {
+                throw new RuntimeException("The field " + name + " is final");
+            }
+            try {
+                field.set(entry, value);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new RuntimeException(String.format("Could not set the field %s to %s", name, value), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.mapping;
+
+import com.ca.mat.application.performance.model.ListSnapshot;
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * This class indexes a version of the monitoring scope for the paginated views of the scope page, so a page of
+ * thousands of job inclusions and program exclusions is found without going through every entry. The entries are
+ * sorted once by each field, and the job names, step names, procedure steps and programs are kept sorted, so a
+ * search is a binary search of the searched prefix.
+ *
+ * <p>An index never changes; a new one is made for every new version of the saved entries. An entry is identified
+ * by its position in the version, e.g.: the changes of a page are applied to the version they were made from.
+ *
+ * @author Arthur Pessoa
+ */
+public final class ScopeIndex {
+
+    /**
+     * The fields of the entries, by name, in the order of the page columns.
+     */
+    private static final Map<String, Function<InclusionsAndExclusions.Entry, String>> FIELDS = new LinkedHashMap<>();
+    /**
+     * The searched fields.
+     */
+    private static final List<String> SEARCHED_FIELDS = Arrays.asList("jobname", "stepname", "procstep", "program");
+
+    static {
+        FIELDS.put("type", entry -> entry instanceof InclusionsAndExclusions.PMAInclusion ? "inclusion" : "exclusion");
+        FIELDS.put("jobname", entry -> entry instanceof InclusionsAndExclusions.PMAInclusion
+                ? ((InclusionsAndExclusions.PMAInclusion) entry).getJobname() : "");
+        FIELDS.put("stepname", entry -> entry instanceof InclusionsAndExclusions.PMAInclusion
+                ? ((InclusionsAndExclusions.PMAInclusion) entry).getStepname() : "");
+        FIELDS.put("procstep", entry -> entry instanceof InclusionsAndExclusions.PMAInclusion
+                ? ((InclusionsAndExclusions.PMAInclusion) entry).getProcstep() : "");
+        FIELDS.put("program", entry -> entry instanceof InclusionsAndExclusions.PMAExclusion
+                ? ((InclusionsAndExclusions.PMAExclusion) entry).getProgram() : "");
+        FIELDS.put("description", entry -> entry instanceof InclusionsAndExclusions.PMAInclusion
+                ? ((InclusionsAndExclusions.PMAInclusion) entry).getDescription()
+                : ((InclusionsAndExclusions.PMAExclusion) entry).getDescription());
+    }
+
+    /**
+     * The version of the indexed entries.
+     */
+    private final long version;
+    /**
+     * The indexed entries, never modified.
+     */
+    private final List<InclusionsAndExclusions.Entry> entries;
+    /**
+     * The positions of the entries sorted by each field, by field name.
+     */
+    private final Map<String, int[]> orders = new HashMap<>();
+    /**
+     * The upper case values of the searched fields, sorted.
+     */
+    private final String[] terms;
+    /**
+     * The positions of the entries of the sorted terms.
+     */
+    private final int[] termPositions;
+
+    /**
+     * Indexes a version of the saved entries.
+     *
+     * @param snapshot - the saved entries and their version
+     */
+    public ScopeIndex(ListSnapshot<InclusionsAndExclusions.Entry> snapshot) {
+        this.version = snapshot.getVersion();
+        this.entries = snapshot.getEntries();
+        for (Map.Entry<String, Function<InclusionsAndExclusions.Entry, String>> field : FIELDS.entrySet()) {
+            String[] values = new String[entries.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getValue(field.getValue(), entries.get(i));
+            }
+            orders.put(field.getKey(), sort(values.length, position -> values[position]));
+        }
+        List<String> values = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            for (String field : SEARCHED_FIELDS) {
+                String value = getValue(FIELDS.get(field), entries.get(i));
+                if (!value.isEmpty()) {
+                    values.add(value);
+                    positions.add(i);
+                }
+            }
+        }
+        int[] order = sort(values.size(), values::get);
+        this.terms = new String[order.length];
+        this.termPositions = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            terms[i] = values.get(order[i]);
+            termPositions[i] = positions.get(order[i]);
+        }
+    }
+
+    /**
+     * Get the names of the fields the entries can be sorted by.
+     *
+     * @return the field names, in the order of the page columns
+     */
+    public static List<String> getFields() {
+        return Collections.unmodifiableList(new ArrayList<>(FIELDS.keySet()));
+    }
+
+    /**
+     * Get the value of a field of an entry.
+     *
+     * @param field - the field name, see {@link #getFields()}
+     * @param entry - the entry
+     * @return the value, empty if the entry has no such field
+     */
+    public static String getField(String field, InclusionsAndExclusions.Entry entry) {
+        String value = FIELDS.containsKey(field) ? FIELDS.get(field).apply(entry) : null;
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Get the version of the indexed entries.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the indexed entries.
+     *
+     * @return the immutable entries
+     */
+    public List<InclusionsAndExclusions.Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Finds the entries with a job name, step name, procedure step or program starting with the searched text,
+     * sorted by a field.
+     *
+     * @param search     - the searched text, ignoring the case; every entry is found if it is null or empty
+     * @param sort       - the field the entries are sorted by, the saved order if it is null or unknown
+     * @param descending - whether the entries are sorted in the descending order
+     * @return the positions of the found entries, in their order
+     */
+    public int[] find(String search, String sort, boolean descending) {
+        BitSet found = search(search);
+        int[] order = sort == null ? null : orders.get(sort);
+        int[] positions = new int[found == null ? entries.size() : found.cardinality()];
+        int count = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            int index = descending ? entries.size() - 1 - i : i;
+            int position = order == null ? index : order[index];
+            if (found == null || found.get(position)) {
+                positions[count++] = position;
+            }
+        }
+        return positions;
+    }
+
+    private BitSet search(String search) {
+        String prefix = search == null ? "" : search.trim().toUpperCase(Locale.ENGLISH);
+        if (prefix.isEmpty()) {
+            return null;
+        }
+        // the first term not before the prefix, the terms starting with the prefix follow it
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        BitSet found = new BitSet(entries.size());
+        for (int i = low; i < terms.length && terms[i].startsWith(prefix); i++) {
+            found.set(termPositions[i]);
+        }
+        return found;
+    }
+
+    private static String getValue(Function<InclusionsAndExclusions.Entry, String> field,
+                                   InclusionsAndExclusions.Entry entry) {
+        String value = field.apply(entry);
+        return value == null ? "" : value.toUpperCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Sorts the positions by their values; the positions of the same value keep their order.
+     *
+     * @param size   - the number of positions
+     * @param values - the value of a position
+     * @return the sorted positions
+     */
+    private static int[] sort(int size, IntFunction<String> values) {
+        Integer[] positions = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, Comparator.comparing(values::apply));
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = positions[i];
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.zosmf;
+
+import com.ca.mat.application.performance.model.ZosmfJob;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class waits for a submitted job to complete, polling its status with an adaptive backoff: the interval
+ * starts short, so the quick jobs are detected right away, grows while the job keeps running and goes back
+ * to the shortest interval whenever the job changes its status (e.g.: from INPUT to ACTIVE).
+ *
+ * @author Arthur Pessoa
+ */
+public class JobPoller {
+
+    /**
+     * The first interval between the status requests, in milliseconds.
+     */
+    private static final long MIN_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    /**
+     * The longest interval between the status requests, in milliseconds.
+     */
+    private static final long MAX_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    /**
+     * The growth of the interval after each request with no status change.
+     */
+    private static final double BACKOFF = 1.5;
+    /**
+     * The job service.
+     */
+    private final JobService jobService;
+    /**
+     * The maximum time to wait for the job, in milliseconds, 0 means no time out.
+     */
+    private final long timeout;
+
+    /**
+     * The job poller default constructor.
+     *
+     * @param jobService - the job service
+     * @param timeout    - the maximum time to wait for the job, in milliseconds, 0 means no time out
+     */
+    public JobPoller(JobService jobService, long timeout) {
+        this.jobService = jobService;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Waits for the job to complete.
+     *
+     * @param job - the submitted job
+     * @return the completed job, with its return code
+     * @throws IOException          if the status cannot be retrieved or the time out expires
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    public ZosmfJob waitForCompletion(ZosmfJob job) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        long interval = MIN_INTERVAL;
+        while (!job.isComplete()) {
+            if (timeout > 0 && System.currentTimeMillis() - start + interval > timeout) {
+                throw new IOException(String.format("The job %s did not complete after %d seconds", job,
+                        TimeUnit.MILLISECONDS.toSeconds(timeout)));
+            }
+            Thread.sleep(interval);
+            ZosmfJob current = jobService.getStatus(job);
+            interval = Objects.equals(current.getStatus(), job.getStatus()) ?
+                    Math.min(MAX_INTERVAL, (long) (interval * BACKOFF)) : MIN_INTERVAL;
+            job = current;
+        }
+        return job;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.zosmf;
+
+import com.ca.mat.application.performance.model.SpoolFile;
+import com.ca.mat.application.performance.model.ZosmfJob;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The z/OSMF job operations used to submit a job and retrieve its output, without waiting for the job on
+ * an open connection.
+ *
+ * @author Arthur Pessoa
+ * @see ZosmfRestClient
+ * @see ZoweCliJobService
+ */
+public interface JobService {
+
+    /**
+     * Submits the JCL stored in a data set.
+     *
+     * @param dataset - the data set, e.g.: USER.JCL(TESTJOB)
+     * @return the submitted job, as soon as it is on the input queue
+     * @throws IOException          if the job cannot be submitted
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    ZosmfJob submitDataset(String dataset) throws IOException, InterruptedException;
+
+    /**
+     * Gets the current status of a job.
+     *
+     * @param job - the submitted job
+     * @return the job with its current status and return code
+     * @throws IOException          if the status cannot be retrieved
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    ZosmfJob getStatus(ZosmfJob job) throws IOException, InterruptedException;
+
+    /**
+     * Lists the spool files of a job.
+     *
+     * @param job - the submitted job
+     * @return the spool files
+     * @throws IOException          if the spool files cannot be listed
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    List<SpoolFile> getSpoolFiles(ZosmfJob job) throws IOException, InterruptedException;
+
+    /**
+     * Reads the records of a spool file, line by line.
+     *
+     * @param job   - the submitted job
+     * @param file  - the spool file
+     * @param lines - the consumer of the records
+     * @throws IOException          if the spool file cannot be read
+     * @throws InterruptedException if the thread is interrupted, e.g.: the build is aborted
+     */
+    void readSpoolFile(ZosmfJob job, SpoolFile file, Consumer<String> lines) throws IOException, InterruptedException;
+}
@@ -0,0 +1,296 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.zosmf;
+
+import com.ca.mat.application.performance.control.build.CommandClass;
+import com.ca.mat.application.performance.model.SpoolFile;
+import com.ca.mat.application.performance.model.ZosmfJob;
+import com.ca.mat.application.performance.view.CreateZOSMFProfile;
+import hudson.util.Secret;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class calls the z/OSMF REST jobs interface directly, without starting a zowe cli process.
+ *
+ * <p>The requests go through {@link HttpURLConnection}, whose keep-alive cache pools the connections per host:
+ * every response body is read to the end and closed, never disconnected, so the next request of the same
+ * client reuses the open connection (and its TLS session).
+ *
+ * @author Arthur Pessoa
+ */
+public class ZosmfRestClient implements JobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZosmfRestClient.class);
+    /**
+     * The z/OSMF REST jobs interface path.
+     */
+    private static final String JOBS_PATH = "/zosmf/restjobs/jobs";
+    /**
+     * The header required by z/OSMF on the requests that change a resource.
+     */
+    private static final String CSRF_HEADER = "X-CSRF-ZOSMF-HEADER";
+    /**
+     * The time out to open a connection, in milliseconds.
+     */
+    private static final int CONNECT_TIMEOUT = 30000;
+    /**
+     * The socket factory that accepts any certificate, shared so the pooled connections are reused.
+     */
+    private static SSLSocketFactory trustAllSocketFactory;
+    /**
+     * The base url, e.g.: https://mainframe:443 or https://gateway:7554/ibmzosmf/api/v1.
+     */
+    private final String baseUrl;
+    /**
+     * The basic authorization header.
+     */
+    private final String authorization;
+    /**
+     * Whether the unauthorized certificates are rejected.
+     */
+    private final boolean rejectUnauthorized;
+    /**
+     * The time out to read a response, in milliseconds, 0 means no time out.
+     */
+    private final int readTimeout;
+
+    /**
+     * The z/OSMF REST client default constructor.
+     *
+     * @param baseUrl            - the base url, e.g.: https://mainframe:443
+     * @param username           - the user name
+     * @param password           - the password
+     * @param rejectUnauthorized - whether the unauthorized certificates are rejected
+     * @param readTimeout        - the time out to read a response, in milliseconds, 0 means no time out
+     */
+    public ZosmfRestClient(String baseUrl, String username, String password, boolean rejectUnauthorized,
+                           int readTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.rejectUnauthorized = rejectUnauthorized;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Creates the client for a z/OSMF profile.
+     *
+     * @param profile - the z/OSMF profile
+     * @return the client
+     */
+    public static ZosmfRestClient forProfile(CreateZOSMFProfile.AddProfile profile) {
+        String port = profile.getPort() == null || profile.getPort().isEmpty() ? "443" : profile.getPort();
+        String basePath = profile.getBasePath() == null ? "" : profile.getBasePath().trim();
+        if (!basePath.isEmpty() && !basePath.startsWith("/")) {
+            basePath = "/" + basePath;
+        }
+        return new ZosmfRestClient("https://" + profile.getHostname() + ":" + port + basePath,
+                profile.getUsername(), Secret.toString(profile.getPassword()), profile.getRejectUnauthorized(),
+                (int) CommandClass.REMOTE.getTimeoutMillis());
+    }
+
+    @Override
+    public ZosmfJob submitDataset(String dataset) throws IOException {
+        JSONObject body = new JSONObject();
+        body.put("file", "//'" + dataset + "'");
+        return toJob(JSONObject.fromObject(request("PUT", JOBS_PATH, body.toString())));
+    }
+
+    @Override
+    public ZosmfJob getStatus(ZosmfJob job) throws IOException {
+        return toJob(JSONObject.fromObject(request("GET", getJobPath(job), null)));
+    }
+
+    @Override
+    public List<SpoolFile> getSpoolFiles(ZosmfJob job) throws IOException {
+        List<SpoolFile> files = new ArrayList<>();
+        try {
+            for (Object file : JSONArray.fromObject(request("GET", getJobPath(job) + "/files", null))) {
+                JSONObject fileObj = (JSONObject) file;
+                files.add(new SpoolFile(fileObj.getInt("id"), fileObj.optString("ddname"),
+                        fileObj.optString("stepname")));
+            }
+        } catch (JSONException | ClassCastException e) {
+            throw new IOException("Unexpected spool file list from z/OSMF", e);
+        }
+        return files;
+    }
+
+    @Override
+    public void readSpoolFile(ZosmfJob job, SpoolFile file, Consumer<String> lines) throws IOException {
+        HttpURLConnection connection = open("GET", getJobPath(job) + "/files/" + file.getId() + "/records");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(getResponse(connection),
+                getCharset(connection)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.accept(line);
+            }
+        }
+    }
+
+    private String request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = open(method, path);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            byte[] content = body.getBytes(StandardCharsets.UTF_8);
+            connection.setFixedLengthStreamingMode(content.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(content);
+            }
+        }
+        return read(getResponse(connection), getCharset(connection));
+    }
+
+    private HttpURLConnection open(String method, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        if (connection instanceof HttpsURLConnection && !rejectUnauthorized) {
+            HttpsURLConnection https = (HttpsURLConnection) connection;
+            https.setSSLSocketFactory(getTrustAllSocketFactory());
+            https.setHostnameVerifier((hostname, session) -> true);
+        }
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(readTimeout);
+        connection.setRequestProperty("Authorization", authorization);
+        connection.setRequestProperty(CSRF_HEADER, "true");
+        return connection;
+    }
+
+    /**
+     * Returns the response body, reading and closing the error body when the request failed, so the
+     * connection goes back to the keep-alive cache.
+     */
+    private InputStream getResponse(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+            InputStream error = connection.getErrorStream();
+            String message = error == null ? "" : read(error, getCharset(connection));
+            throw new IOException(String.format("z/OSMF returned HTTP %d for %s %s %s", status,
+                    connection.getRequestMethod(), connection.getURL().getPath(), message));
+        }
+        return connection.getInputStream();
+    }
+
+    private static String read(InputStream stream, Charset charset) throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (InputStreamReader reader = new InputStreamReader(stream, charset)) {
+            char[] buffer = new char[8192];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, count);
+            }
+        }
+        return content.toString();
+    }
+
+    private static Charset getCharset(HttpURLConnection connection) {
+        String contentType = connection.getContentType();
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String[] pair = parameter.trim().split("=", 2);
+                if (pair.length == 2 && pair[0].equalsIgnoreCase("charset")) {
+                    try {
+                        return Charset.forName(pair[1].replace("\"", "").trim());
+                    } catch (IllegalArgumentException e) {
+                        LOGGER.info("Unsupported charset on z/OSMF response: " + pair[1]);
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static String getJobPath(ZosmfJob job) throws IOException {
+        return JOBS_PATH + "/" + URLEncoder.encode(job.getJobname(), "UTF-8") + "/"
+                + URLEncoder.encode(job.getJobid(), "UTF-8");
+    }
+
+    private static ZosmfJob toJob(JSONObject job) throws IOException {
+        if (!job.has("jobname") || !job.has("jobid")) {
+            throw new IOException("Unexpected job from z/OSMF: " + job);
+        }
+        Object retcode = job.opt("retcode");
+        return new ZosmfJob(job.getString("jobname"), job.getString("jobid"), job.optString("status"),
+                retcode == null || JSONNull.getInstance().equals(retcode) ? null : retcode.toString());
+    }
+
+    private static synchronized SSLSocketFactory getTrustAllSocketFactory() throws IOException {
+        if (trustAllSocketFactory == null) {
+            TrustManager trustAll = new X509TrustManager() {
+                @Override
+                public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public X509Certificate[] getAcceptedIssuers() {
+                    return new X509Certificate[0];
+                }
+            };
+            try {
+                SSLContext context = SSLContext.getInstance("TLS");
+                context.init(null, new TrustManager[]{trustAll}, null);
+                trustAllSocketFactory = context.getSocketFactory();
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Could not create the TLS context", e);
+            }
+        }
+        return trustAllSocketFactory;
+    }
+}
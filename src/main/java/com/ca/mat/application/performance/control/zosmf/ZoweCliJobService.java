@@ -0,0 +1,132 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.control.zosmf;
+
+import com.ca.mat.application.performance.control.build.CommandClass;
+import com.ca.mat.application.performance.control.build.ZoweCommandLineBuilder;
+import com.ca.mat.application.performance.model.CommandResponse;
+import com.ca.mat.application.performance.model.SpoolFile;
+import com.ca.mat.application.performance.model.ZosmfJob;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The job operations through the zowe cli, e.g.: <b>zowe jobs submit data-set ... --rfj</b>, each one a short
+ * command instead of a single <b>--vasc</b> command open for the whole job runtime.
+ *
+ * @author Arthur Pessoa
+ */
+public class ZoweCliJobService implements JobService {
+
+    /**
+     * The command line builder for Zowe.
+     */
+    private final ZoweCommandLineBuilder zoweCmd;
+
+    /**
+     * The zowe cli job service default constructor.
+     *
+     * @param zoweCmd - the command line builder for Zowe
+     */
+    public ZoweCliJobService(ZoweCommandLineBuilder zoweCmd) {
+        this.zoweCmd = zoweCmd;
+    }
+
+    @Override
+    public ZosmfJob submitDataset(String dataset) throws IOException, InterruptedException {
+        return toJob(getData("jobs", "submit", "data-set", dataset, "--rfj"));
+    }
+
+    @Override
+    public ZosmfJob getStatus(ZosmfJob job) throws IOException, InterruptedException {
+        return toJob(getData("jobs", "view", "job-status-by-jobid", job.getJobid(), "--rfj"));
+    }
+
+    @Override
+    public List<SpoolFile> getSpoolFiles(ZosmfJob job) throws IOException, InterruptedException {
+        List<SpoolFile> files = new ArrayList<>();
+        try {
+            for (Object file : JSONArray.fromObject(getData("jobs", "list", "spool-files-by-jobid",
+                    job.getJobid(), "--rfj"))) {
+                JSONObject fileObj = (JSONObject) file;
+                files.add(new SpoolFile(fileObj.getInt("id"), fileObj.optString("ddname"),
+                        fileObj.optString("stepname")));
+            }
+        } catch (JSONException | ClassCastException e) {
+            throw new IOException("Unexpected spool file list from the zowe cli", e);
+        }
+        return files;
+    }
+
+    @Override
+    public void readSpoolFile(ZosmfJob job, SpoolFile file, Consumer<String> lines)
+            throws IOException, InterruptedException {
+        int status = zoweCmd.streamCommandOutput(CommandClass.REMOTE, lines, "jobs", "view", "spool-file-by-id",
+                job.getJobid(), String.valueOf(file.getId()));
+        if (status != 0) {
+            throw new IOException(String.format("Could not read the spool file %s of job %s, exit status %d",
+                    file.getDdname(), job, status));
+        }
+    }
+
+    /**
+     * Runs the command and returns the data of its JSON response.
+     */
+    private Object getData(String... parameters) throws IOException, InterruptedException {
+        CommandResponse response = zoweCmd.getCommandResponse(CommandClass.REMOTE, parameters);
+        if (response.getStatus() != 0) {
+            throw new IOException("The zowe command failed: " + response.getMessage());
+        }
+        try {
+            JSONObject json = JSONObject.fromObject(response.getMessage());
+            if (!json.optBoolean("success") || !json.has("data")) {
+                throw new IOException("The zowe command failed: " + json.optString("message"));
+            }
+            return json.get("data");
+        } catch (JSONException e) {
+            throw new IOException("Unexpected response from the zowe command: " + response.getMessage(), e);
+        }
+    }
+
+    private static ZosmfJob toJob(Object data) throws IOException {
+        if (!(data instanceof JSONObject) || !((JSONObject) data).has("jobid")) {
+            throw new IOException("Unexpected job from the zowe cli: " + data);
+        }
+        JSONObject job = (JSONObject) data;
+        Object retcode = job.opt("retcode");
+        return new ZosmfJob(job.getString("jobname"), job.getString("jobid"), job.optString("status"),
+                retcode == null || JSONNull.getInstance().equals(retcode) ? null : retcode.toString());
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The model class that represents the write-ahead journal of the changes of a configuration page. The journal is
+ * written once before any command runs, with the submitted entries and the planned entry actions with their
+ * inverses, and is never written again: the state of every action applied or reverted is appended as a record to
+ * the log of the journal, next to it, and the records are replayed when the journal is read. The configuration file
+ * is written only once every action is applied; the log and the journal are then removed. The saved entries the
+ * actions were planned from are kept too, the submitted entries are merged with the entries saved meanwhile, e.g.:
+ * by a retrieval.
+ *
+ * <p>The commands of the entry actions can be repeated: an entry already added, or already deleted, is reported
+ * as such by zowe. An action that was running when its record was last appended is therefore applied again when
+ * the journal is resumed, e.g.: after a restart of Jenkins.
+ *
+ * @param <T> - a program exclusion, program inclusion, zosmf, mat or pma profile.
+ */
+public class ApplyJournal<T> {
+
+    /**
+     * The record of the log telling the applied actions are being reverted.
+     */
+    public static final String ROLLING_BACK = "rollingBack";
+
+    /**
+     * The submitted entries, written to the configuration file when every action is applied.
+     */
+    private final List<T> entries;
+    /**
+     * The saved entries the actions were planned from.
+     */
+    private final List<T> base;
+    /**
+     * The version of the saved entries the actions were planned from.
+     */
+    private final long version;
+    /**
+     * The planned entry actions, in their order.
+     */
+    private final List<Step<T>> steps;
+    /**
+     * The time of the submit, in milliseconds.
+     */
+    private final long time;
+    /**
+     * Whether the applied actions are being reverted.
+     */
+    private boolean rollingBack;
+
+    /**
+     * The journal default constructor.
+     *
+     * @param base    - the saved entries the actions were planned from, copied
+     * @param version - the version of the saved entries
+     * @param entries - the submitted entries, copied
+     * @param actions - the planned entry actions, in their order
+     */
+    public ApplyJournal(List<T> base, long version, List<T> entries, List<EntryAction<T>> actions) {
+        this.base = new ArrayList<>(base);
+        this.version = version;
+        this.entries = new ArrayList<>(entries);
+        this.steps = new ArrayList<>(actions.size());
+        for (EntryAction<T> action : actions) {
+            steps.add(new Step<>(action));
+        }
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the submitted entries.
+     *
+     * @return the entries
+     */
+    public List<T> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the saved entries the actions were planned from.
+     *
+     * @return the entries, null for a journal written by a previous version of the plugin
+     */
+    public List<T> getBase() {
+        return base;
+    }
+
+    /**
+     * Get the version of the saved entries the actions were planned from.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the planned entry actions.
+     *
+     * @return the steps, in their order
+     */
+    public List<Step<T>> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Get the entry actions of the steps.
+     *
+     * @return the entry actions, in their order
+     */
+    public List<EntryAction<T>> getActions() {
+        List<EntryAction<T>> actions = new ArrayList<>(steps.size());
+        for (Step<T> step : steps) {
+            actions.add(step.getAction());
+        }
+        return actions;
+    }
+
+    /**
+     * Get the steps in the given state.
+     *
+     * @param state - the state
+     * @return the steps, in their order
+     */
+    public List<Step<T>> getSteps(State state) {
+        List<Step<T>> found = new ArrayList<>();
+        for (Step<T> step : steps) {
+            if (step.getState() == state) {
+                found.add(step);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the time of the submit.
+     *
+     * @return the time in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Get whether the applied actions are being reverted.
+     *
+     * @return true if the journal is rolling back
+     */
+    public boolean isRollingBack() {
+        return rollingBack;
+    }
+
+    /**
+     * Starts reverting the applied actions; no other action is applied.
+     */
+    public void setRollingBack() {
+        this.rollingBack = true;
+    }
+
+    /**
+     * Get the record of the state of a step, appended to the log of the journal.
+     *
+     * @param index - the index of the step
+     * @return the record, the index and the state of the step
+     */
+    public String getRecord(int index) {
+        return index + " " + steps.get(index).getState();
+    }
+
+    /**
+     * Replays the records of the log of the journal, in their order. A record cut by a crash while it was appended
+     * is skipped, its action is applied again.
+     *
+     * @param records - the records
+     */
+    public void replay(List<String> records) {
+        for (String record : records) {
+            if (ROLLING_BACK.equals(record)) {
+                rollingBack = true;
+                continue;
+            }
+            String[] fields = record.split(" ");
+            try {
+                int index = Integer.parseInt(fields[0]);
+                if (fields.length == 2 && index >= 0 && index < steps.size()) {
+                    steps.get(index).setState(State.valueOf(fields[1]));
+                }
+            } catch (IllegalArgumentException e) {
+                // a cut record, the action was not logged
+            }
+        }
+    }
+
+    /**
+     * The model class that represents a planned entry action and its inverse.
+     *
+     * @param <T> - a program exclusion, program inclusion, zosmf, mat or pma profile.
+     */
+    public static class Step<T> {
+
+        /**
+         * The entry action.
+         */
+        private final EntryAction<T> action;
+        /**
+         * The entry action that reverts the action.
+         */
+        private final EntryAction<T> inverse;
+        /**
+         * The state.
+         */
+        private State state = State.planned;
+
+        /**
+         * The step default constructor.
+         *
+         * @param action - the entry action
+         */
+        public Step(EntryAction<T> action) {
+            this.action = action;
+            this.inverse = getInverse(action);
+        }
+
+        /**
+         * Get the entry action.
+         *
+         * @return the entry action
+         */
+        public EntryAction<T> getAction() {
+            return action;
+        }
+
+        /**
+         * Get the entry action that reverts the action: the deletion of an added entry, the addition of a deleted
+         * entry, or the update back to the old entry.
+         *
+         * @return the inverse entry action
+         */
+        public EntryAction<T> getInverse() {
+            return inverse;
+        }
+
+        /**
+         * Get the state.
+         *
+         * @return the state
+         */
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Set the state.
+         *
+         * @param state - the state
+         */
+        public void setState(State state) {
+            this.state = state;
+        }
+
+        private static <T> EntryAction<T> getInverse(EntryAction<T> action) {
+            switch (action.getType()) {
+                case add:
+                    return new EntryAction<>(action.getEntry(), EntryAction.ActionType.delete);
+                case delete:
+                    return new EntryAction<>(action.getEntry(), EntryAction.ActionType.add);
+                default:
+                    UpdateAction<T> update = (UpdateAction<T>) action;
+                    return new UpdateAction<>(update.getOldEntry(), update.getEntry(), update.getFields());
+            }
+        }
+    }
+
+    /**
+     * Step state enum.
+     */
+    public enum State {
+        /**
+         * The action is not applied yet, or was running when the last record was appended to the log.
+         */
+        planned,
+        /**
+         * The action is applied.
+         */
+        applied,
+        /**
+         * The action could not be applied.
+         */
+        failed,
+        /**
+         * The action was applied, and is reverted.
+         */
+        reverted
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The model class that represents the entries of a configuration page as last retrieved from zowe, e.g.: the
+ * pma scope lists. A snapshot never changes; every retrieval publishes a new one, with a new version when the
+ * entries changed.
+ *
+ * @param <T> - a program exclusion, program inclusion, zosmf, mat or pma profile.
+ */
+public class ListSnapshot<T> {
+
+    /**
+     * The version, incremented every time the retrieved entries change.
+     */
+    private final long version;
+    /**
+     * The time of the retrieval, in milliseconds.
+     */
+    private final long time;
+    /**
+     * The retrieved entries.
+     */
+    private final List<T> entries;
+
+    /**
+     * The snapshot default constructor.
+     *
+     * @param version - the version
+     * @param time    - the time of the retrieval, in milliseconds
+     * @param entries - the retrieved entries, copied
+     */
+    public ListSnapshot(long version, long time, List<T> entries) {
+        this.version = version;
+        this.time = time;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    /**
+     * Get the version.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the time of the retrieval.
+     *
+     * @return the time in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Get the time elapsed since the retrieval.
+     *
+     * @return the age in milliseconds
+     */
+    public long getAge() {
+        return System.currentTimeMillis() - time;
+    }
+
+    /**
+     * Get the entries.
+     *
+     * @return the unmodifiable entries
+     */
+    public List<T> getEntries() {
+        return entries;
+    }
+}
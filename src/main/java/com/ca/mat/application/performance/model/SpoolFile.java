@@ -0,0 +1,88 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.model;
+
+/**
+ * The model class that represents a spool file of a job.
+ *
+ * @author Arthur Pessoa
+ */
+public class SpoolFile {
+    /**
+     * The spool file id.
+     */
+    private final int id;
+    /**
+     * The DD name, e.g.: JESMSGLG, JESJCL, SYSPRINT.
+     */
+    private final String ddname;
+    /**
+     * The step name.
+     */
+    private final String stepname;
+
+    /**
+     * The spool file default constructor.
+     *
+     * @param id       - the spool file id
+     * @param ddname   - the DD name
+     * @param stepname - the step name
+     */
+    public SpoolFile(int id, String ddname, String stepname) {
+        this.id = id;
+        this.ddname = ddname;
+        this.stepname = stepname;
+    }
+
+    /**
+     * Get the spool file id.
+     *
+     * @return the spool file id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get the DD name.
+     *
+     * @return the DD name
+     */
+    public String getDdname() {
+        return ddname;
+    }
+
+    /**
+     * Get the step name.
+     *
+     * @return the step name
+     */
+    public String getStepname() {
+        return stepname;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The 3-Clause BSD License
+
+ * Copyright © 2021 Broadcom. All rights reserved. The term “Broadcom” refers to Broadcom Inc. and/or its
+ * affiliates. All authorized reproductions of this software must be marked with this language.
+
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ * and the following disclaimer in the documentation and/or other materials provided with the distribution.
+
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse
+ * or promote products derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ca.mat.application.performance.model;
+
+/**
+ * The model class that represents a job submitted through z/OSMF.
+ *
+ * @author Arthur Pessoa
+ */
+public class ZosmfJob {
+    /**
+     * The status of a job that completed and whose output is available.
+     */
+    public static final String OUTPUT = "OUTPUT";
+    /**
+     * The job name.
+     */
+    private final String jobname;
+    /**
+     * The job id, e.g.: JOB01234.
+     */
+    private final String jobid;
+    /**
+     * The job status: INPUT, ACTIVE or OUTPUT.
+     */
+    private final String status;
+    /**
+     * The return code, e.g.: CC 0000, ABEND S0C4, JCL ERROR, null while the job runs.
+     */
+    private final String retcode;
+
+    /**
+     * The z/OSMF job default constructor.
+     *
+     * @param jobname - the job name
+     * @param jobid   - the job id
+     * @param status  - the job status
+     * @param retcode - the return code
+     */
+    public ZosmfJob(String jobname, String jobid, String status, String retcode) {
+        this.jobname = jobname;
+        this.jobid = jobid;
+        this.status = status;
+        this.retcode = retcode;
+    }
+
+    /**
+     * Get the job name.
+     *
+     * @return the job name
+     */
+    public String getJobname() {
+        return jobname;
+    }
+
+    /**
+     * Get the job id.
+     *
+     * @return the job id
+     */
+    public String getJobid() {
+        return jobid;
+    }
+
+    /**
+     * Get the job status.
+     *
+     * @return the job status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the return code.
+     *
+     * @return the return code
+     */
+    public String getRetcode() {
+        return retcode;
+    }
+
+    /**
+     * Whether the job completed.
+     *
+     * @return true if the job output is available
+     */
+    public boolean isComplete() {
+        return OUTPUT.equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return jobname + "(" + jobid + ")";
+    }
+}
@@ -129,7 +129,21 @@ public class Autogen extends Builder implements SimpleBuildStep {
             Iterable<? extends CharSequence> sequence = Arrays.asList(content.split(System.lineSeparator()));
             Files.write(destination.toPath(), sequence, StandardCharsets.UTF_8, StandardOpenOption.CREATE);
             if (destination.exists()) {
-                String response = new EndevorCommandLineBuilder().submitSCL(destination.getPath(), instance);
+                // the SCL is submitted from the node of the build, which cannot read the build directory
+                FilePath local = new FilePath(destination);
+                FilePath scl = workspace != null && workspace.isRemote() ? workspace.createTempFile("scl", null)
+                        : local;
+                String response;
+                try {
+                    if (scl != local) {
+                        scl.copyFrom(local);
+                    }
+                    response = new EndevorCommandLineBuilder(launcher, workspace).submitSCL(scl.getRemote(), instance);
+                } finally {
+                    if (scl != local) {
+                        scl.delete();
+                    }
+                }
                 if (response.toLowerCase().contains("error")) {
                     listener.getLogger().println(response);
                     throw new RuntimeException("An error occurred while submitting the SCL");
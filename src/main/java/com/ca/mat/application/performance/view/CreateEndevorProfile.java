@@ -77,7 +77,7 @@ public final class CreateEndevorProfile extends CreateProfile<CreateEndevorProfi
     }
 
     @Override
-    public synchronized ProgressiveRendering entries() {
+    public ProgressiveRendering entries() {
         return new EndevorProgressViewRendering();
     }
 
@@ -147,6 +147,7 @@ public final class CreateEndevorProfile extends CreateProfile<CreateEndevorProfi
      * @return the configuration
      */
     public CreateEndevorProfile.Config getConfig() {
+        load();
         if (config == null) {
             config = new CreateEndevorProfile.Config(null);
         }
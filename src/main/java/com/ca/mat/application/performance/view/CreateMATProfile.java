@@ -66,7 +66,7 @@ public final class CreateMATProfile extends CreateProfile<CreateMATProfile.AddPr
     }
 
     @Override
-    public synchronized ProgressiveRendering entries() {
+    public ProgressiveRendering entries() {
         return new MATProgressViewRendering();
     }
 
@@ -143,6 +143,7 @@ public final class CreateMATProfile extends CreateProfile<CreateMATProfile.AddPr
      * @return the configuration
      */
     public Config getConfig() {
+        load();
         if (config == null) {
             config = new Config(null);
         }
@@ -127,6 +127,7 @@ public class CreatePMAProfile extends CreateProfile<CreatePMAProfile.AddProfile>
      * @return the PMA profile configuration
      */
     public CreatePMAProfile.Config getConfig() {
+        load();
         if (config == null) {
             config = new CreatePMAProfile.Config(null);
         }
@@ -182,7 +183,7 @@ public class CreatePMAProfile extends CreateProfile<CreatePMAProfile.AddProfile>
     }
 
     @Override
-    public synchronized ProgressiveRendering entries() {
+    public ProgressiveRendering entries() {
         return new CreatePMAProfile.PMAProgressViewRendering();
     }
 
@@ -27,8 +27,10 @@
  */
 package com.ca.mat.application.performance.view;
 
-import com.ca.mat.application.performance.control.annotation.Default;
-import com.ca.mat.application.performance.control.annotation.ProfileMapping;
+import com.ca.mat.application.performance.control.build.CommandClass;
+import com.ca.mat.application.performance.control.build.ZoweCommandCache;
+import com.ca.mat.application.performance.control.build.ZoweProcessLauncher;
+import com.ca.mat.application.performance.control.mapping.EntryMapper;
 import com.ca.mat.application.performance.model.EntryAction;
 import com.ca.mat.application.performance.model.UpdateAction;
 import org.kohsuke.stapler.HttpResponse;
@@ -37,7 +39,9 @@ import org.kohsuke.stapler.verb.POST;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import javax.servlet.ServletException;
@@ -61,7 +65,7 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
 
     @Override
     @POST
-    public synchronized HttpResponse doConfigSubmit(StaplerRequest req) throws ServletException, IOException {
+    public HttpResponse doConfigSubmit(StaplerRequest req) throws ServletException, IOException {
         downloadDependencies();
         return super.doConfigSubmit(req);
     }
@@ -79,11 +83,11 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
         HashSet<String> profileNames = new HashSet<>();
         for (T entryAction : getEntries()) {
             if (entryAction.getProfileName().isEmpty()) {
-                errorMessages.add("You cannot have profiles with empty names");
+                validationMessages.add("You cannot have profiles with empty names");
                 invalid = true;
                 break;
             } else if (!profileNames.add(entryAction.getProfileName())) {
-                errorMessages.add("You cannot have two profiles with the same name. Profile name: \"" +
+                validationMessages.add("You cannot have two profiles with the same name. Profile name: \"" +
                         entryAction.getProfileName() + "\"");
                 invalid = true;
                 break;
@@ -91,100 +95,47 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
         }
         if (defaultProfiles > 1) {
             invalid = true;
-            errorMessages.add("You can only have one profile as default.");
+            validationMessages.add("You can only have one profile as default.");
         }
         return invalid;
     }
 
     @Override
-    public String handleSingleDelete(EntryAction<T> entryAction) {
+    public List<String> handleSingleDelete(EntryAction<T> entryAction) {
         T entry = entryAction.getEntry();
-        String deleteCommand = String.format("zowe profiles delete %s %s", getPluginCmd(), (entry).getProfileName());
-        return deleteCommand;
+        return Arrays.asList(ZoweProcessLauncher.ZOWE, "profiles", "delete", getPluginCmd(),
+                entry.getProfileName());
     }
 
 
     @Override
-    public String handleSingleUpdate(UpdateAction<T> entryAction) {
+    public List<String> handleSingleUpdate(UpdateAction<T> entryAction) {
         T entry = entryAction.getEntry();
-        StringBuilder cli = new StringBuilder(String.format("zowe profiles update %s %s",
+        List<String> cli = new ArrayList<>(Arrays.asList(ZoweProcessLauncher.ZOWE, "profiles", "update",
                 getPluginCmd(), entry.getProfileName()));
-        for (String field :
-                entryAction.getFields()) {
-            try {
-                String fieldMapping;
-                Field declaredField = entry.getClass().getDeclaredField(field);
-                if (!declaredField.isAccessible()) {
-                    declaredField.setAccessible(true);
-                }
-                if (declaredField.isAnnotationPresent(ProfileMapping.class)) {
-                    fieldMapping = declaredField.getAnnotation(ProfileMapping.class).value();
-                } else {
-                    fieldMapping = field;
-                }
-                Object value = declaredField.get(entry);
-                cli.append(String.format(" --%s \"%s\"", fieldMapping, value.toString()));
-            } catch (NoSuchFieldException | IllegalAccessException e) {
-                LOGGER.info("An error occurred while issuing the update command", e);
-            }
+        // the plugin settings are not zowe options, there is no command when only they changed
+        List<String> options = EntryMapper.of(entry).getOptions(entry, entryAction.getFields());
+        if (options.isEmpty()) {
+            return Collections.emptyList();
         }
-        return cli.toString();
+        cli.addAll(options);
+        return cli;
     }
 
 
     @Override
-    public String handleSingleNewEntry(EntryAction<T> entryAction) {
+    public List<String> handleSingleNewEntry(EntryAction<T> entryAction) {
         T entry = entryAction.getEntry();
-        String command = "zowe profiles create %s %s --ow";
-        String format = String.format(command, getPluginCmd(), entry.getProfileName());
-        StringBuilder cli = new StringBuilder(format);
-        Field[] declaredFIelds = entry.getClass().getDeclaredFields();
-        for (Field field :
-                declaredFIelds) {
-            if (!field.isAccessible()) {
-                field.setAccessible(true);
-            }
-            try {
-                String content = field.get(entry).toString();
-                if (content != null && !content.isEmpty()) {
-                    format = String.format(" --%s \"%s\"", field.isAnnotationPresent(ProfileMapping.class) ?
-                            field.getAnnotation(ProfileMapping.class).value() : field.getName(), content);
-                    cli.append(format);
-                }
-            } catch (IllegalAccessException e) {
-                LOGGER.info("An error occurred while handling a new single entry", e);
-            }
-        }
-        return cli.toString();
+        List<String> cli = new ArrayList<>(Arrays.asList(ZoweProcessLauncher.ZOWE, "profiles", "create",
+                getPluginCmd(), entry.getProfileName(), "--ow"));
+        cli.addAll(EntryMapper.of(entry).getOptions(entry));
+        return cli;
     }
 
     private void setDefaultValues() {
         for (T entry :
                 getEntries()) {
-            Field[] declaredFields = entry.getClass().getDeclaredFields();
-            for (Field field :
-                    declaredFields) {
-                try {
-                    if (field.isAnnotationPresent(Default.class)) {
-                        if (!field.isAccessible()) {
-                            field.setAccessible(true);
-                        }
-                        Object fieldValue = field.get(entry);
-                        if (fieldValue == null || fieldValue.toString().isEmpty()) {
-                            String value = field.getAnnotation(Default.class).value();
-                            try {
-                                field.set(entry, value);
-                            } catch (IllegalAccessException e) {
-                                throw new RuntimeException(
-                                        String.format("Could not set field %s to default value of %s",
-                                                field.getName(), value), e);
-                            }
-                        }
-                    }
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException(String.format("Could not get value for field %s", field.getName()), e);
-                }
-            }
+            EntryMapper.of(entry).applyDefaults(entry);
         }
     }
 
@@ -198,6 +149,12 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
         return (entry).getProfileName();
     }
 
+    @Override
+    protected Object getOrderingKey(T entry) {
+        // zowe rewrites the meta file of the profile type, e.g.: the default profile, on every profile command
+        return getPluginCmd();
+    }
+
     @Override
     public String getFinalUpdatedMessage(boolean isUpdated, String result, T entry) {
         String finalUpdatedMessage = String.format("Profile %s was %s successfully",
@@ -210,6 +167,12 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
         return result.contains("successfully");
     }
 
+    @Override
+    protected boolean isDeleted(String result) {
+        // a profile already deleted does not exist
+        return isSuccessful(result) || result.contains("does not exist") || result.contains("not found");
+    }
+
     @Override
     public String getXMLFile() {
         return getPluginCmd() + "-profile.xml";
@@ -232,9 +195,11 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
                 T entry = entryAction.getEntry();
                 if (entry.getDefaultp()) {
                     String name = (entry).getProfileName();
-                    String cliCommand = String.format("zowe profiles set-default %s \"%s\"", getPluginCmd(), name);
+                    List<String> cliCommand = Arrays.asList(ZoweProcessLauncher.ZOWE, "profiles", "set-default",
+                            getPluginCmd(), name);
                     try {
-                        zoweCmd.getCommandOutputNoTimeout(cliCommand);
+                        zoweCmd.getCommandOutput(CommandClass.LOCAL, cliCommand);
+                        ZoweCommandCache.get().invalidate(cliCommand);
                     } catch (Exception e) {
                         throw new RuntimeException("An error occurred while setting the profile "
                                 + entry.getProfileName() + " to default", e);
@@ -248,13 +213,14 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
      * This method downloads and installs the latest version of the zowe cli, if not installed in the computer.
      */
     protected boolean downloadZoweCLI() {
-        String cli = "zowe";
         LOGGER.info("Checking installation of zowe");
-        String response = zoweCmd.getCommandOutputNoTimeout(cli).toLowerCase();
+        String response = zoweCmd.getCommandOutput(CommandClass.LOCAL, ZoweProcessLauncher.ZOWE).toLowerCase();
         if (response.contains("error") || response.contains("not recognized")) {
             LOGGER.info("Not found... Trying to install zowe");
-            cli = "npm install -g @zowe/cli@zowe-" + getZoweVersionLTS();
-            response = zoweCmd.getCommandOutputNoTimeout(cli);
+            List<String> cli = Arrays.asList("npm", "install", "-g", "@zowe/cli@zowe-" + getZoweVersionLTS());
+            response = zoweCmd.getCommandOutput(CommandClass.REMOTE, cli);
+            ZoweProcessLauncher.get().invalidate();
+            ZoweCommandCache.get().invalidateAll();
             if (downloadZoweCLI()) {
                 LOGGER.info("Zowe CLI " + getZoweVersionLTS() + " installed sucessfully.");
                 return true;
@@ -287,17 +253,18 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
     protected void downloadDependencies() {
         downloadZoweCLI();
         LOGGER.info("Verifying zowe " + getPluginCmd() + " plugin");
-        String cli = "zowe " + getPluginCmd();
-        String response = zoweCmd.getCommandOutputNoTimeout(cli).toLowerCase();
+        String response = zoweCmd.getCommandOutput(CommandClass.LOCAL, ZoweProcessLauncher.ZOWE, getPluginCmd())
+                .toLowerCase();
         if (response.contains("error")) {
             LOGGER.info("Not found, trying to install zowe " + getPluginCmd() + " plugin");
-            cli = "zowe plugins install " + getPluginName() + "@zowe-" + getZoweVersionLTS();
-            response = zoweCmd.getCommandOutputNoTimeout(cli);
+            response = zoweCmd.getCommandOutput(CommandClass.REMOTE, ZoweProcessLauncher.ZOWE, "plugins", "install",
+                    getPluginName() + "@zowe-" + getZoweVersionLTS());
             if (response.contains("error")) {
                 LOGGER.info("Could not install " + getPluginName());
                 LOGGER.info(response);
             } else {
                 LOGGER.info("Zowe " + getPluginCmd() + " plugin installed");
+                ZoweCommandCache.get().invalidateAll();
             }
         }
     }
@@ -305,7 +272,7 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
     /**
      * This abstract class defines the generic fields for every zowe profile.
      */
-    public abstract static class AddProfile {
+    public abstract static class AddProfile implements Cloneable {
         /**
          * The profile name.
          */
@@ -350,6 +317,31 @@ public abstract class CreateProfile<T extends CreateProfile.AddProfile> extends
         public void setDefaultp() {
             this.defaultp = true;
         }
+
+        /**
+         * Copies the profile; its fields are immutable values, they are shared by the copy.
+         *
+         * @return the copy, of the same class
+         */
+        public AddProfile copy() {
+            try {
+                return (AddProfile) clone();
+            } catch (CloneNotSupportedException e) {
+                throw new RuntimeException("Could not copy the profile " + profileName, e);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T copyEntry(T entry) {
+        return (T) entry.copy();
+    }
+
+    @Override
+    protected CommandClass getCommandClass() {
+        // the zowe profiles are stored in the local machine
+        return CommandClass.LOCAL;
     }
 
     /**
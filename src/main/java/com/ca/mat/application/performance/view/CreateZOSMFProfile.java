@@ -28,6 +28,7 @@
 package com.ca.mat.application.performance.view;
 
 import com.ca.mat.application.performance.control.annotation.Default;
+import com.ca.mat.application.performance.control.annotation.PluginSetting;
 import com.ca.mat.application.performance.control.annotation.ProfileMapping;
 import com.ca.mat.application.performance.control.future.GetZOSMFProfileList;
 import hudson.Extension;
@@ -38,10 +39,13 @@ import hudson.util.Secret;
 import jenkins.model.Jenkins;
 import jenkins.util.ProgressiveRendering;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
@@ -66,13 +70,44 @@ public final class CreateZOSMFProfile extends CreateProfile<CreateZOSMFProfile.A
         return config.entries = entries;
     }
 
+    @Override
+    public void mergePluginSettings(List<AddProfile> retrieved, List<AddProfile> saved) {
+        Map<String, AddProfile> savedByName = new HashMap<>();
+        for (AddProfile entry : saved) {
+            savedByName.put(entry.getProfileName(), entry);
+        }
+        for (AddProfile entry : retrieved) {
+            AddProfile current = savedByName.get(entry.getProfileName());
+            if (current != null) {
+                entry.setRestEngine(current.getRestEngine());
+            }
+        }
+    }
+
+    /**
+     * Get the default z/OSMF profile, the one used by the zowe commands without a profile option.
+     *
+     * @return the default profile, or null if there is no z/OSMF profile
+     */
+    public static AddProfile getDefaultProfile() {
+        CreateZOSMFProfile zosmf = all().get(CreateZOSMFProfile.class);
+        if (zosmf != null) {
+            for (AddProfile entry : new ArrayList<>(zosmf.getEntries())) {
+                if (entry.getDefaultp()) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     protected void setConfig(MultipleEntryFields<AddProfile> read) {
         config = ((CreateZOSMFProfile) read).getConfig();
     }
 
     @Override
-    public synchronized ProgressiveRendering entries() {
+    public ProgressiveRendering entries() {
         return new ZOSMFProgressViewRendering();
     }
 
@@ -148,6 +183,7 @@ public final class CreateZOSMFProfile extends CreateProfile<CreateZOSMFProfile.A
      * @return the ZOSMF profile configuration
      */
     public CreateZOSMFProfile.Config getConfig() {
+        load();
         if (config == null) {
             config = new CreateZOSMFProfile.Config(null);
         }
@@ -246,6 +282,11 @@ public final class CreateZOSMFProfile extends CreateProfile<CreateZOSMFProfile.A
          */
         @ProfileMapping("reject-unauthorized")
         private boolean rejectUnauthorized;
+        /**
+         * Whether the jobs are submitted through the native z/OSMF REST client instead of the zowe cli.
+         */
+        @PluginSetting
+        private boolean restEngine;
 
         /**
          * Constructor.
@@ -295,6 +336,25 @@ public final class CreateZOSMFProfile extends CreateProfile<CreateZOSMFProfile.A
             return rejectUnauthorized;
         }
 
+        /**
+         * Get whether the jobs are submitted through the native z/OSMF REST client.
+         *
+         * @return true or false
+         */
+        public boolean getRestEngine() {
+            return restEngine;
+        }
+
+        /**
+         * Set whether the jobs are submitted through the native z/OSMF REST client.
+         *
+         * @param restEngine true or false
+         */
+        @DataBoundSetter
+        public void setRestEngine(boolean restEngine) {
+            this.restEngine = restEngine;
+        }
+
         /**
          * Get the base path.
          *
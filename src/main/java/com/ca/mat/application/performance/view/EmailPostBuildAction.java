@@ -27,6 +27,7 @@
  */
 package com.ca.mat.application.performance.view;
 
+import com.ca.mat.application.performance.control.build.CommandClass;
 import com.ca.mat.application.performance.control.build.ZoweCommandLineBuilder;
 import com.ca.mat.application.performance.control.email.PMAReportNotificationHelper;
 import com.ca.mat.application.performance.control.email.PerformanceAnalysisMailSender;
@@ -76,7 +77,7 @@ public class EmailPostBuildAction extends Notifier implements SimpleBuildStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath filePath,
-                        @Nonnull Launcher launcher, @Nonnull TaskListener listener) {
+                        @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException {
         try {
             List<String> logLines = run.getLog(1000);
             StringBuilder log = new StringBuilder();
@@ -97,7 +98,8 @@ public class EmailPostBuildAction extends Notifier implements SimpleBuildStep {
                     listener.getLogger().println("Alerts found! Executing MAT History...");
                     listener.getLogger().println("Running measurement history...");
                     String[] parameters = {"mat", "monitor", "history", "--profile", jobname};
-                    history = new ZoweCommandLineBuilder().getCommandOutputNoTimeout(parameters);
+                    history = new ZoweCommandLineBuilder(launcher, filePath)
+                            .getCommandOutputInterruptibly(CommandClass.REMOTE, parameters);
                     listener.getLogger().println("Measurement history is finished");
                 }
                 AnalysisOutput analysisOutput = new AnalysisOutput(performance, alert, history);
@@ -109,7 +111,7 @@ public class EmailPostBuildAction extends Notifier implements SimpleBuildStep {
                 listener.getLogger().println("Could not evaluate performance and alert... " +
                         "Skipping e-mail notification.");
             }
-        } catch (IOException | URISyntaxException | InterruptedException e) {
+        } catch (IOException | URISyntaxException e) {
             throw new RuntimeException("An internal error occurred while reading the build log", e);
         }
     }
@@ -30,18 +30,33 @@ package com.ca.mat.application.performance.view;
 
 import com.ca.mat.application.performance.control.future.GetListExclusionTask;
 import com.ca.mat.application.performance.control.future.GetListInclusionsTask;
+import com.ca.mat.application.performance.control.mapping.ScopeIndex;
 import com.ca.mat.application.performance.model.EntryAction;
+import com.ca.mat.application.performance.model.ListSnapshot;
 import com.ca.mat.application.performance.model.UpdateAction;
 import hudson.Extension;
 import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
+import hudson.util.HttpResponses;
+import jenkins.model.Jenkins;
 import jenkins.util.ProgressiveRendering;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 import org.kohsuke.stapler.DataBoundConstructor;
-
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.verb.GET;
+import org.kohsuke.stapler.verb.POST;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 
 /**
@@ -53,19 +68,31 @@ public final class InclusionsAndExclusions extends MultipleEntryFields<Inclusion
     /**
      * Zowe PMA command for deleting jobs.
      */
-    private static final String ZOWE_PMA_DEL_JOB_FORMAT = "zowe pma scope del-job \"%s\"";
+    private static final String[] ZOWE_PMA_DEL_JOB_CMD = {"zowe", "pma", "scope", "del-job"};
     /**
      * Zowe PMA command for including jobs.
      */
-    private static final String ZOWE_PMA_INC_JOB_CMD = "zowe pma scope incj";
+    private static final String[] ZOWE_PMA_INC_JOB_CMD = {"zowe", "pma", "scope", "incj"};
     /**
      * Zowe PMA command for excluding jobs.
      */
-    private static final String ZOWE_PMA_EXCL_JOB_CMD = "zowe pma scope exl-pgm";
+    private static final String[] ZOWE_PMA_EXCL_JOB_CMD = {"zowe", "pma", "scope", "exl-pgm"};
     /**
      * Zowe PMA command for deleting programs.
      */
-    private static final String ZOWE_PMA_DEL_PGM_CMD = "zowe pma scope del-pgm";
+    private static final String[] ZOWE_PMA_DEL_PGM_CMD = {"zowe", "pma", "scope", "del-pgm"};
+    /**
+     * The number of entries of a page, by default.
+     */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    /**
+     * The maximum number of entries of a page.
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+    /**
+     * The index of the saved entries, made again for every new version.
+     */
+    private transient volatile ScopeIndex index;
 
     @Override
     public String getDescription() {
@@ -144,6 +171,12 @@ public final class InclusionsAndExclusions extends MultipleEntryFields<Inclusion
         return result.contains("IS ADDED") || result.contains("ALREADY EXISTS");
     }
 
+    @Override
+    protected boolean isDeleted(String result) {
+        // an entry already deleted is not found
+        return result.contains("IS DELETED") || result.contains("IS NOT FOUND");
+    }
+
     @Override
     protected String getFinalUpdatedMessage(boolean isUpdated, String result, Entry entry) {
         String actionText = result.contains("IS ADDED") ? (isUpdated ? "IS UPDATED" : "IS ADDED") : "ALREADY EXISTS";
@@ -158,75 +191,73 @@ public final class InclusionsAndExclusions extends MultipleEntryFields<Inclusion
     }
 
     @Override
-    protected String handleSingleNewEntry(EntryAction<Entry> entryAction) {
+    protected List<String> handleSingleNewEntry(EntryAction<Entry> entryAction) {
         Entry entry = entryAction.getEntry();
-        String cli = "";
+        List<String> cli;
         if (entry instanceof InclusionsAndExclusions.PMAInclusion) {
             //Inclusions here
             InclusionsAndExclusions.PMAInclusion obj = (InclusionsAndExclusions.PMAInclusion) entry;
-            cli = ZOWE_PMA_INC_JOB_CMD;
+            cli = new ArrayList<>(Arrays.asList(ZOWE_PMA_INC_JOB_CMD));
             String name = obj.getJobname();
             String description = obj.getDescription();
             String procstep = obj.getProcstep();
             String stepname = obj.getStepname();
-            cli = cli + " \"" + name + "\"";
+            cli.add(name);
             if (!stepname.isEmpty()) {
-                cli = cli + " --st \"" + stepname + "\"";
+                cli.add("--st");
+                cli.add(stepname);
             }
             if (!procstep.isEmpty()) {
-                cli = cli + " --ps \"" + procstep + "\"";
-            }
-            if (!description.isEmpty()) {
-                cli = cli + " --dc \"" + description + "\"";
-            } else {
-                cli = cli + " --dc \"INCL BY PMA JENKINS PLG\"";
+                cli.add("--ps");
+                cli.add(procstep);
             }
+            cli.add("--dc");
+            cli.add(!description.isEmpty() ? description : "INCL BY PMA JENKINS PLG");
         } else {
             //exclusions here
             InclusionsAndExclusions.PMAExclusion obj = (InclusionsAndExclusions.PMAExclusion) entry;
-            cli = ZOWE_PMA_EXCL_JOB_CMD;
+            cli = new ArrayList<>(Arrays.asList(ZOWE_PMA_EXCL_JOB_CMD));
             String program = obj.getProgram();
             String description = obj.getDescription();
-            cli = cli + " \"" + program + "\"";
-            if (!description.isEmpty()) {
-                cli = cli + " --dc \"" + description + "\"";
-            } else {
-                cli = cli + " --dc \"EXCL BY PMA JENKINS PLG\"";
-            }
+            cli.add(program);
+            cli.add("--dc");
+            cli.add(!description.isEmpty() ? description : "EXCL BY PMA JENKINS PLG");
         }
         return cli;
     }
 
     @Override
-    protected String handleSingleUpdate(UpdateAction<Entry> entry) {
+    protected List<String> handleSingleUpdate(UpdateAction<Entry> entry) {
         EntryAction<Entry> deleteAction = new EntryAction<Entry>(entry.getOldEntry(), EntryAction.ActionType.delete);
-        String cli = handleSingleDelete(deleteAction);
-        zoweCmd.getCommandOutputNoTimeout(cli);
+        List<String> cli = handleSingleDelete(deleteAction);
+        zoweCmd.getCommandOutput(getCommandClass(), cli);
         return handleSingleNewEntry(entry);
     }
 
     @Override
-    protected String handleSingleDelete(EntryAction<Entry> entryAction) {
+    protected List<String> handleSingleDelete(EntryAction<Entry> entryAction) {
         Entry entry = entryAction.getEntry();
-        String cli = "";
+        List<String> cli;
         if (entry instanceof InclusionsAndExclusions.PMAInclusion) {
             InclusionsAndExclusions.PMAInclusion inclusionEntry = ((InclusionsAndExclusions.PMAInclusion) entry);
+            cli = new ArrayList<>(Arrays.asList(ZOWE_PMA_DEL_JOB_CMD));
             if (!inclusionEntry.getJobname().contains("*")) {
-                cli = String.format(ZOWE_PMA_DEL_JOB_FORMAT + " --ps \"%s\" --st \"%s\"",
+                cli.addAll(Arrays.asList(
                         inclusionEntry.getJobname().isEmpty() ? " " : inclusionEntry.getJobname(),
-                        inclusionEntry.getProcstep().isEmpty() ? " " : inclusionEntry.getProcstep(),
-                        inclusionEntry.getStepname().isEmpty() ? " " : inclusionEntry.getStepname());
+                        "--ps", inclusionEntry.getProcstep().isEmpty() ? " " : inclusionEntry.getProcstep(),
+                        "--st", inclusionEntry.getStepname().isEmpty() ? " " : inclusionEntry.getStepname()));
             } else {
-                cli = String.format(ZOWE_PMA_DEL_JOB_FORMAT, inclusionEntry.getJobname());
+                cli.add(inclusionEntry.getJobname());
             }
         } else {
-            cli = ZOWE_PMA_DEL_PGM_CMD + " " + ((InclusionsAndExclusions.PMAExclusion) entry).getProgram();
+            cli = new ArrayList<>(Arrays.asList(ZOWE_PMA_DEL_PGM_CMD));
+            cli.add(((InclusionsAndExclusions.PMAExclusion) entry).getProgram());
         }
         return cli;
     }
 
     @Override
-    public synchronized ProgressiveRendering entries() {
+    public ProgressiveRendering entries() {
         return new ScopeProgressViewRendering();
     }
 
@@ -245,6 +276,11 @@ public final class InclusionsAndExclusions extends MultipleEntryFields<Inclusion
         return config.entries = entries;
     }
 
+    @Override
+    protected Entry copyEntry(Entry entry) {
+        return entry.copy();
+    }
+
     @Override
     protected String getMainFieldLabel(Entry entry) {
         return entry instanceof PMAInclusion ? "job name" : "program";
@@ -256,6 +292,203 @@ public final class InclusionsAndExclusions extends MultipleEntryFields<Inclusion
                 : ((PMAExclusion) entry).getProgram();
     }
 
+    @Override
+    protected Object getOrderingKey(Entry entry) {
+        String name = getMainField(entry);
+        if (name == null || name.contains("*")) {
+            // a mask may match the jobs or the programs of the other entries
+            return null;
+        }
+        return (entry instanceof PMAInclusion ? "job " : "program ") + name;
+    }
+
+    /**
+     * Get the index of the saved entries, made again when the saved entries changed.
+     *
+     * @return the index of the current version
+     */
+    public ScopeIndex getIndex() {
+        ListSnapshot<Entry> saved = getStore().getSnapshot();
+        ScopeIndex current = index;
+        if (current == null || current.getVersion() != saved.getVersion()) {
+            current = new ScopeIndex(saved);
+            index = current;
+        }
+        return current;
+    }
+
+    /**
+     * Get the index of a version of the saved entries, e.g.: the version the changes of a page are made from.
+     *
+     * @param version - the version
+     * @return the index of the version, or null if the version is no longer kept
+     */
+    public ScopeIndex getIndex(long version) {
+        ScopeIndex current = getIndex();
+        if (current.getVersion() == version) {
+            return current;
+        }
+        List<Entry> entries = getStore().getEntries(version);
+        return entries == null ? null : new ScopeIndex(new ListSnapshot<>(version, 0, entries));
+    }
+
+    /**
+     * Returns a page of the saved entries, e.g.: GET list?start=0&amp;count=50&amp;sort=jobname&amp;search=PAY. The
+     * entries are found by the prefix of their job name, step name, procedure step or program, and sorted by a
+     * field. An entry is identified by its position in the version of the saved entries, sent back with the changes;
+     * the pages of a version are listed as long as the version is kept, e.g.: while its changes are not submitted.
+     *
+     * @param configVersion - the version of the saved entries, the current one by default
+     * @param start         - the number of found entries before the page
+     * @param count         - the number of entries of the page, 50 by default and 500 at most
+     * @param sort          - the field the entries are sorted by, the saved order by default
+     * @param descending    - whether the entries are sorted in the descending order
+     * @param search        - the searched prefix, ignoring the case
+     * @return the page as JSON: the version, the number of found entries and the entries of the page, 400 if the
+     * version is not a number, or 404 if the version is no longer kept
+     */
+    @GET
+    public HttpResponse doList(@QueryParameter String configVersion, @QueryParameter int start,
+                               @QueryParameter int count, @QueryParameter String sort,
+                               @QueryParameter boolean descending, @QueryParameter String search) {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        Long version = configVersion == null || configVersion.isEmpty() ? null : getVersion(configVersion);
+        if (version == null && configVersion != null && !configVersion.isEmpty()) {
+            return HttpResponses.errorWithoutStack(400, "Invalid " + CONFIG_VERSION + ": " + configVersion);
+        }
+        ScopeIndex current = version == null ? getIndex() : getIndex(version);
+        if (current == null) {
+            return HttpResponses.notFound();
+        }
+        int[] found = current.find(search, sort, descending);
+        int size = count <= 0 ? DEFAULT_PAGE_SIZE : Math.min(count, MAX_PAGE_SIZE);
+        int first = Math.max(0, Math.min(start, found.length));
+        JSONArray page = new JSONArray();
+        for (int i = first; i < Math.min(found.length, first + size); i++) {
+            JSONObject entry = new JSONObject();
+            entry.element("id", found[i]);
+            for (String field : ScopeIndex.getFields()) {
+                entry.element(field, ScopeIndex.getField(field, current.getEntries().get(found[i])));
+            }
+            page.add(entry);
+        }
+        return HttpResponses.okJSON(new JSONObject()
+                .element(CONFIG_VERSION, current.getVersion())
+                .element("total", found.length)
+                .element("start", first)
+                .element("entries", page));
+    }
+
+    /**
+     * This method handles the post request of the changes of the paginated page: only the deleted, updated and
+     * added entries are sent, e.g.: {"configVersion": 1, "deleted": [3], "updated": [{"id": 5, ...}],
+     * "added": [{"type": "inclusion", ...}]}. The changes are applied to the version of the saved entries they were
+     * made from, identified by the positions of the listed entries, then submitted as the configuration form.
+     *
+     * @param req - the POST request
+     * @return The POST request HTTP response, 400 if the version, an entry position or an entry type is invalid
+     * @throws ServletException if an error occurs in the application server
+     * @throws IOException      if an I/O error occurs
+     */
+    @POST
+    public HttpResponse doSubmitChanges(StaplerRequest req) throws ServletException, IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        JSONObject json = req.getSubmittedForm();
+        // the positions of the entries are those of the version the changes were made from
+        Long version = getVersion(json.opt(CONFIG_VERSION));
+        if (version == null) {
+            return HttpResponses.errorWithoutStack(400, "Missing or invalid " + CONFIG_VERSION);
+        }
+        List<Entry> base = getStore().getEntries(version);
+        if (base == null) {
+            return submitted(Collections.singletonList("The configuration was changed by too many other submits "
+                    + "meanwhile, please reload the page and submit the changes again."));
+        }
+        List<Entry> entries = new ArrayList<>(base);
+        JSONArray deleted = json.optJSONArray("deleted");
+        for (int i = 0; deleted != null && i < deleted.size(); i++) {
+            Integer position = getPosition(base, deleted.get(i));
+            if (position == null) {
+                return HttpResponses.errorWithoutStack(400, "Unknown entry " + deleted.get(i));
+            }
+            entries.set(position, null);
+        }
+        JSONArray updated = json.optJSONArray("updated");
+        for (int i = 0; updated != null && i < updated.size(); i++) {
+            Object item = updated.get(i);
+            Integer position = item instanceof JSONObject ? getPosition(base, ((JSONObject) item).opt("id")) : null;
+            Entry entry = position == null ? null : toEntry((JSONObject) item);
+            if (entry == null) {
+                return HttpResponses.errorWithoutStack(400, "Invalid updated entry " + item);
+            }
+            entries.set(position, entry);
+        }
+        entries.removeIf(Objects::isNull);
+        JSONArray added = json.optJSONArray("added");
+        for (int i = 0; added != null && i < added.size(); i++) {
+            Object item = added.get(i);
+            Entry entry = item instanceof JSONObject ? toEntry((JSONObject) item) : null;
+            if (entry == null) {
+                return HttpResponses.errorWithoutStack(400, "Invalid added entry " + item);
+            }
+            entries.add(entry);
+        }
+        MultipleEntryFields<Entry> form = newForm();
+        // the entries of the version are saved ones, the form validates copies of them
+        form.setEntries(copyEntries(entries));
+        return submit(version, form);
+    }
+
+    /**
+     * Reads a version sent by the page.
+     *
+     * @param value - the version, a number or its text
+     * @return the version, or null if it is not a number
+     */
+    private static Long getVersion(Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return value instanceof String ? Long.valueOf(((String) value).trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the position of a listed entry.
+     *
+     * @param base - the entries of the version the entry was listed from
+     * @param id   - the position sent by the page
+     * @return the position, or null if it is not the position of an entry
+     */
+    private static Integer getPosition(List<Entry> base, Object id) {
+        if (!(id instanceof Integer)) {
+            return null;
+        }
+        int position = (Integer) id;
+        return position < 0 || position >= base.size() ? null : position;
+    }
+
+    /**
+     * Reads an entry of the paginated page.
+     *
+     * @param json - the fields of the entry, e.g.: {"type": "exclusion", "program": "PGM1", "description": ""}
+     * @return the job inclusion or the program exclusion, or null if the type is unknown
+     */
+    private static Entry toEntry(JSONObject json) {
+        String type = json.optString("type", "");
+        if ("exclusion".equals(type)) {
+            return new PMAExclusion(json.optString("program", ""), json.optString("description", ""));
+        }
+        if (!"inclusion".equals(type)) {
+            return null;
+        }
+        return new PMAInclusion(json.optString("jobname", ""), json.optString("stepname", ""),
+                json.optString("procstep", ""), json.optString("description", ""));
+    }
+
     @Override
     public Collection<Callable<List<Entry>>> getProcesses() {
         Collection<Callable<List<Entry>>> processes = new ArrayList<>();
@@ -275,6 +508,7 @@ public final class InclusionsAndExclusions extends MultipleEntryFields<Inclusion
      * @return the config
      */
     public Config getConfig() {
+        load();
         if (config == null) {
             config = new Config(null);
         }
@@ -331,8 +565,20 @@ public final class InclusionsAndExclusions extends MultipleEntryFields<Inclusion
     /**
      * Inner class representing an abstract  entry.
      */
-    public abstract static class Entry extends AbstractDescribableImpl<Entry> {
+    public abstract static class Entry extends AbstractDescribableImpl<Entry> implements Cloneable {
 
+        /**
+         * Copies the entry; its fields are immutable values, they are shared by the copy.
+         *
+         * @return the copy, of the same class
+         */
+        public Entry copy() {
+            try {
+                return (Entry) clone();
+            } catch (CloneNotSupportedException e) {
+                throw new RuntimeException("Could not copy the entry", e);
+            }
+        }
     }
 
     /**
@@ -27,34 +27,58 @@
  */
 package com.ca.mat.application.performance.view;
 
+import com.ca.mat.application.performance.control.build.CommandClass;
+import com.ca.mat.application.performance.control.build.ZoweCommandCache;
 import com.ca.mat.application.performance.control.build.ZoweCommandLineBuilder;
+import com.ca.mat.application.performance.control.future.ApplyQueue;
+import com.ca.mat.application.performance.control.future.ConfigStore;
 import com.ca.mat.application.performance.control.future.ListRetrievable;
+import com.ca.mat.application.performance.control.future.OrderedApplier;
+import com.ca.mat.application.performance.control.future.SingleFlight;
+import com.ca.mat.application.performance.control.mapping.EntryDiff;
+import com.ca.mat.application.performance.model.ApplyJournal;
 import com.ca.mat.application.performance.model.EntryAction;
+import com.ca.mat.application.performance.model.ListSnapshot;
 import com.ca.mat.application.performance.model.UpdateAction;
+import hudson.Util;
 import hudson.XmlFile;
 import hudson.util.FormApply;
+import hudson.util.HttpResponses;
 import jenkins.model.Jenkins;
 import jenkins.util.ProgressiveRendering;
 import net.sf.json.JSON;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.verb.GET;
 import org.kohsuke.stapler.verb.POST;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpSession;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This abstract class represents the superclass for the CreateProfile class.
@@ -68,17 +92,58 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      */
     protected ZoweCommandLineBuilder zoweCmd = new ZoweCommandLineBuilder();
     /**
-     * A list of modified entries.
+     * A list of modified entries, replaced by every applied journal.
      */
-    private List<EntryAction<T>> modifiedEntries = new ArrayList<>();
+    private transient volatile List<EntryAction<T>> modifiedEntries = Collections.emptyList();
     /**
-     * A list of error messages.
+     * The messages of the validation of a submitted form, e.g.: a profile without name.
      */
-    final List<String> errorMessages = new LinkedList<>();
+    final transient List<String> validationMessages = new ArrayList<>();
     /**
      * The logger.
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(MultipleEntryFields.class);
+    /**
+     * The running retrievals, by XML file, shared by the concurrent views and refreshes of a page.
+     */
+    private static final SingleFlight<String> REFRESHES = new SingleFlight<>();
+    /**
+     * The locks of the journals, by XML file, held while a journal is applied.
+     */
+    private static final ConcurrentMap<String, ReentrantLock> JOURNAL_LOCKS = new ConcurrentHashMap<>();
+    /**
+     * The maximum time in milliseconds a page view waits for the messages of a submission.
+     */
+    private static final long FOLLOW_INTERVAL = 1000;
+    /**
+     * The name of the form field holding the version of the saved entries the form was made from.
+     */
+    protected static final String CONFIG_VERSION = "configVersion";
+    /**
+     * The prefix of the session attribute holding the messages of the last submit of a page, by XML file. The
+     * messages are shown by the next view of the page in the same session, the other admins do not see them.
+     */
+    private static final String SUBMIT_MESSAGES = MultipleEntryFields.class.getName() + ".submitMessages.";
+    /**
+     * The entries last retrieved from zowe, null until the first retrieval.
+     */
+    private transient volatile ListSnapshot<T> snapshot;
+    /**
+     * The time of the last retrieval attempt, in milliseconds.
+     */
+    private transient volatile long lastRefresh;
+    /**
+     * Whether the next page view retrieves the entries, even when the snapshot is recent.
+     */
+    private transient volatile boolean refreshRequested;
+    /**
+     * Whether the page is loaded with the saved entries.
+     */
+    private transient volatile boolean loaded;
+    /**
+     * Whether the page is being loaded, by the thread holding the lock of the page.
+     */
+    private transient boolean loading;
 
     /**
      * Get the configuration file.
@@ -89,6 +154,48 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
         return new XmlFile(new File(Jenkins.get().getRootDir(), getXMLFile()));
     }
 
+    /**
+     * Get the write-ahead journal of the changes not yet applied.
+     *
+     * @return the journal file, next to the configuration file.
+     */
+    public XmlFile getJournalFile() {
+        return new XmlFile(new File(Jenkins.get().getRootDir(), getXMLFile() + ".journal"));
+    }
+
+    /**
+     * Get the log of the journal, the records of the states of its entry actions, appended after every action.
+     *
+     * @return the log file, next to the journal file.
+     */
+    public File getJournalLog() {
+        return new File(Jenkins.get().getRootDir(), getXMLFile() + ".journal.log");
+    }
+
+    /**
+     * Reads the journal of the changes not yet applied, with the states of its log.
+     *
+     * @return the journal, or null if every change is applied
+     * @throws IOException if the journal cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public ApplyJournal<T> getJournal() throws IOException {
+        XmlFile journalFile = getJournalFile();
+        if (!journalFile.exists()) {
+            return null;
+        }
+        ApplyJournal<T> journal = (ApplyJournal<T>) journalFile.read();
+        File log = getJournalLog();
+        if (log.exists()) {
+            journal.replay(Files.readAllLines(log.toPath(), StandardCharsets.UTF_8));
+        }
+        return journal;
+    }
+
+    private ReentrantLock getJournalLock() {
+        return JOURNAL_LOCKS.computeIfAbsent(getXMLFile(), file -> new ReentrantLock());
+    }
+
     /**
      * Retrieves the list of modified entries.
      *
@@ -125,6 +232,16 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      */
     protected abstract boolean isSuccessful(String result);
 
+    /**
+     * Handles whether the output of a delete entry action is successful, an entry already deleted included.
+     *
+     * @param result - the result of the entry action, e.g.: the command output.
+     * @return whether the entry is deleted or not
+     */
+    protected boolean isDeleted(String result) {
+        return isSuccessful(result);
+    }
+
     /**
      * Returns the final message from a update of new entry action.
      *
@@ -140,26 +257,26 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      * e.g.: a command, a rest call, a file save.
      *
      * @param entry - the generic type that corresponds the entry.
-     * @return the entry action or result
+     * @return the command that applies the entry action, e.g.: [zowe, profiles, create, ...]
      */
-    protected abstract String handleSingleNewEntry(EntryAction<T> entry);
+    protected abstract List<String> handleSingleNewEntry(EntryAction<T> entry);
 
     /**
      * Handles a single new update entry after saving the configuration.
      * e.g.: a command, a rest call, a file save.
      *
      * @param entry - the generic type that corresponds the entry.
-     * @return the entry action or result
+     * @return the command that applies the entry action, e.g.: [zowe, profiles, update, ...]
      */
-    protected abstract String handleSingleUpdate(UpdateAction<T> entry);
+    protected abstract List<String> handleSingleUpdate(UpdateAction<T> entry);
 
     /**
      * Handles a single new delete entry after saving the configuration.
      *
      * @param entry - the generic type that corresponds the entry.
-     * @return the entry action or result
+     * @return the command that applies the entry action, e.g.: [zowe, profiles, delete, ...]
      */
-    protected abstract String handleSingleDelete(EntryAction<T> entry);
+    protected abstract List<String> handleSingleDelete(EntryAction<T> entry);
 
     /**
      * Refers to an unique label field that represents the entry, like a name or ID.
@@ -178,6 +295,17 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      */
     protected abstract String getMainField(T entry);
 
+    /**
+     * Refers to the key of the entry actions that must be applied one after the other, in their order, e.g.: the
+     * deletion and the addition of the same job. The actions of different keys are applied concurrently.
+     *
+     * @param entry - the generic type that corresponds the entry.
+     * @return the ordering key, by default the main field, or null if the entry action must be applied alone
+     */
+    protected Object getOrderingKey(T entry) {
+        return getMainField(entry);
+    }
+
     /**
      * Evaluates whether the configuration has invalid entries.
      *
@@ -200,6 +328,39 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      */
     public abstract List<T> setEntries(List<T> entries);
 
+    /**
+     * Copies an entry; the store saves copies of the entries, which are never changed by a page or a form.
+     *
+     * @param entry - the entry
+     * @return the copy
+     */
+    protected abstract T copyEntry(T entry);
+
+    /**
+     * Copies entries, e.g.: the entries saved by the store or set on a page.
+     *
+     * @param entries - the entries
+     * @return the copies, in the same order
+     */
+    public List<T> copyEntries(List<T> entries) {
+        List<T> copies = new ArrayList<>(entries.size());
+        for (T entry : entries) {
+            copies.add(copyEntry(entry));
+        }
+        return copies;
+    }
+
+    /**
+     * Carries the settings kept by the plugin over from the saved entries to the retrieved entries, as they are not
+     * part of what is retrieved from the mainframe. The submitted entries are set as they are.
+     *
+     * @param retrieved - the retrieved entries, updated
+     * @param saved     - the saved entries
+     */
+    public void mergePluginSettings(List<T> retrieved, List<T> saved) {
+        // by default the entries have no plugin settings
+    }
+
     /**
      * Get the collection of the processes to retrieve the configuration on the start-up.
      *
@@ -207,17 +368,148 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      */
     public abstract Collection<Callable<List<T>>> getProcesses();
 
+    /**
+     * Get the class of the commands that apply the entry actions, which defines their time out.
+     *
+     * @return the command class, by default the commands send a request to the mainframe.
+     */
+    protected CommandClass getCommandClass() {
+        return CommandClass.REMOTE;
+    }
+
     @Override
     public List<SourceFile> getSourceFiles() {
         return super.getSourceFiles();
     }
 
+    /**
+     * Get the entries last retrieved from zowe.
+     *
+     * @return the snapshot, or null if the entries were not retrieved since Jenkins started.
+     */
+    public ListSnapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the time of the last retrieval attempt, successful or not.
+     *
+     * @return the time in milliseconds, 0 if the entries were never retrieved.
+     */
+    public long getLastRefresh() {
+        return lastRefresh;
+    }
+
+    /**
+     * Get the age of the snapshot shown by the page.
+     *
+     * @return the description of the snapshot age
+     */
+    public String getSnapshotDescription() {
+        ListSnapshot<T> current = snapshot;
+        if (current == null) {
+            return "The entries have not been retrieved yet.";
+        }
+        return String.format("The entries were retrieved %s ago (version %d).",
+                Util.getTimeSpanString(current.getAge()), current.getVersion());
+    }
+
+    /**
+     * Retrieves the entries from zowe and publishes a new snapshot, unless every source failed. A retrieval
+     * requested while another one of the page runs joins it: the listener is told of its sources and the snapshot
+     * it publishes is returned, without running the zowe commands again.
+     *
+     * @param listener - the listener of the sources, null when nobody follows the retrieval.
+     * @return the snapshot, the previous one if no source was retrieved.
+     */
+    public ListSnapshot<T> refresh(ListRetrievable.Listener listener) {
+        ListSnapshot<T> refreshed = REFRESHES.run(getXMLFile(), listener, this::retrieve);
+        return refreshed == null ? snapshot : refreshed;
+    }
+
+    /**
+     * Get whether a retrieval of the page is running.
+     *
+     * @return true if a retrieval is running
+     */
+    public boolean isRefreshing() {
+        return REFRESHES.isRunning(getXMLFile());
+    }
+
+    private ListSnapshot<T> retrieve(ListRetrievable.Listener listener) {
+        ListRetrievable<T> retrievable = new ListRetrievable<>(getStore(), this, listener);
+        retrievable.run();
+        lastRefresh = System.currentTimeMillis();
+        ListSnapshot<T> previous = snapshot;
+        if (retrievable.isRetrieved()) {
+            long version = previous == null ? 1 : previous.getVersion() + (retrievable.isChanged() ? 1 : 0);
+            snapshot = new ListSnapshot<>(version, lastRefresh, getStore().getEntries());
+        }
+        return snapshot;
+    }
+
+    /**
+     * This method handles the post request of the refresh button, the next page view retrieves the entries.
+     *
+     * @return The POST request HTTP response
+     */
+    @POST
+    public HttpResponse doRefresh() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        refreshRequested = true;
+        return FormApply.success(".");
+    }
+
+    /**
+     * Get the description of the journal left by a failed submission, which the retry action applies again.
+     *
+     * @return the description, or null if there is no journal or its submission is not finished yet
+     */
+    public String getFailedJournalDescription() {
+        if (ApplyQueue.get().getFollowed(getXMLFile()) != null) {
+            return null;
+        }
+        ApplyJournal<T> journal;
+        try {
+            journal = getJournal();
+        } catch (IOException e) {
+            LOGGER.info("Could not read the journal of " + getXMLFile(), e);
+            return "The journal of the last changes could not be read, please check the logs for more details.";
+        }
+        if (journal == null) {
+            return null;
+        }
+        if (journal.isRollingBack()) {
+            return "The last changes could not be applied and are not completely rolled back yet, "
+                    + "retry to roll them back.";
+        }
+        int pending = journal.getSteps(ApplyJournal.State.failed).size()
+                + journal.getSteps(ApplyJournal.State.planned).size();
+        return String.format("The last changes are not completely applied, %d of %d entry actions failed or were "
+                + "not run, retry to apply them.", pending, journal.getSteps().size());
+    }
+
+    /**
+     * This method handles the post request of the retry button, the journal left by a failed submission is
+     * queued again and the page views follow it.
+     *
+     * @return The POST request HTTP response
+     */
+    @POST
+    public HttpResponse doRetry() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        if (getJournalFile().exists()) {
+            ApplyQueue.get().submit(this);
+        }
+        return FormApply.success(".");
+    }
+
     /**
      * This method returns the class instance that will handle the progress bar handler.
      *
      * @return the instance that binds the UI with the control class.
      */
-    public synchronized ProgressiveRendering entries() {
+    public ProgressiveRendering entries() {
         return new ProgressViewRendering();
     }
 
@@ -227,45 +519,67 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      */
     protected class ProgressViewRendering extends ProgressiveRendering {
 
+        /**
+         * The messages of this page view, taken by the next data request.
+         */
+        private final Queue<String> errorMessages = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Creates the rendering of a page view, with the messages of the last submit of the session.
+         */
         @SuppressWarnings("unchecked")
+        protected ProgressViewRendering() {
+            StaplerRequest req = Stapler.getCurrentRequest();
+            HttpSession session = req == null ? null : req.getSession(false);
+            Object messages = session == null ? null : session.getAttribute(SUBMIT_MESSAGES + getXMLFile());
+            if (messages instanceof List) {
+                session.removeAttribute(SUBMIT_MESSAGES + getXMLFile());
+                errorMessages.addAll((List<String>) messages);
+            }
+        }
+
         @Override
         protected void compute() {
-            XmlFile cc = getConfigFile();
-            MultipleEntryFields<T> read = null;
             int totalEntries = 0;
             try {
-                if (cc.exists()) {
-                    read = (MultipleEntryFields<T>) cc.read();
-                }
-                totalEntries = modifiedEntries.size();
-                if (totalEntries > 0) {
-                    processEntries(modifiedEntries, totalEntries);
-                    postProcessEntries();
+                // a journal left by a failed submission is only applied again by the retry action, and after a
+                // restart by the refresh work, as a page view must not run the zowe commands that change it
+                ApplyQueue.Submission submission = ApplyQueue.get().getFollowed(getXMLFile());
+                if (submission != null) {
+                    totalEntries = follow(submission);
                 } else {
                     progress(0.5);
                 }
             } catch (Exception err) {
+                if (err instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
                 err.printStackTrace();
                 errorMessages.add("An internal error occurred while processing an entry, " +
                         "please check the logs for more details");
                 LOGGER.info("An error occured while processing the entries", err);
                 return;
-            } finally {
-                if (read != null) {
-                    modifiedEntries.clear();
-                    read.modifiedEntries.clear();
-                    try {
-                        getConfigFile().write(read);
-                    } catch (IOException e) {
-                        LOGGER.info("Could not save configuration file.");
-                    }
-                    setConfig(read);
-                }
             }
+            if (totalEntries == 0 && !refreshRequested && snapshot != null) {
+                // the entries are kept up to date in the background, the page shows them as they are
+                errorMessages.add(getSnapshotDescription());
+                return;
+            }
+            refreshRequested = false;
             int size = getEntries().size();
-            Runnable runnable = new ListRetrievable<>(getConfigFile(),
-                    MultipleEntryFields.this);
-            runnable.run();
+            // every source is shown and applied as soon as it completes, a failed source keeps its entries
+            refresh(new ListRetrievable.Listener() {
+                @Override
+                public void retrieved(String source, int entries, int completed, int total) {
+                    addMessage(String.format("Retrieved %d %s.", entries, source), completed, total);
+                }
+
+                @Override
+                public void failed(String source, String reason, int completed, int total) {
+                    addMessage(String.format("Could not retrieve the %s, the current ones are kept: %s",
+                            source, reason), completed, total);
+                }
+            });
             if (getEntries().size() != size) {
                 errorMessages.add("Please, refresh the page to obtain the latest results.");
             } else if (totalEntries == 0) {
@@ -273,84 +587,293 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
             }
         }
 
-        private int processEntries(List<EntryAction<T>> entries, int totalEntries) {
-            int index = 0;
-            for (int j = 0; j < entries.size(); j++) {
-                if (j == 0) {
-                    index += j;
-                } else {
-                    index++;
-                }
-                if (totalEntries > 1) {
-                    if (index != totalEntries - 1) {
-                        double progress = ((double) (index + 1) / (double) totalEntries);
-                        progress(progress);
-                    }
-                } else {
-                    progress(0.5);
+        /**
+         * Shows the messages and the progress of a submission until it is finished. The submission is applied by
+         * the apply queue: it goes on when the page is closed, and every page view attaches to it and shows its
+         * messages once.
+         *
+         * @param submission - the submission
+         * @return the number of entry actions of the submission
+         * @throws InterruptedException if the thread is interrupted
+         */
+        private int follow(ApplyQueue.Submission submission) throws InterruptedException {
+            int read = 0;
+            while (true) {
+                boolean done = submission.isDone();
+                List<String> messages = submission.awaitMessages(read, FOLLOW_INTERVAL);
+                read += messages.size();
+                errorMessages.addAll(messages);
+                // the retrieval of the entries makes the second half of the progress
+                progress(0.5 * submission.getProgress());
+                if (done && messages.isEmpty()) {
+                    submission.setFollowed();
+                    return Math.max(1, submission.getTotal());
                 }
-                processSingleEntry(entries.get(j));
             }
-            return index;
+        }
+
+        /**
+         * Adds a message shown by the next data request, and the progress of the retrieval.
+         *
+         * @param message   - the message
+         * @param completed - the number of completed sources
+         * @param total     - the number of sources
+         */
+        private void addMessage(String message, int completed, int total) {
+            errorMessages.add(message);
+            progress(Math.min(0.99, 0.5 + 0.5 * completed / total));
         }
 
         @Override
-        protected synchronized JSON data() {
+        protected JSON data() {
             JSONArray r = new JSONArray();
-            for (String i : errorMessages) {
+            for (String i = errorMessages.poll(); i != null; i = errorMessages.poll()) {
                 r.add(i);
             }
-            errorMessages.clear();
             return new JSONObject().accumulate("errorMessages", r);
         }
     }
 
+    /**
+     * Applies the journal of the changes not yet applied, if any. The planned entry actions are applied
+     * concurrently up to the concurrency of the plugin configuration, the actions of the same ordering key in
+     * their order. The configuration file is written once every action is applied; otherwise the applied actions
+     * are reverted, in the reverse order, and the configuration file is kept. The state of every action is appended
+     * to the log of the journal, so an interrupted apply or rollback resumes where it stopped, e.g.: after a restart
+     * of Jenkins. The applied entries are merged with the entries saved meanwhile, e.g.: by a retrieval.
+     *
+     * @param listener - the listener told of the messages of the actions, in their order, and of the progress
+     * @return the applied journal, rolling back if the actions were reverted, or null without journal
+     * @throws InterruptedException if the thread is interrupted, the journal is kept
+     * @throws ExecutionException   if an entry action could not be run, the journal is kept
+     * @throws IOException          if the journal or the configuration file cannot be read or written
+     */
+    public ApplyJournal<T> applyJournal(OrderedApplier.Listener<List<String>> listener)
+            throws InterruptedException, ExecutionException, IOException {
+        ReentrantLock lock = getJournalLock();
+        lock.lockInterruptibly();
+        try {
+            ApplyJournal<T> journal = getJournal();
+            if (journal == null) {
+                return null;
+            }
+            if (!journal.isRollingBack()) {
+                applySteps(journal, listener);
+                if (journal.getSteps(ApplyJournal.State.failed).isEmpty()) {
+                    commit(journal);
+                    // the applied entries are written before the journal is removed
+                    getStore().flush();
+                    deleteJournal();
+                    modifiedEntries = Collections.unmodifiableList(journal.getActions());
+                    try {
+                        postProcessEntries();
+                    } finally {
+                        modifiedEntries = Collections.emptyList();
+                    }
+                    return journal;
+                }
+                synchronized (journal) {
+                    journal.setRollingBack();
+                    appendJournalLog(ApplyJournal.ROLLING_BACK);
+                }
+            }
+            rollBack(journal, listener);
+            deleteJournal();
+            return journal;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the planned entry actions of the journal, concurrently up to the concurrency of the plugin
+     * configuration, and logs the state of every action.
+     *
+     * @param journal  - the journal
+     * @param listener - the listener told of the messages of the actions, in their order, and of the progress
+     * @throws InterruptedException if the thread is interrupted
+     * @throws ExecutionException   if an entry action could not be run
+     */
+    private void applySteps(ApplyJournal<T> journal, OrderedApplier.Listener<List<String>> listener)
+            throws InterruptedException, ExecutionException {
+        PluginConfiguration configuration = PluginConfiguration.getOrNull();
+        int concurrency = configuration == null ? OrderedApplier.DEFAULT_CONCURRENCY
+                : configuration.getApplyConcurrency();
+        Map<ApplyJournal.Step<T>, Integer> indexes = new IdentityHashMap<>();
+        for (ApplyJournal.Step<T> step : journal.getSteps()) {
+            indexes.put(step, indexes.size());
+        }
+        new OrderedApplier<ApplyJournal.Step<T>, List<String>>(concurrency,
+                step -> getOrderingKey(step.getAction().getEntry()), step -> {
+            List<String> messages = new ArrayList<>();
+            boolean applied = processSingleEntry(step.getAction(), messages);
+            if (!applied && messages.isEmpty()) {
+                messages.add(String.format("Could not %s the %s %s", step.getAction().getType(),
+                        getMainFieldLabel(step.getAction().getEntry()), getMainField(step.getAction().getEntry())));
+            }
+            logState(journal, indexes.get(step), applied ? ApplyJournal.State.applied : ApplyJournal.State.failed);
+            return messages;
+        }).apply(journal.getSteps(ApplyJournal.State.planned), listener);
+    }
+
+    /**
+     * Reverts the applied entry actions of the journal, one at a time in the reverse order, and logs the state of
+     * every action. An action that cannot be reverted is reported, and the entries are retrieved again.
+     *
+     * @param journal  - the journal
+     * @param listener - the listener told of the messages of the inverse actions
+     */
+    private void rollBack(ApplyJournal<T> journal, OrderedApplier.Listener<List<String>> listener) {
+        List<ApplyJournal.Step<T>> steps = journal.getSteps();
+        int applied = journal.getSteps(ApplyJournal.State.applied).size();
+        List<String> messages = new ArrayList<>();
+        messages.add(String.format("Not every change could be applied, %d applied changes are reverted and the "
+                + "configuration is kept.", applied));
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            ApplyJournal.Step<T> step = steps.get(i);
+            if (step.getState() != ApplyJournal.State.applied) {
+                continue;
+            }
+            if (processSingleEntry(step.getInverse(), messages)) {
+                logState(journal, i, ApplyJournal.State.reverted);
+            } else {
+                messages.add(String.format("Could not revert the %s of the %s %s", step.getAction().getType(),
+                        getMainFieldLabel(step.getAction().getEntry()), getMainField(step.getAction().getEntry())));
+                logState(journal, i, ApplyJournal.State.failed);
+                refreshRequested = true;
+            }
+            listener.applied(i, messages);
+            messages = new ArrayList<>();
+        }
+        if (applied == 0) {
+            listener.applied(0, messages);
+        }
+    }
+
+    /**
+     * Saves the applied entries of the journal. The entries saved meanwhile, e.g.: by a retrieval, are merged with
+     * the applied ones, and the merge is repeated until no other entries are saved during it.
+     *
+     * @param journal - the applied journal
+     */
+    private void commit(ApplyJournal<T> journal) {
+        ConfigStore<T> store = getStore();
+        while (true) {
+            ListSnapshot<T> current = store.getSnapshot();
+            List<String> conflicts = new ArrayList<>();
+            List<T> entries = journal.getBase() == null || current.getVersion() == journal.getVersion()
+                    ? journal.getEntries() : EntryDiff.merge(journal.getBase(), journal.getEntries(),
+                    current.getEntries(), this::getMainField, conflicts);
+            if (store.compareAndSet(current.getVersion(), entries, this)) {
+                for (String conflict : conflicts) {
+                    LOGGER.info(conflict);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the store of the saved entries, the source of truth of the page.
+     *
+     * @return the store
+     */
+    public ConfigStore<T> getStore() {
+        load();
+        return ConfigStore.of(this);
+    }
+
+    /**
+     * Sets the state of a step of the journal and appends its record to the log; the steps applied concurrently
+     * append their records one at a time.
+     *
+     * @param journal - the journal
+     * @param index   - the index of the step
+     * @param state   - the new state of the step
+     */
+    private void logState(ApplyJournal<T> journal, int index, ApplyJournal.State state) {
+        synchronized (journal) {
+            journal.getSteps().get(index).setState(state);
+            appendJournalLog(journal.getRecord(index));
+        }
+    }
+
+    private void appendJournalLog(String record) {
+        try {
+            Files.write(getJournalLog().toPath(), Collections.singletonList(record), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write the journal log " + getJournalLog(), e);
+        }
+    }
+
+    /**
+     * Removes the journal once it is applied or rolled back; the log is removed first, it is never replayed on
+     * another journal.
+     *
+     * @throws IOException if the log or the journal cannot be removed
+     */
+    private void deleteJournal() throws IOException {
+        Files.deleteIfExists(getJournalLog().toPath());
+        getJournalFile().delete();
+    }
+
     /**
      * Processes the single entry action.
      *
-     * @param entry the generic type representing the entry.
+     * @param entry    the generic type representing the entry.
+     * @param messages the messages of the entry action, shown on the page.
+     * @return whether the entry action is applied
      */
-    protected void processSingleEntry(EntryAction<T> entry) {
-        String cli = "";
+    protected boolean processSingleEntry(EntryAction<T> entry, List<String> messages) {
+        List<String> cli;
         if (entry.getType() == EntryAction.ActionType.delete) {
             cli = handleSingleDelete(entry);
         } else {
             String mainField = getMainField(entry.getEntry());
             if (mainField == null || mainField.isEmpty()) {
                 String errorMessage = String.format("Missing %s", getMainFieldLabel(entry.getEntry()));
-                errorMessages.add(errorMessage);
-                return;
+                messages.add(errorMessage);
+                return false;
             }
             cli = entry.getType() == EntryAction.ActionType.update ?
                     handleSingleUpdate((UpdateAction<T>) entry) : handleSingleNewEntry(entry);
         }
 
-        String result = zoweCmd.getCommandOutputNoTimeout(cli);
+        if (cli.isEmpty()) {
+            // only the settings kept by the plugin changed, there is no command to run
+            messages.add(getFinalUpdatedMessage(true, "", entry.getEntry()));
+            return true;
+        }
+        String result = zoweCmd.getCommandOutput(getCommandClass(), cli);
+        ZoweCommandCache.get().invalidate(cli);
         if (entry.getType() == EntryAction.ActionType.delete) {
             int indexDelete = result.indexOf("IS DELETED");
-            if (indexDelete > 0 && !(entry.getType() == EntryAction.ActionType.update)) {
+            if (indexDelete > 0) {
                 String entityName = getMainField(entry.getEntry());
                 result = result.substring(0, indexDelete) + entityName + " " +
                         result.substring(indexDelete, result.length() - 1);
             }
-            if (!(entry.getType() == EntryAction.ActionType.update)) {
-                errorMessages.add(result);
-            }
-        } else {
-            if (result.contains("IS NOT FOUND") || result.trim().equals("")) {
-                return;
-            } else if (isSuccessful(result)) {
-                String finalMessage = getFinalUpdatedMessage(entry.getType() == EntryAction.ActionType.update,
-                        result, entry.getEntry());
-                errorMessages.add(finalMessage);
-            } else {
-                errorMessages.add(result);
-            }
+            messages.add(result);
+            return isDeleted(result);
         }
+        if (result.contains("IS NOT FOUND") || result.trim().equals("")) {
+            return false;
+        } else if (isSuccessful(result)) {
+            String finalMessage = getFinalUpdatedMessage(entry.getType() == EntryAction.ActionType.update,
+                    result, entry.getEntry());
+            messages.add(finalMessage);
+            return true;
+        }
+        messages.add(result);
+        return false;
     }
 
     /**
-     * This method handles the post request after pressing the save button on the config UI.
+     * This method handles the post request after pressing the save button on the config UI. The submits do not
+     * wait for each other: the form is made from a version of the saved entries, and its changes are compared and
+     * set on that version. A submit made from an older version is merged with the entries saved meanwhile, a change
+     * of an entry also changed meanwhile is reported and not applied.
      *
      * @param req - the POST request
      * @return The POST request HTTP response
@@ -358,7 +881,7 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      * @throws IOException      if an I/O error occurs
      */
     @POST
-    public synchronized HttpResponse doConfigSubmit(StaplerRequest req) throws ServletException, IOException {
+    public HttpResponse doConfigSubmit(StaplerRequest req) throws ServletException, IOException {
         Jenkins.get().checkPermission(Jenkins.ADMINISTER);
         JSONObject json = req.getSubmittedForm();
         if (json.get("config") instanceof JSONObject) {
@@ -383,95 +906,121 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
             config.put("entries", entries);
             json.put("config", config);
         }
-        req.bindJSON(this, json);
-        if (invalidEntries()) {
-            return FormApply.success(".");
-        }
-        if (getConfigFile().exists()) {
-            @SuppressWarnings("unchecked")
-            MultipleEntryFields<T> saved = (MultipleEntryFields<T>) getConfigFile().read();
-            List<EntryAction<T>> deleteEntries = getDifferentEntries(saved.getEntries(), this.getEntries(),
-                    EntryAction.ActionType.delete);
-            List<EntryAction<T>> newEntries = getDifferentEntries(this.getEntries(), saved.getEntries(),
-                    EntryAction.ActionType.add);
-            List<EntryAction<T>> updatedEntries = getUpdatedEntries(deleteEntries, newEntries);
-            modifiedEntries.addAll(deleteEntries);
-            modifiedEntries.addAll(newEntries);
-            modifiedEntries.addAll(updatedEntries);
-        }
-        getConfigFile().write(this);
-        return FormApply.success(".");
+        ConfigStore<T> store = getStore();
+        // the version of the saved entries the form was made from, the latest one for a form without version
+        long version = json.optLong(CONFIG_VERSION, store.getVersion());
+        json.remove(CONFIG_VERSION);
+        // the form is bound to a new instance of the page, the entries of the page are not changed by a submit
+        MultipleEntryFields<T> form = newForm();
+        req.bindJSON(form, json);
+        return submit(version, form);
     }
 
-    private List<EntryAction<T>> getUpdatedEntries(List<EntryAction<T>> deleteEntries,
-                                                   List<EntryAction<T>> newEntries) {
-        final List<EntryAction<T>> updatedEntries = new ArrayList<>();
-        Iterator<EntryAction<T>> deleteIterator = deleteEntries.iterator();
-        while (deleteIterator.hasNext()) {
-            EntryAction<T> deletedEntry = deleteIterator.next();
-            Iterator<EntryAction<T>> addIterator = newEntries.iterator();
-            while (addIterator.hasNext()) {
-                EntryAction<T> newEntry = addIterator.next();
-                if (getMainField(deletedEntry.getEntry()).equals(getMainField(newEntry.getEntry()))) {
-                    List<String> updatedFields = getUpdatedFields(deletedEntry.getEntry(), newEntry.getEntry());
-                    updatedEntries.add(new UpdateAction<>(newEntry.getEntry(), deletedEntry.getEntry(), updatedFields));
-                    addIterator.remove();
-                    deleteIterator.remove();
-                    break;
+    /**
+     * Submits the entries of a form made from a version of the saved entries: the entries are validated, merged
+     * with the entries saved meanwhile, then saved, or applied by the apply queue if they change the saved ones.
+     *
+     * @param version - the version of the saved entries the form was made from
+     * @param form    - the form, a new instance of the page holding the submitted entries
+     * @return The POST request HTTP response
+     * @throws IOException if the journal cannot be written
+     */
+    protected HttpResponse submit(long version, MultipleEntryFields<T> form) throws IOException {
+        ConfigStore<T> store = getStore();
+        if (form.invalidEntries()) {
+            return submitted(form.validationMessages);
+        }
+        List<T> base = store.getEntries(version);
+        if (base == null) {
+            return submitted(Collections.singletonList("The configuration was changed by too many other submits "
+                    + "meanwhile, please reload the page and submit the changes again."));
+        }
+        while (true) {
+            ListSnapshot<T> current = store.getSnapshot();
+            List<String> conflicts = new ArrayList<>();
+            // the changes made from an older version are merged with the entries saved meanwhile
+            List<T> submitted = current.getVersion() == version ? form.getEntries()
+                    : EntryDiff.merge(base, form.getEntries(), current.getEntries(), this::getMainField, conflicts);
+            if (store.isSaved()) {
+                // the entries are indexed by their keys, the diff is linear in the number of entries
+                EntryDiff<T> diff = new EntryDiff<>(current.getEntries(), submitted, this::getMainField);
+                List<EntryAction<T>> actions = new ArrayList<>(diff.getDeleted());
+                actions.addAll(diff.getAdded());
+                actions.addAll(diff.getUpdated());
+                if (!actions.isEmpty()) {
+                    // the store is not changed while the journal is written, the saved entries are compared and
+                    // set only by the store
+                    synchronized (store) {
+                        if (getJournalFile().exists()) {
+                            return submitted(Collections.singletonList("The previous changes are still being "
+                                    + "applied, please submit the changes again once they are applied."));
+                        }
+                        if (store.getVersion() != current.getVersion()) {
+                            continue;
+                        }
+                        // the store is updated by the apply queue, once every entry action is applied
+                        Files.deleteIfExists(getJournalLog().toPath());
+                        getJournalFile().write(new ApplyJournal<>(current.getEntries(), current.getVersion(),
+                                submitted, actions));
+                    }
+                    ApplyQueue.get().submit(this);
+                    return submitted(conflicts);
                 }
             }
+            if (store.compareAndSet(current.getVersion(), submitted, this)) {
+                return submitted(conflicts);
+            }
         }
-        return updatedEntries;
     }
 
-    private List<String> getUpdatedFields(T deletedEntry, T newEntry) {
-        List<String> updatedFields = new ArrayList<>();
-        Field[] fields = deletedEntry.getClass().getDeclaredFields();
-        for (Field field : fields) {
-            if (!field.isAccessible()) {
-                field.setAccessible(true);
-            }
-            try {
-                if (!field.get(deletedEntry).equals(field.get(newEntry))) {
-                    updatedFields.add(field.getName());
-                }
-            } catch (IllegalAccessException e) {
-                LOGGER.info("An error occured while evaluating the updated fields", e);
-            }
+    /**
+     * Ends a submit: its messages are kept in the session of the admin, and shown by the next view of the page.
+     *
+     * @param messages - the messages of the submit, e.g.: the conflicting changes
+     * @return The POST request HTTP response, back to the page
+     */
+    protected HttpResponse submitted(List<String> messages) {
+        StaplerRequest req = Stapler.getCurrentRequest();
+        if (req != null && !messages.isEmpty()) {
+            req.getSession().setAttribute(SUBMIT_MESSAGES + getXMLFile(), new ArrayList<>(messages));
         }
-        return updatedFields;
+        return FormApply.success(".");
     }
 
-    private boolean checkObjectContent(T entry1, T entry2) {
-        if (entry1.getClass() == entry2.getClass()) {
-            Field[] declaredFields = entry1.getClass().getDeclaredFields();
-            Field[] parentDeclaredFields = entry1.getClass().getSuperclass().getDeclaredFields();
-            int found = checkDeclaredFields(declaredFields, entry1, entry2);
-            found += checkDeclaredFields(parentDeclaredFields, entry1, entry2);
-            if (found == declaredFields.length + parentDeclaredFields.length) {
-                return true;
-            }
+    /**
+     * Creates a new instance of the page, loaded with the saved entries, e.g.: the form of a submit.
+     *
+     * @return the new instance
+     */
+    @SuppressWarnings("unchecked")
+    protected MultipleEntryFields<T> newForm() {
+        try {
+            MultipleEntryFields<T> form = getClass().getDeclaredConstructor().newInstance();
+            // the saved entries are loaded before the submitted ones are bound
+            form.load();
+            return form;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Could not create the form of " + getXMLFile(), e);
         }
-        return false;
     }
 
-    private int checkDeclaredFields(Field[] declaredFields, T entry1, T entry2) {
-        int found = 0;
-        for (Field field : declaredFields) {
-            if (!field.isAccessible()) {
-                field.setAccessible(true);
-            }
-            try {
-                Object field1 = field.get(entry1);
-                Object field2 = field.get(entry2);
-                if (field1 != null && field2 != null && field1.equals(field2)) {
-                    found++;
-                }
-            } catch (IllegalAccessException e) {
-                LOGGER.info("An error occurred while checking the declared fields", e);
-            }
+    /**
+     * Returns the status of a submission of the page, e.g.: GET applyStatus?id=...&amp;from=0. The status lists the
+     * messages after the given number of messages, and the number of messages to read from next.
+     *
+     * @param id   - the submission id, by default the submission followed by the page views
+     * @param from - the number of messages already read
+     * @return the status as JSON, or 404 if the submission is unknown
+     */
+    @GET
+    public HttpResponse doApplyStatus(@QueryParameter String id, @QueryParameter int from) {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        ApplyQueue.Submission submission = id == null || id.isEmpty() ? ApplyQueue.get().getFollowed(getXMLFile())
+                : ApplyQueue.get().getSubmission(id);
+        if (submission == null || !submission.getPage().equals(getXMLFile())) {
+            return HttpResponses.notFound();
         }
-        return found;
+        return HttpResponses.okJSON(submission.toJSON(from));
     }
 
     /**
@@ -484,36 +1033,30 @@ public abstract class MultipleEntryFields<T> extends PerformanceBenchmarking {
      */
     public List<EntryAction<T>> getDifferentEntries(List<T> firstCompared, List<T> secondCompared,
                                                     EntryAction.ActionType type) {
-        List<EntryAction<T>> entries = Collections.synchronizedList(new ArrayList<>());
-        for (int i = 0; i < firstCompared.size(); i++) {
-            T firstEntry = firstCompared.get(i);
-            boolean found = false;
-            for (T sencondEntry :
-                    secondCompared) {
-                if (checkObjectContent(firstEntry, sencondEntry) == true) {
-                    found = true;
-                    break;
-                }
-            }
-            if (found == false) {
-                entries.add(new EntryAction<T>(firstEntry, type));
-            }
-        }
-        return entries;
+        return EntryDiff.getDifferentEntries(firstCompared, EntryDiff.getKeys(firstCompared),
+                new HashSet<>(EntryDiff.getKeys(secondCompared)), type);
     }
 
     /**
-     * Default constructor.
+     * Loads the page with the saved entries on its first access, e.g.: by the getter of its configuration. The
+     * XML file is read by the first instance of the page only; a call made while the page loads returns at once.
      */
-    public MultipleEntryFields() {
+    protected void load() {
+        if (loaded) {
+            return;
+        }
         synchronized (this) {
-            XmlFile xml = getConfigFile();
-            if (xml.exists()) {
-                try {
-                    xml.unmarshal(this);
-                } catch (IOException e) {
-                    LOGGER.info("Could not unmarshall xml to load in the UI", e);
-                }
+            if (loaded || loading) {
+                return;
+            }
+            loading = true;
+            try {
+                ConfigStore.of(this).load(this);
+            } catch (IOException e) {
+                LOGGER.info("Could not unmarshall xml to load in the UI", e);
+            } finally {
+                loading = false;
+                loaded = true;
             }
         }
     }
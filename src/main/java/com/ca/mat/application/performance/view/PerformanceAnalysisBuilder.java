@@ -27,8 +27,16 @@
  */
 package com.ca.mat.application.performance.view;
 
+import com.ca.mat.application.performance.control.build.CommandClass;
+import com.ca.mat.application.performance.control.build.JobOutputScanner;
 import com.ca.mat.application.performance.control.build.ZoweCommandLineBuilder;
+import com.ca.mat.application.performance.control.zosmf.JobPoller;
+import com.ca.mat.application.performance.control.zosmf.JobService;
+import com.ca.mat.application.performance.control.zosmf.ZosmfRestClient;
+import com.ca.mat.application.performance.control.zosmf.ZoweCliJobService;
 import com.ca.mat.application.performance.model.JCLEntity;
+import com.ca.mat.application.performance.model.SpoolFile;
+import com.ca.mat.application.performance.model.ZosmfJob;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -39,7 +47,12 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import jenkins.tasks.SimpleBuildStep;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,22 +71,14 @@ public class PerformanceAnalysisBuilder extends Builder implements SimpleBuildSt
      * Regex fpr job name pattern.
      */
     private static final String JOB_NAME_PATTERN = "^ ([a-zA-Z#@$*&-_][a-zA-Z0-9#@$*&-_]{0,7})";
-    /**
-     * Regex fpr job name JES2 output pattern.
-     */
-    private static final String JOB_NAME_JES_OUTPUT_PATTERN = "JOBNAME  ([a-zA-Z0-9#@$]{0,8})";
-    /**
-     * Job output pattern, EXEC PGM=...
-     */
-    private static final String PROGRAM_NAME_JES_OUTPUT_PATTERN = "EXEC.*PGM=([a-zA-Z0-9#@$]{1,10})";
     /**
      * Mainframe maximum data set length of 44.
      */
     private static final int MAX_DATASET_LENGTH = 44;
     /**
-     * The command line builder for Zowe.
+     * The spool files read in the poll mode: the job log and the JCL, where the executed program is evaluated.
      */
-    private static final ZoweCommandLineBuilder zoweCommandLineBuilder = new ZoweCommandLineBuilder();
+    private static final List<String> POLLED_JOB_SPOOL_FILES = Arrays.asList("JESMSGLG", "JESJCL");
     /**
      * The test job.
      */
@@ -86,6 +91,10 @@ public class PerformanceAnalysisBuilder extends Builder implements SimpleBuildSt
      * The program.
      */
     private String program;
+    /**
+     * Whether the job is submitted and polled, instead of followed by a single command until it completes.
+     */
+    private boolean pollJob;
 
     /**
      * Constructor.
@@ -106,20 +115,41 @@ public class PerformanceAnalysisBuilder extends Builder implements SimpleBuildSt
         return testjob;
     }
 
+    /**
+     * Get whether the job is submitted and polled.
+     *
+     * @return true or false
+     */
+    public boolean isPollJob() {
+        return pollJob;
+    }
+
+    /**
+     * Set whether the job is submitted and polled, instead of followed by a single command until it completes.
+     *
+     * @param pollJob true or false
+     */
+    @DataBoundSetter
+    public void setPollJob(boolean pollJob) {
+        this.pollJob = pollJob;
+    }
+
     @Override
-    public void perform(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener) {
+    public void perform(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener)
+            throws InterruptedException {
         listener.getLogger().println("Validating input parameters...");
         validateParameters();
         listener.getLogger().println("Input parameters validated");
+        // the commands run on the node of the build, so the benchmark load is spread across the agents
+        ZoweCommandLineBuilder zoweCommandLineBuilder = new ZoweCommandLineBuilder(launcher, workspace);
         listener.getLogger().println("Running job " + testjob + "...");
-        String output = submitJob(listener);
-        listener.getLogger().println(output);
+        submitJob(zoweCommandLineBuilder, listener);
         listener.getLogger().println("Job " + jobname + " completed");
         listener.getLogger().println("Verifying if job is on inclusion list...");
-        verifyPMAScope(listener);
+        verifyPMAScope(zoweCommandLineBuilder, listener);
         listener.getLogger().println("Running performance analysis...");
         String[] parameters = {"pma", "get", "perf", jobname};
-        String performance = zoweCommandLineBuilder.getCommandOutputNoTimeout(parameters);
+        String performance = zoweCommandLineBuilder.getCommandOutputInterruptibly(CommandClass.REMOTE, parameters);
         listener.getLogger().println("Performance analysis is finished");
         listener.getLogger().println(performance);
         if (performance.toLowerCase().contains("error")) {
@@ -127,7 +157,7 @@ public class PerformanceAnalysisBuilder extends Builder implements SimpleBuildSt
         }
         listener.getLogger().println("Running alert analysis...");
         parameters[2] = "abyj";
-        String alert = zoweCommandLineBuilder.getCommandOutputNoTimeout(parameters);
+        String alert = zoweCommandLineBuilder.getCommandOutputInterruptibly(CommandClass.REMOTE, parameters);
         listener.getLogger().println("Alert analysis is finished");
         listener.getLogger().println(alert);
         if (alert.toLowerCase().contains("error")) {
@@ -136,15 +166,16 @@ public class PerformanceAnalysisBuilder extends Builder implements SimpleBuildSt
         listener.getLogger().println("End of performance analysis");
     }
 
-    private void verifyPMAScope(TaskListener listener) {
+    private void verifyPMAScope(ZoweCommandLineBuilder zoweCommandLineBuilder, TaskListener listener)
+            throws InterruptedException {
         String[] parameters = {"pma", "scope", "getlj"};
-        String listInclusion = zoweCommandLineBuilder.getCommandOutputNoTimeout(parameters);
+        String listInclusion = zoweCommandLineBuilder.getCommandOutputInterruptibly(CommandClass.REMOTE, parameters);
         if (listInclusion.toLowerCase().contains("error")) {
             listener.getLogger().println(listInclusion);
             throw new RuntimeException("An error occured while retrieving the list of included jobs");
         }
         parameters[2] = "getlp";
-        String listExclusion = zoweCommandLineBuilder.getCommandOutputNoTimeout(parameters);
+        String listExclusion = zoweCommandLineBuilder.getCommandOutputInterruptibly(CommandClass.REMOTE, parameters);
         if (listExclusion.toLowerCase().contains("error")) {
             listener.getLogger().println(listExclusion);
             throw new RuntimeException("An error occured while retrieving the list of excluded programs");
@@ -179,28 +210,69 @@ public class PerformanceAnalysisBuilder extends Builder implements SimpleBuildSt
         }
     }
 
-    private String submitJob(TaskListener listener) {
+    private void submitJob(ZoweCommandLineBuilder zoweCommandLineBuilder, TaskListener listener)
+            throws InterruptedException {
         String[] parameters = {"jobs", "sub", "ds", "--vasc", testjob};
-        String output = zoweCommandLineBuilder.getCommandOutputNoTimeout(parameters);
-        if (!output.contains("ENDED - RC=0000")) {
-            listener.getLogger().println(output);
+        // the job output is forwarded to the build console, which keeps all of it, and evaluated as it arrives
+        JobOutputScanner scanner = new JobOutputScanner();
+        Consumer<String> output = line -> {
+            listener.getLogger().println(line);
+            scanner.accept(line);
+        };
+        CreateZOSMFProfile.AddProfile profile = CreateZOSMFProfile.getDefaultProfile();
+        boolean submitted = profile != null && profile.getRestEngine()
+                && submitAndPoll(ZosmfRestClient.forProfile(profile), true, scanner, output, listener);
+        if (!submitted && pollJob) {
+            submitAndPoll(new ZoweCliJobService(zoweCommandLineBuilder), false, scanner, output, listener);
+        } else if (!submitted) {
+            zoweCommandLineBuilder.streamCommandOutput(CommandClass.JOB, output, parameters);
+        }
+        if (!scanner.isSuccessful()) {
             throw new RuntimeException("Job " + testjob + " failed");
         }
-        Pattern pattern = Pattern.compile(JOB_NAME_JES_OUTPUT_PATTERN);
-        Matcher matcher = pattern.matcher(output);
-        if (matcher.find()) {
-            jobname = matcher.group(1);
-        } else {
+        jobname = scanner.getJobname();
+        if (jobname == null) {
             throw new RuntimeException("Could not evaluate jobname for test job: " + testjob);
         }
-        pattern = Pattern.compile(PROGRAM_NAME_JES_OUTPUT_PATTERN);
-        matcher = pattern.matcher(output);
-        if (matcher.find()) {
-            program = matcher.group(1);
-        } else {
+        program = scanner.getProgram();
+        if (program == null) {
             throw new RuntimeException("Could not evaluate execute program for test job: " + testjob);
         }
-        return output;
+    }
+
+    /**
+     * Submits the test job, then polls its status until it completes and reads its spool files. In the poll
+     * mode, only the spool files needed to evaluate the job are read.
+     *
+     * @return false if the job could not be submitted and the fallback is allowed, so the zowe cli is used instead
+     */
+    private boolean submitAndPoll(JobService jobService, boolean fallback, JobOutputScanner scanner,
+                                  Consumer<String> output, TaskListener listener) throws InterruptedException {
+        ZosmfJob job;
+        try {
+            job = jobService.submitDataset(testjob);
+        } catch (IOException e) {
+            if (!fallback) {
+                throw new RuntimeException("Could not submit the job " + testjob, e);
+            }
+            listener.getLogger().println("Could not submit the job through z/OSMF, using the Zowe CLI: "
+                    + e.getMessage());
+            return false;
+        }
+        listener.getLogger().println("Submitted job " + job + ", waiting for its completion...");
+        try {
+            job = new JobPoller(jobService, CommandClass.JOB.getTimeoutMillis()).waitForCompletion(job);
+            listener.getLogger().println("Job " + job + " ended with " + job.getRetcode());
+            scanner.acceptJobStatus(job);
+            for (SpoolFile file : jobService.getSpoolFiles(job)) {
+                if (!pollJob || POLLED_JOB_SPOOL_FILES.contains(file.getDdname())) {
+                    jobService.readSpoolFile(job, file, output);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not retrieve the output of job " + job, e);
+        }
+        return true;
     }
 
     private void validateParameters() {
@@ -22,10 +22,17 @@
 package com.ca.mat.application.performance.view;
 
 import com.ca.mat.application.performance.control.annotation.Default;
+import com.ca.mat.application.performance.control.build.CommandClass;
+import com.ca.mat.application.performance.control.build.ZoweCommandCache;
+import com.ca.mat.application.performance.control.build.ZoweCommandGovernor;
+import com.ca.mat.application.performance.control.future.ListRefreshWork;
+import com.ca.mat.application.performance.control.future.ListRetrievalExecutor;
+import com.ca.mat.application.performance.control.future.OrderedApplier;
 import hudson.Extension;
 import hudson.ExtensionList;
 import hudson.util.ListBoxModel;
 import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
 import org.kohsuke.stapler.DataBoundSetter;
 
 /**
@@ -45,12 +52,72 @@ public class PluginConfiguration extends GlobalConfiguration {
         return ExtensionList.lookupSingleton(PluginConfiguration.class);
     }
 
+    /**
+     * Get the singleton instance, or null when not running on the Jenkins controller.
+     *
+     * @return the singleton instance or null.
+     */
+    public static PluginConfiguration getOrNull() {
+        return Jenkins.getInstanceOrNull() == null ? null
+                : ExtensionList.lookup(PluginConfiguration.class).get(PluginConfiguration.class);
+    }
+
     /**
      * Set the default as v2-lts.
      */
     @Default("v2-lts")
     private String zowe;
 
+    /**
+     * Whether the zowe commands are sent to a resident zowe daemon, default true.
+     */
+    private Boolean daemon;
+
+    /**
+     * The time out in seconds of the commands that run in the local machine.
+     */
+    private Integer localTimeout;
+
+    /**
+     * The time out in seconds of the commands that send a request to the mainframe.
+     */
+    private Integer remoteTimeout;
+
+    /**
+     * The time out in seconds of the commands that submit a job and wait for its completion.
+     */
+    private Integer jobTimeout;
+
+    /**
+     * The time to live in seconds of the cached zowe queries.
+     */
+    private Integer cacheTtl;
+
+    /**
+     * The maximum number of concurrent zowe commands.
+     */
+    private Integer maxCommands;
+
+    /**
+     * The maximum number of concurrent zowe commands per profile.
+     */
+    private Integer maxCommandsPerProfile;
+
+    /**
+     * Whether the list retrievals run on virtual threads, on Java 21 or later.
+     */
+    private boolean virtualThreads;
+
+    /**
+     * The interval in minutes of the background refresh of the configuration pages.
+     */
+    private Integer refreshInterval;
+
+    /**
+     * The maximum number of entry actions of a configuration page applied at once.
+     */
+    private Integer applyConcurrency;
+
     /**
      * Default constructor.
      */
@@ -78,6 +145,247 @@ public class PluginConfiguration extends GlobalConfiguration {
         save();
     }
 
+    /**
+     * Get whether the zowe commands are sent to a resident zowe daemon.
+     *
+     * @return true or false
+     */
+    public boolean isDaemon() {
+        return daemon == null || daemon;
+    }
+
+    /**
+     * Set whether the zowe commands are sent to a resident zowe daemon.
+     *
+     * @param daemon true or false
+     */
+    @DataBoundSetter
+    public void setDaemon(boolean daemon) {
+        this.daemon = daemon;
+        save();
+    }
+
+    /**
+     * Get the time out of the command class.
+     *
+     * @param commandClass the command class
+     * @return the time out in seconds, 0 means no time out
+     */
+    public int getTimeout(CommandClass commandClass) {
+        switch (commandClass) {
+            case LOCAL:
+                return getLocalTimeout();
+            case REMOTE:
+                return getRemoteTimeout();
+            default:
+                return getJobTimeout();
+        }
+    }
+
+    /**
+     * Get the time out of the commands that run in the local machine.
+     *
+     * @return the time out in seconds
+     */
+    public int getLocalTimeout() {
+        return localTimeout == null ? CommandClass.LOCAL.getDefaultTimeout() : localTimeout;
+    }
+
+    /**
+     * Set the time out of the commands that run in the local machine.
+     *
+     * @param localTimeout the time out in seconds, 0 means no time out
+     */
+    @DataBoundSetter
+    public void setLocalTimeout(int localTimeout) {
+        this.localTimeout = localTimeout;
+        save();
+    }
+
+    /**
+     * Get the time out of the commands that send a request to the mainframe.
+     *
+     * @return the time out in seconds
+     */
+    public int getRemoteTimeout() {
+        return remoteTimeout == null ? CommandClass.REMOTE.getDefaultTimeout() : remoteTimeout;
+    }
+
+    /**
+     * Set the time out of the commands that send a request to the mainframe.
+     *
+     * @param remoteTimeout the time out in seconds, 0 means no time out
+     */
+    @DataBoundSetter
+    public void setRemoteTimeout(int remoteTimeout) {
+        this.remoteTimeout = remoteTimeout;
+        save();
+    }
+
+    /**
+     * Get the time out of the commands that submit a job and wait for its completion.
+     *
+     * @return the time out in seconds
+     */
+    public int getJobTimeout() {
+        return jobTimeout == null ? CommandClass.JOB.getDefaultTimeout() : jobTimeout;
+    }
+
+    /**
+     * Set the time out of the commands that submit a job and wait for its completion.
+     *
+     * @param jobTimeout the time out in seconds, 0 means no time out
+     */
+    @DataBoundSetter
+    public void setJobTimeout(int jobTimeout) {
+        this.jobTimeout = jobTimeout;
+        save();
+    }
+
+    /**
+     * Get the time to live of the cached zowe queries, e.g.: the pma scope lists.
+     *
+     * @return the time to live in seconds, 0 means the queries are not cached
+     */
+    public int getCacheTtl() {
+        return cacheTtl == null ? ZoweCommandCache.DEFAULT_TTL : cacheTtl;
+    }
+
+    /**
+     * Set the time to live of the cached zowe queries.
+     *
+     * @param cacheTtl the time to live in seconds, 0 disables the cache
+     */
+    @DataBoundSetter
+    public void setCacheTtl(int cacheTtl) {
+        this.cacheTtl = cacheTtl;
+        save();
+    }
+
+    /**
+     * Get the maximum number of concurrent zowe commands.
+     *
+     * @return the maximum number of concurrent zowe commands
+     */
+    public int getMaxCommands() {
+        return maxCommands == null ? ZoweCommandGovernor.DEFAULT_MAX_COMMANDS : maxCommands;
+    }
+
+    /**
+     * Set the maximum number of concurrent zowe commands.
+     *
+     * @param maxCommands the maximum number of concurrent zowe commands
+     */
+    @DataBoundSetter
+    public void setMaxCommands(int maxCommands) {
+        this.maxCommands = maxCommands;
+        save();
+    }
+
+    /**
+     * Get the maximum number of concurrent zowe commands per profile.
+     *
+     * @return the maximum number of concurrent zowe commands per profile
+     */
+    public int getMaxCommandsPerProfile() {
+        return maxCommandsPerProfile == null ? ZoweCommandGovernor.DEFAULT_MAX_COMMANDS_PER_PROFILE
+                : maxCommandsPerProfile;
+    }
+
+    /**
+     * Set the maximum number of concurrent zowe commands per profile.
+     *
+     * @param maxCommandsPerProfile the maximum number of concurrent zowe commands per profile
+     */
+    @DataBoundSetter
+    public void setMaxCommandsPerProfile(int maxCommandsPerProfile) {
+        this.maxCommandsPerProfile = maxCommandsPerProfile;
+        save();
+    }
+
+    /**
+     * Get whether the list retrievals of the configuration pages run on virtual threads.
+     *
+     * @return true or false
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Set whether the list retrievals of the configuration pages run on virtual threads, on Java 21 or later.
+     *
+     * @param virtualThreads true or false
+     */
+    @DataBoundSetter
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        save();
+    }
+
+    /**
+     * Get the interval of the background refresh of the configuration pages, e.g.: the pma scope lists.
+     *
+     * @return the interval in minutes, 0 means the pages are not refreshed in the background
+     */
+    public int getRefreshInterval() {
+        return refreshInterval == null ? ListRefreshWork.DEFAULT_INTERVAL : refreshInterval;
+    }
+
+    /**
+     * Set the interval of the background refresh of the configuration pages.
+     *
+     * @param refreshInterval the interval in minutes, 0 disables the background refresh
+     */
+    @DataBoundSetter
+    public void setRefreshInterval(int refreshInterval) {
+        this.refreshInterval = refreshInterval;
+        save();
+    }
+
+    /**
+     * Get the maximum number of entry actions of a configuration page applied at once, e.g.: the scope entries.
+     *
+     * @return the maximum number of entry actions applied at once, 1 applies them one at a time
+     */
+    public int getApplyConcurrency() {
+        return applyConcurrency == null ? OrderedApplier.DEFAULT_CONCURRENCY : applyConcurrency;
+    }
+
+    /**
+     * Set the maximum number of entry actions of a configuration page applied at once.
+     *
+     * @param applyConcurrency the maximum number of entry actions applied at once
+     */
+    @DataBoundSetter
+    public void setApplyConcurrency(int applyConcurrency) {
+        this.applyConcurrency = applyConcurrency;
+        save();
+    }
+
+    /**
+     * Get the current state of the zowe commands, displayed on the configuration page.
+     *
+     * @return e.g.: 3 running, 0 queued, average queue time 12 ms, maximum queue time 850 ms
+     */
+    public String getCommandStatistics() {
+        ZoweCommandGovernor governor = ZoweCommandGovernor.get();
+        return String.format("%d running, %d queued, average queue time %d ms, maximum queue time %d ms",
+                governor.getRunning(), governor.getQueueLength(), governor.getAverageQueueTime(),
+                governor.getMaxQueueTime());
+    }
+
+    /**
+     * Get the current state of the list retrievals of the configuration pages, displayed on the configuration page.
+     *
+     * @return e.g.: 2 active, 0 queued, platform threads
+     */
+    public String getListRetrievalStatistics() {
+        ListRetrievalExecutor executor = ListRetrievalExecutor.get();
+        return String.format("%d active, %d queued, %s threads", executor.getActiveCount(),
+                executor.getQueueDepth(), executor.isVirtual() ? "virtual" : "platform");
+    }
+
     public ListBoxModel doFillZoweItems() {
         ListBoxModel items = new ListBoxModel();
         items.add("v2-lts", "v2-lts");
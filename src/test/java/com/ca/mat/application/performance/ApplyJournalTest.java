@@ -0,0 +1,77 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.model.ApplyJournal;
+import com.ca.mat.application.performance.model.EntryAction;
+import com.ca.mat.application.performance.model.UpdateAction;
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApplyJournalTest {
+
+    private final InclusionsAndExclusions.Entry job = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "A");
+
+    private final InclusionsAndExclusions.Entry program = new InclusionsAndExclusions.PMAExclusion("PGM1", "B");
+
+    @Test
+    public void plansTheInverseOfEveryAction() {
+        InclusionsAndExclusions.Entry updated = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "C");
+        List<EntryAction<InclusionsAndExclusions.Entry>> actions = Arrays.asList(
+                new EntryAction<>(job, EntryAction.ActionType.add),
+                new EntryAction<>(program, EntryAction.ActionType.delete),
+                new UpdateAction<>(updated, job, Collections.singletonList("description")));
+
+        ApplyJournal<InclusionsAndExclusions.Entry> journal = new ApplyJournal<>(Collections.emptyList(), 0,
+                Collections.singletonList(job), actions);
+
+        List<ApplyJournal.Step<InclusionsAndExclusions.Entry>> steps = journal.getSteps();
+        assertThat(steps.get(0).getInverse().getType()).isEqualTo(EntryAction.ActionType.delete);
+        assertThat(steps.get(0).getInverse().getEntry()).isSameAs(job);
+        assertThat(steps.get(1).getInverse().getType()).isEqualTo(EntryAction.ActionType.add);
+        assertThat(steps.get(1).getInverse().getEntry()).isSameAs(program);
+        UpdateAction<InclusionsAndExclusions.Entry> revert =
+                (UpdateAction<InclusionsAndExclusions.Entry>) steps.get(2).getInverse();
+        assertThat(revert.getEntry()).isSameAs(job);
+        assertThat(revert.getOldEntry()).isSameAs(updated);
+        assertThat(revert.getFields()).containsExactly("description");
+        assertThat(journal.getActions()).isEqualTo(actions);
+    }
+
+    @Test
+    public void tracksTheStateOfTheSteps() {
+        ApplyJournal<InclusionsAndExclusions.Entry> journal = new ApplyJournal<>(Collections.emptyList(), 0,
+                Collections.emptyList(), Arrays.asList(new EntryAction<>(job, EntryAction.ActionType.add),
+                        new EntryAction<>(program, EntryAction.ActionType.add)));
+
+        assertThat(journal.getSteps(ApplyJournal.State.planned)).hasSize(2);
+        journal.getSteps().get(1).setState(ApplyJournal.State.applied);
+
+        assertThat(journal.getSteps(ApplyJournal.State.planned)).containsExactly(journal.getSteps().get(0));
+        assertThat(journal.getSteps(ApplyJournal.State.applied)).containsExactly(journal.getSteps().get(1));
+        assertThat(journal.isRollingBack()).isFalse();
+        journal.setRollingBack();
+        assertThat(journal.isRollingBack()).isTrue();
+    }
+
+    @Test
+    public void replaysTheLoggedStatesOfTheSteps() {
+        ApplyJournal<InclusionsAndExclusions.Entry> journal = new ApplyJournal<>(Collections.emptyList(), 0,
+                Collections.emptyList(), Arrays.asList(new EntryAction<>(job, EntryAction.ActionType.add),
+                        new EntryAction<>(program, EntryAction.ActionType.add)));
+        journal.getSteps().get(1).setState(ApplyJournal.State.applied);
+        String applied = journal.getRecord(1);
+
+        ApplyJournal<InclusionsAndExclusions.Entry> read = new ApplyJournal<>(Collections.emptyList(), 0,
+                Collections.emptyList(), journal.getActions());
+        read.replay(Arrays.asList("0 failed", applied, ApplyJournal.ROLLING_BACK, "1 rever"));
+
+        assertThat(read.getSteps(ApplyJournal.State.failed)).containsExactly(read.getSteps().get(0));
+        assertThat(read.getSteps(ApplyJournal.State.applied)).containsExactly(read.getSteps().get(1));
+        assertThat(read.isRollingBack()).isTrue();
+    }
+}
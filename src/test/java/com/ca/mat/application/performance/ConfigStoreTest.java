@@ -0,0 +1,94 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.future.ConfigStore;
+import com.ca.mat.application.performance.control.mapping.EntryDiff;
+import com.ca.mat.application.performance.view.CreateZOSMFProfile;
+import hudson.util.Secret;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigStoreTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private static CreateZOSMFProfile.AddProfile profile(String name, String hostname) {
+        return new CreateZOSMFProfile.AddProfile(name, hostname, "443", "user", Secret.fromString("password"),
+                "", "", "", true, false);
+    }
+
+    @Test
+    public void savesCopiesOfTheEntries() {
+        CreateZOSMFProfile page = new CreateZOSMFProfile();
+        ConfigStore<CreateZOSMFProfile.AddProfile> store = page.getStore();
+        CreateZOSMFProfile.AddProfile submitted = profile("zosmf1", "host1");
+
+        assertThat(store.compareAndSet(store.getVersion(), Arrays.asList(submitted), page)).isTrue();
+        submitted.setRestEngine(true);
+        page.getEntries().get(0).setRestEngine(true);
+
+        assertThat(store.getEntries()).hasSize(1);
+        assertThat(store.getEntries().get(0)).isNotSameAs(submitted).isNotSameAs(page.getEntries().get(0));
+        assertThat(store.getEntries().get(0).getRestEngine()).isFalse();
+        assertThat(store.getEntries(store.getVersion()).get(0).getRestEngine()).isFalse();
+        assertThat(new CreateZOSMFProfile().getEntries().get(0).getRestEngine()).isFalse();
+    }
+
+    @Test
+    public void mergesTheChangesMadeFromAnOlderVersion() {
+        CreateZOSMFProfile page = new CreateZOSMFProfile();
+        ConfigStore<CreateZOSMFProfile.AddProfile> store = page.getStore();
+        assertThat(store.compareAndSet(store.getVersion(),
+                Arrays.asList(profile("zosmf1", "host1"), profile("zosmf2", "host2")), page)).isTrue();
+        long version = store.getVersion();
+        List<CreateZOSMFProfile.AddProfile> base = store.getEntries(version);
+
+        // another submit changes the first profile meanwhile
+        assertThat(store.compareAndSet(version, Arrays.asList(profile("zosmf1", "other"), profile("zosmf2", "host2")),
+                new CreateZOSMFProfile())).isTrue();
+        List<CreateZOSMFProfile.AddProfile> submitted = Arrays.asList(profile("zosmf1", "host1"),
+                profile("zosmf2", "changed"), profile("zosmf3", "host3"));
+        assertThat(store.compareAndSet(version, submitted, page)).isFalse();
+
+        List<String> conflicts = new ArrayList<>();
+        List<CreateZOSMFProfile.AddProfile> merged = EntryDiff.merge(base, submitted, store.getEntries(),
+                CreateZOSMFProfile.AddProfile::getProfileName, conflicts);
+        assertThat(store.compareAndSet(version + 1, merged, page)).isTrue();
+
+        assertThat(conflicts).isEmpty();
+        assertThat(store.getVersion()).isEqualTo(version + 2);
+        assertThat(store.getEntries()).extracting(CreateZOSMFProfile.AddProfile::getHostname)
+                .containsExactly("other", "changed", "host3");
+    }
+
+    @Test
+    public void keepsTheCurrentEntryOfAConflictingChange() {
+        CreateZOSMFProfile page = new CreateZOSMFProfile();
+        ConfigStore<CreateZOSMFProfile.AddProfile> store = page.getStore();
+        assertThat(store.compareAndSet(store.getVersion(), Arrays.asList(profile("zosmf1", "host1")), page)).isTrue();
+        long version = store.getVersion();
+        List<CreateZOSMFProfile.AddProfile> base = store.getEntries(version);
+
+        assertThat(store.compareAndSet(version, Arrays.asList(profile("zosmf1", "other")),
+                new CreateZOSMFProfile())).isTrue();
+        List<CreateZOSMFProfile.AddProfile> submitted = Arrays.asList(profile("zosmf1", "mine"));
+        assertThat(store.compareAndSet(version, submitted, page)).isFalse();
+
+        List<String> conflicts = new ArrayList<>();
+        List<CreateZOSMFProfile.AddProfile> merged = EntryDiff.merge(base, submitted, store.getEntries(),
+                CreateZOSMFProfile.AddProfile::getProfileName, conflicts);
+        assertThat(store.compareAndSet(version + 1, merged, page)).isTrue();
+
+        assertThat(conflicts).hasSize(1);
+        assertThat(conflicts.get(0)).contains("zosmf1");
+        assertThat(store.getEntries()).extracting(CreateZOSMFProfile.AddProfile::getHostname)
+                .containsExactly("other");
+    }
+}
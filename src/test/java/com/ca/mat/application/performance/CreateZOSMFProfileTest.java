@@ -1,12 +1,17 @@
 package com.ca.mat.application.performance;
 
+import com.ca.mat.application.performance.control.future.ApplyQueue;
 import com.ca.mat.application.performance.view.CreateZOSMFProfile;
 import com.ca.mat.application.performance.view.Root;
 import com.ca.mat.application.performance.view.PerformanceBenchmarking;
 import com.google.common.base.Joiner;
+import com.gargoylesoftware.htmlunit.html.HtmlCheckBoxInput;
+import com.gargoylesoftware.htmlunit.html.HtmlForm;
 import com.google.common.collect.ImmutableList;
 import hudson.XmlFile;
+import hudson.util.Secret;
 import org.junit.Rule;
+import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
 import java.util.List;
@@ -37,6 +42,35 @@ public class CreateZOSMFProfileTest {
         return saved.getConfig().getEntries();
     }
 
+    @Test
+    public void keepsTheSubmittedRestEngine() throws Exception {
+        CreateZOSMFProfile crm = new CreateZOSMFProfile();
+        CreateZOSMFProfile.AddProfile profile = new CreateZOSMFProfile.AddProfile("zosmf1", "host", "443", "user",
+                Secret.fromString("password"), "", "", "", true, true);
+        crm.getStore().compareAndSet(crm.getStore().getVersion(), ImmutableList.of(profile), crm);
+
+        HtmlForm form = j.createWebClient().goTo(getUiSampleConfigureUrl(crm)).getFormByName(CONFIG_FORM_NAME);
+        HtmlCheckBoxInput restEngine = form.getInputByName("restEngine");
+        restEngine.setChecked(true);
+        j.submit(form);
+
+        // only a plugin setting changed, the update is applied by the apply queue without a zowe command
+        ApplyQueue.Submission submission = ApplyQueue.get().getFollowed(crm.getXMLFile());
+        assertThat(submission).isNotNull();
+        long deadline = System.currentTimeMillis() + 30000;
+        int read = 0;
+        while (!submission.isDone() && System.currentTimeMillis() < deadline) {
+            read += submission.awaitMessages(read, 1000).size();
+        }
+        assertThat(submission.getState()).isEqualTo(ApplyQueue.State.applied);
+
+        // the submission saves the entries before it is done
+        List<CreateZOSMFProfile.AddProfile> saved = crm.getStore().getEntries();
+        assertThat(saved).hasSize(1);
+        assertThat(saved.get(0).getRestEngine()).isTrue();
+        assertThat(new CreateZOSMFProfile().getConfig().getEntries().get(0).getRestEngine()).isTrue();
+    }
+
     private void configRoundtrip(PerformanceBenchmarking performanceBenchmarking) throws Exception {
         j.submit(j.createWebClient().goTo(getUiSampleConfigureUrl(performanceBenchmarking)).getFormByName(CONFIG_FORM_NAME));
     }
@@ -0,0 +1,132 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.mapping.EntryDiff;
+import com.ca.mat.application.performance.model.EntryAction;
+import com.ca.mat.application.performance.model.UpdateAction;
+import com.ca.mat.application.performance.view.CreatePMAProfile;
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntryDiffTest {
+
+    @Test
+    public void listsTheDeletedAddedAndUpdatedEntries() {
+        List<InclusionsAndExclusions.Entry> saved = Arrays.asList(
+                new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "KEPT"),
+                new InclusionsAndExclusions.PMAInclusion("JOB2", "", "", "DELETED"),
+                new InclusionsAndExclusions.PMAInclusion("JOB3", "", "", "BEFORE"),
+                new InclusionsAndExclusions.PMAExclusion("PGM1", "KEPT"));
+        List<InclusionsAndExclusions.Entry> submitted = Arrays.asList(
+                new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "KEPT"),
+                new InclusionsAndExclusions.PMAInclusion("JOB3", "", "", "AFTER"),
+                new InclusionsAndExclusions.PMAExclusion("PGM1", "KEPT"),
+                new InclusionsAndExclusions.PMAExclusion("PGM2", "ADDED"));
+
+        EntryDiff<InclusionsAndExclusions.Entry> diff = new EntryDiff<>(saved, submitted, EntryDiffTest::getMainField);
+
+        assertThat(diff.getDeleted()).extracting(EntryAction::getEntry).containsExactly(saved.get(1));
+        assertThat(diff.getDeleted()).extracting(EntryAction::getType).containsOnly(EntryAction.ActionType.delete);
+        assertThat(diff.getAdded()).extracting(EntryAction::getEntry).containsExactly(submitted.get(3));
+        assertThat(diff.getAdded()).extracting(EntryAction::getType).containsOnly(EntryAction.ActionType.add);
+        assertThat(diff.getUpdated()).hasSize(1);
+        UpdateAction<InclusionsAndExclusions.Entry> update =
+                (UpdateAction<InclusionsAndExclusions.Entry>) diff.getUpdated().get(0);
+        assertThat(update.getEntry()).isSameAs(submitted.get(1));
+        assertThat(update.getType()).isEqualTo(EntryAction.ActionType.update);
+    }
+
+    @Test
+    public void detectsAChangeOfAnInheritedField() {
+        CreatePMAProfile.AddProfile saved = new CreatePMAProfile.AddProfile("pma1", "ACCT1", "A", "A",
+                "PMA.LOADLIB", "PMA", false);
+        CreatePMAProfile.AddProfile submitted = new CreatePMAProfile.AddProfile("pma1", "ACCT1", "A", "A",
+                "PMA.LOADLIB", "PMA", true);
+
+        EntryDiff<CreatePMAProfile.AddProfile> diff = new EntryDiff<>(Arrays.asList(saved), Arrays.asList(submitted),
+                CreatePMAProfile.AddProfile::getProfileName);
+
+        assertThat(diff.getDeleted()).isEmpty();
+        assertThat(diff.getAdded()).isEmpty();
+        assertThat(diff.getUpdated()).hasSize(1);
+    }
+
+    @Test
+    public void findsNoChangeBetweenEqualEntries() {
+        List<InclusionsAndExclusions.Entry> saved = Arrays.asList(
+                new InclusionsAndExclusions.PMAInclusion("JOB1", "STEP1", "", "DESC"),
+                new InclusionsAndExclusions.PMAExclusion("PGM1", "DESC"));
+        List<InclusionsAndExclusions.Entry> submitted = Arrays.asList(
+                new InclusionsAndExclusions.PMAExclusion("PGM1", "DESC"),
+                new InclusionsAndExclusions.PMAInclusion("JOB1", "STEP1", "", "DESC"));
+
+        EntryDiff<InclusionsAndExclusions.Entry> diff = new EntryDiff<>(saved, submitted, EntryDiffTest::getMainField);
+
+        assertThat(diff.getDeleted()).isEmpty();
+        assertThat(diff.getAdded()).isEmpty();
+        assertThat(diff.getUpdated()).isEmpty();
+    }
+
+    @Test
+    public void mergesTheChangesMadeFromAnOlderConfiguration() {
+        InclusionsAndExclusions.Entry job1 = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "A");
+        InclusionsAndExclusions.Entry job2 = new InclusionsAndExclusions.PMAInclusion("JOB2", "", "", "A");
+        InclusionsAndExclusions.Entry program = new InclusionsAndExclusions.PMAExclusion("PGM1", "A");
+        InclusionsAndExclusions.Entry job1Mine = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "MINE");
+        InclusionsAndExclusions.Entry job3 = new InclusionsAndExclusions.PMAInclusion("JOB3", "", "", "MINE");
+        InclusionsAndExclusions.Entry job4 = new InclusionsAndExclusions.PMAInclusion("JOB4", "", "", "THEIRS");
+        List<InclusionsAndExclusions.Entry> base = Arrays.asList(job1, job2, program);
+        List<InclusionsAndExclusions.Entry> submitted = Arrays.asList(job1Mine, program, job3);
+        List<InclusionsAndExclusions.Entry> current = Arrays.asList(job1, job2, program, job4);
+        List<String> conflicts = new ArrayList<>();
+
+        List<InclusionsAndExclusions.Entry> merged = EntryDiff.merge(base, submitted, current,
+                EntryDiffTest::getMainField, conflicts);
+
+        assertThat(merged).containsExactly(job1Mine, program, job4, job3);
+        assertThat(conflicts).isEmpty();
+    }
+
+    @Test
+    public void keepsTheCurrentEntryOfAConflictingChange() {
+        InclusionsAndExclusions.Entry job1 = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "A");
+        InclusionsAndExclusions.Entry job1Mine = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "MINE");
+        InclusionsAndExclusions.Entry job1Theirs = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "THEIRS");
+        InclusionsAndExclusions.Entry program = new InclusionsAndExclusions.PMAExclusion("PGM1", "A");
+        List<String> conflicts = new ArrayList<>();
+
+        List<InclusionsAndExclusions.Entry> merged = EntryDiff.merge(Arrays.asList(job1, program),
+                Collections.singletonList(job1Mine), Arrays.asList(job1Theirs, program),
+                EntryDiffTest::getMainField, conflicts);
+
+        assertThat(merged).containsExactly(job1Theirs);
+        assertThat(conflicts).hasSize(1);
+        assertThat(conflicts.get(0)).contains("JOB1");
+    }
+
+    @Test
+    public void findsNoConflictInTheSameChange() {
+        InclusionsAndExclusions.Entry job1 = new InclusionsAndExclusions.PMAInclusion("JOB1", "", "", "A");
+        InclusionsAndExclusions.Entry job2 = new InclusionsAndExclusions.PMAInclusion("JOB2", "", "", "A");
+        List<String> conflicts = new ArrayList<>();
+
+        List<InclusionsAndExclusions.Entry> merged = EntryDiff.merge(Arrays.asList(job1, job2),
+                Collections.singletonList(job1), Collections.singletonList(job1), EntryDiffTest::getMainField,
+                conflicts);
+
+        assertThat(merged).containsExactly(job1);
+        assertThat(conflicts).isEmpty();
+    }
+
+    private static String getMainField(InclusionsAndExclusions.Entry entry) {
+        return entry instanceof InclusionsAndExclusions.PMAInclusion
+                ? ((InclusionsAndExclusions.PMAInclusion) entry).getJobname()
+                : ((InclusionsAndExclusions.PMAExclusion) entry).getProgram();
+    }
+}
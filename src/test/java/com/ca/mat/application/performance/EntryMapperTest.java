@@ -0,0 +1,59 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.mapping.EntryMapper;
+import com.ca.mat.application.performance.view.CreatePMAProfile;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntryMapperTest {
+
+    private final EntryMapper<CreatePMAProfile.AddProfile> mapper = EntryMapper.of(CreatePMAProfile.AddProfile.class);
+
+    @Test
+    public void readsTheProfilePropertiesByTheirMapping() {
+        JSONObject properties = new JSONObject();
+        properties.put("job_acct", "ACCT1");
+        properties.put("job_class", "B");
+        properties.put("job_load", "PMA.LOADLIB");
+        properties.put("job_pmahlq", "PMA");
+
+        CreatePMAProfile.AddProfile profile = mapper.newProfile("pma1", true);
+        mapper.read(profile, properties);
+
+        assertThat(profile.getProfileName()).isEqualTo("pma1");
+        assertThat(profile.getDefaultp()).isTrue();
+        assertThat(profile.getAccountNumber()).isEqualTo("ACCT1");
+        assertThat(profile.getJobClass()).isEqualTo("B");
+        assertThat(profile.getLoadlib()).isEqualTo("PMA.LOADLIB");
+        assertThat(profile.getHlq()).isEqualTo("PMA");
+        assertThat(profile.getMsgClass()).isEmpty();
+    }
+
+    @Test
+    public void appliesTheDefaultsAndSkipsTheEmptyOptions() {
+        CreatePMAProfile.AddProfile profile = new CreatePMAProfile.AddProfile("pma1", "ACCT1", "", "",
+                "PMA.LOADLIB", "PMA", false);
+
+        mapper.applyDefaults(profile);
+
+        assertThat(profile.getMsgClass()).isEqualTo("A");
+        assertThat(mapper.getOptions(profile)).containsExactly("--job_acct", "ACCT1", "--job_load", "PMA.LOADLIB",
+                "--job_pmahlq", "PMA", "--job_mclass", "A");
+    }
+
+    @Test
+    public void listsTheUpdatedFieldsAndTheirOptions() {
+        CreatePMAProfile.AddProfile previous = new CreatePMAProfile.AddProfile("pma1", "ACCT1", "A", "A",
+                "PMA.LOADLIB", "PMA", false);
+        CreatePMAProfile.AddProfile current = new CreatePMAProfile.AddProfile("pma1", "ACCT2", "A", "X",
+                "PMA.LOADLIB", "PMA", false);
+
+        assertThat(mapper.getUpdatedFields(previous, current)).containsExactly("accountNumber", "msgClass");
+        assertThat(mapper.getOptions(current, Arrays.asList("accountNumber", "msgClass", "unknown")))
+                .containsExactly("--job_acct", "ACCT2", "--job_mclass", "X");
+    }
+}
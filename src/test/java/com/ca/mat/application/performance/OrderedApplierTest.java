@@ -0,0 +1,121 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.future.OrderedApplier;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrderedApplierTest {
+
+    @Test
+    public void reportsTheResultsInTheOrderOfTheActions() throws Exception {
+        List<String> actions = Arrays.asList("del A", "add A", "del B", "add C", "add B");
+        List<String> applied = new CopyOnWriteArrayList<>();
+        List<String> results = new ArrayList<>();
+        List<Integer> progress = new ArrayList<>();
+
+        new OrderedApplier<String, String>(3, action -> action.substring(4), action -> {
+            sleep(action.startsWith("del") ? 50 : 1);
+            applied.add(action);
+            return action + " done";
+        }).apply(actions, new OrderedApplier.Listener<String>() {
+            @Override
+            public void applied(int index, String result) {
+                results.add(result);
+            }
+
+            @Override
+            public void progress(int completed, int total) {
+                progress.add(completed);
+            }
+        });
+
+        assertThat(results).containsExactly("del A done", "add A done", "del B done", "add C done", "add B done");
+        assertThat(applied.indexOf("del A")).isLessThan(applied.indexOf("add A"));
+        assertThat(applied.indexOf("del B")).isLessThan(applied.indexOf("add B"));
+        assertThat(progress).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void appliesTheActionsWithoutKeyAlone() throws Exception {
+        List<String> actions = Arrays.asList("add A", "add B", "add *", "add C", "add D");
+        AtomicInteger running = new AtomicInteger();
+        List<String> alone = Collections.synchronizedList(new ArrayList<>());
+
+        new OrderedApplier<String, String>(4, action -> action.contains("*") ? null : action, action -> {
+            if (running.incrementAndGet() == 1 && action.contains("*")) {
+                alone.add(action);
+            }
+            sleep(10);
+            running.decrementAndGet();
+            return action;
+        }).apply(actions, listener());
+
+        assertThat(alone).containsExactly("add *");
+    }
+
+    @Test
+    public void neverExceedsTheConcurrency() throws Exception {
+        List<Integer> actions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            actions.add(i);
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maximum = new AtomicInteger();
+        ConcurrentHashMap<Integer, Boolean> applied = new ConcurrentHashMap<>();
+
+        new OrderedApplier<Integer, Integer>(2, action -> action, action -> {
+            maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(5);
+            running.decrementAndGet();
+            applied.put(action, true);
+            return action;
+        }).apply(actions, listener());
+
+        assertThat(maximum.get()).isLessThanOrEqualTo(2);
+        assertThat(applied).hasSize(20);
+    }
+
+    @Test
+    public void stopsAtTheFirstFailure() {
+        List<String> actions = Arrays.asList("add A", "fail", "add B", "add C");
+
+        assertThatThrownBy(() -> new OrderedApplier<String, String>(2, action -> action, action -> {
+            if (action.equals("fail")) {
+                throw new IllegalStateException(action);
+            }
+            return action;
+        }).apply(actions, listener())).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private static <R> OrderedApplier.Listener<R> listener() {
+        return new OrderedApplier.Listener<R>() {
+            @Override
+            public void applied(int index, R result) {
+            }
+
+            @Override
+            public void progress(int completed, int total) {
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.mapping.ScopeIndex;
+import com.ca.mat.application.performance.model.ListSnapshot;
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScopeIndexTest {
+
+    private final ScopeIndex index = new ScopeIndex(new ListSnapshot<>(7, 0, Arrays.asList(
+            new InclusionsAndExclusions.PMAInclusion("PAYJOB", "STEP1", "", "B"),
+            new InclusionsAndExclusions.PMAExclusion("PAYPGM", "A"),
+            new InclusionsAndExclusions.PMAInclusion("BILLJOB", "PAYSTEP", "PROC1", "C"),
+            new InclusionsAndExclusions.PMAExclusion("OTHER", "D"))));
+
+    @Test
+    public void findsTheEntriesInTheSavedOrder() {
+        assertThat(index.getVersion()).isEqualTo(7);
+        assertThat(index.find(null, null, false)).containsExactly(0, 1, 2, 3);
+        assertThat(index.find("", "unknown", true)).containsExactly(3, 2, 1, 0);
+    }
+
+    @Test
+    public void findsTheEntriesByThePrefixOfAnySearchedField() {
+        assertThat(index.find("pay", null, false)).containsExactly(0, 1, 2);
+        assertThat(index.find("PROC", null, false)).containsExactly(2);
+        assertThat(index.find("JOB", null, false)).isEmpty();
+    }
+
+    @Test
+    public void sortsTheFoundEntriesByAField() {
+        assertThat(index.find(null, "description", false)).containsExactly(1, 0, 2, 3);
+        assertThat(index.find("pay", "jobname", true)).containsExactly(0, 2, 1);
+        assertThat(ScopeIndex.getField("program", index.getEntries().get(1))).isEqualTo("PAYPGM");
+        assertThat(ScopeIndex.getField("program", index.getEntries().get(0))).isEmpty();
+    }
+}
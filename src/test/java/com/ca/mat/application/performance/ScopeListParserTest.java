@@ -0,0 +1,64 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.future.ScopeListParser;
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScopeListParserTest {
+
+    @Test
+    public void parsesTheIncludedJobs() throws IOException {
+        List<InclusionsAndExclusions.Entry> entries = ScopeListParser.inclusions().parse(getOutput("getlj.txt"));
+
+        assertThat(entries).hasSize(26);
+        InclusionsAndExclusions.PMAInclusion first = (InclusionsAndExclusions.PMAInclusion) entries.get(0);
+        assertThat(first.getJobname()).isEqualTo(".");
+        assertThat(first.getStepname()).isEqualTo("&&%");
+        assertThat(first.getProcstep()).isEqualTo(")))");
+        assertThat(first.getDescription()).isEmpty();
+        InclusionsAndExclusions.PMAInclusion last = (InclusionsAndExclusions.PMAInclusion) entries.get(25);
+        assertThat(last.getJobname()).isEqualTo("WERT453");
+        assertThat(last.getDescription()).isEqualTo("WEBHWGUIGWRYH");
+    }
+
+    @Test
+    public void parsesTheExcludedProgramsLineByLine() throws IOException {
+        ScopeListParser parser = ScopeListParser.exclusions();
+        try (Scanner scanner = new Scanner(getOutput("getlp.txt"))) {
+            while (scanner.hasNextLine()) {
+                parser.accept(scanner.nextLine());
+            }
+        }
+
+        assertThat(parser.getEntries()).hasSize(29);
+        InclusionsAndExclusions.PMAExclusion first = (InclusionsAndExclusions.PMAExclusion) parser.getEntries().get(0);
+        assertThat(first.getProgram()).isEqualTo("ABBS");
+        assertThat(first.getDescription()).isEqualTo("EXCL BY PMA JENKINS PLG");
+    }
+
+    @Test
+    public void acceptsWindowsLineSeparators() throws IOException {
+        String output = getOutput("getlp.txt").replace("\n", "\r\n");
+
+        assertThat(ScopeListParser.exclusions().parse(output)).hasSize(29);
+    }
+
+    /**
+     * Reads the command output of a fixture, without its license comment.
+     */
+    private static String getOutput(String fixture) throws IOException {
+        try (InputStream stream = ScopeListParser.class.getResourceAsStream(fixture);
+             Scanner scanner = new Scanner(stream, StandardCharsets.UTF_8.name()).useDelimiter("\\A")) {
+            String content = scanner.next().replace("\r\n", "\n");
+            return content.substring(content.indexOf("-->") + "-->".length() + 1);
+        }
+    }
+}
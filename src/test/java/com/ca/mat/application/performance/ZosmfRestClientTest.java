@@ -0,0 +1,141 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.zosmf.ZosmfRestClient;
+import com.ca.mat.application.performance.model.SpoolFile;
+import com.ca.mat.application.performance.model.ZosmfJob;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ZosmfRestClientTest {
+
+    private static final String JOBS = "/zosmf/restjobs/jobs";
+
+    private HttpServer server;
+    private ZosmfRestClient client;
+    private final AtomicInteger statusRequests = new AtomicInteger();
+    private final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+    private final List<String> submittedBodies = new ArrayList<>();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(JOBS, this::handle);
+        server.start();
+        client = new ZosmfRestClient("http://localhost:" + server.getAddress().getPort() + "/",
+                "IBMUSER", "SYS1", true, 10000);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void submitPollAndReadSpool() throws IOException {
+        ZosmfJob job = client.submitDataset("IBMUSER.JCL(TESTJOB)");
+        assertThat(job.getJobname()).isEqualTo("TESTJOB");
+        assertThat(job.getJobid()).isEqualTo("JOB00042");
+        assertThat(job.isComplete()).isFalse();
+        assertThat(submittedBodies).containsExactly("{\"file\":\"//'IBMUSER.JCL(TESTJOB)'\"}");
+
+        while (!job.isComplete()) {
+            job = client.getStatus(job);
+        }
+        assertThat(statusRequests.get()).isEqualTo(2);
+        assertThat(job.getRetcode()).isEqualTo("CC 0000");
+
+        List<SpoolFile> files = client.getSpoolFiles(job);
+        assertThat(files).extracting(SpoolFile::getDdname).containsExactly("JESMSGLG", "JESJCL");
+        List<String> lines = new ArrayList<>();
+        for (SpoolFile file : files) {
+            client.readSpoolFile(job, file, lines::add);
+        }
+        assertThat(lines).containsExactly("$HASP395 TESTJOB  ENDED - RC=0000", "//STEP1 EXEC PGM=IEFBR14");
+
+        // every response is read to the end, so all the requests share one keep-alive connection
+        assertThat(connections).hasSize(1);
+    }
+
+    @Test
+    public void reportsHttpErrors() {
+        ZosmfJob unknown = new ZosmfJob("NOJOB", "JOB00001", null, null);
+        assertThatThrownBy(() -> client.getStatus(unknown))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("HTTP 404");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        connections.add(exchange.getRemoteAddress().getPort());
+        String expectedAuthorization = "Basic " + Base64.getEncoder()
+                .encodeToString("IBMUSER:SYS1".getBytes(StandardCharsets.UTF_8));
+        if (!expectedAuthorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))
+                || !"true".equals(exchange.getRequestHeaders().getFirst("X-CSRF-ZOSMF-HEADER"))) {
+            respond(exchange, 401, "application/json", "{\"rc\":4}");
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (method.equals("PUT") && path.equals(JOBS)) {
+            submittedBodies.add(read(exchange.getRequestBody()));
+            respond(exchange, 201, "application/json", job("INPUT", null));
+        } else if (path.equals(JOBS + "/TESTJOB/JOB00042")) {
+            boolean complete = statusRequests.incrementAndGet() > 1;
+            respond(exchange, 200, "application/json", complete ? job("OUTPUT", "\"CC 0000\"") : job("ACTIVE", null));
+        } else if (path.equals(JOBS + "/TESTJOB/JOB00042/files")) {
+            respond(exchange, 200, "application/json", "[{\"id\":2,\"ddname\":\"JESMSGLG\",\"stepname\":\"JES2\"},"
+                    + "{\"id\":3,\"ddname\":\"JESJCL\",\"stepname\":\"JES2\"}]");
+        } else if (path.equals(JOBS + "/TESTJOB/JOB00042/files/2/records")) {
+            respond(exchange, 200, "text/plain; charset=UTF-8", "$HASP395 TESTJOB  ENDED - RC=0000\n");
+        } else if (path.equals(JOBS + "/TESTJOB/JOB00042/files/3/records")) {
+            respond(exchange, 200, "text/plain; charset=UTF-8", "//STEP1 EXEC PGM=IEFBR14\n");
+        } else {
+            respond(exchange, 404, "application/json", "{\"rc\":4,\"message\":\"No job found\"}");
+        }
+    }
+
+    private static String job(String status, String retcode) {
+        return "{\"jobname\":\"TESTJOB\",\"jobid\":\"JOB00042\",\"owner\":\"IBMUSER\",\"status\":\"" + status
+                + "\",\"retcode\":" + retcode + "}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        read(exchange.getRequestBody());
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            content.write(buffer, 0, count);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package com.ca.mat.application.performance;
+
+import com.ca.mat.application.performance.control.build.ZoweCommandCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.ca.mat.application.performance.control.build.ZoweCommandCache.CONTROLLER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZoweCommandCacheTest {
+
+    private final ZoweCommandCache cache = ZoweCommandCache.get();
+
+    private final List<String> getlj = Arrays.asList("zowe", "pma", "scope", "getlj", "--pma-p", "PMA1");
+
+    @Before
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Test
+    public void cachesOnlyTheReadOnlyQueries() {
+        assertThat(cache.isCacheable(getlj)).isTrue();
+        assertThat(cache.isCacheable(Arrays.asList("zowe", "PROFILES", "list", "pma", "--rfj"))).isTrue();
+        assertThat(cache.isCacheable(Arrays.asList("zowe", "pma", "scope", "incj", "JOB1"))).isFalse();
+    }
+
+    @Test
+    public void normalizesTheCommandAndItsProfile() {
+        cache.putOutput(CONTROLLER, getlj, "JOB1", cache.getEpoch(getlj));
+
+        assertThat(cache.getOutput(CONTROLLER,
+                Arrays.asList("zowe", " pma ", "SCOPE", "", "getlj", "--PMA-P", "PMA1"))).isEqualTo("JOB1");
+        assertThat(cache.getOutput(CONTROLLER,
+                Arrays.asList("zowe", "pma", "scope", "getlj", "--pma-p", "pma1"))).isNull();
+        assertThat(cache.getOutput(CONTROLLER, Arrays.asList("zowe", "pma", "scope", "getlj"))).isNull();
+    }
+
+    @Test
+    public void keepsTheOutputsOfEveryNodeApart() {
+        cache.putOutput("agent1", getlj, "JOB1", cache.getEpoch(getlj));
+        cache.putOutput("agent2", getlj, "JOB2", cache.getEpoch(getlj));
+
+        assertThat(cache.getOutput("agent1", getlj)).isEqualTo("JOB1");
+        assertThat(cache.getOutput("agent2", getlj)).isEqualTo("JOB2");
+        assertThat(cache.getOutput(CONTROLLER, getlj)).isNull();
+
+        cache.invalidate(Arrays.asList("zowe", "pma", "scope", "incj", "JOB3"));
+        assertThat(cache.getOutput("agent1", getlj)).isNull();
+        assertThat(cache.getOutput("agent2", getlj)).isNull();
+    }
+
+    @Test
+    public void invalidatesTheQueriesOfTheChangedGroup() {
+        List<String> profiles = Arrays.asList("zowe", "profiles", "list", "pma", "--rfj");
+        cache.putOutput(CONTROLLER, getlj, "JOB1", cache.getEpoch(getlj));
+        cache.putOutput(CONTROLLER, profiles, "PMA1", cache.getEpoch(profiles));
+
+        cache.invalidate(Arrays.asList("zowe", "pma", "scope", "incj", "JOB2", "--pma-p", "PMA1"));
+        assertThat(cache.getOutput(CONTROLLER, getlj)).isNull();
+        assertThat(cache.getOutput(CONTROLLER, profiles)).isEqualTo("PMA1");
+
+        long generation = cache.getGeneration();
+        cache.invalidate(Arrays.asList("zowe", "profiles", "create", "pma", "PMA2"));
+        assertThat(cache.getOutput(CONTROLLER, profiles)).isNull();
+        assertThat(cache.getGeneration()).isEqualTo(generation + 1);
+    }
+
+    @Test
+    public void doesNotCacheAnOutputReadWhileItsGroupIsInvalidated() {
+        long epoch = cache.getEpoch(getlj);
+        cache.invalidate(Arrays.asList("zowe", "pma", "scope", "excp", "PGM1"));
+        assertThat(cache.putOutput(CONTROLLER, getlj, "stale", epoch)).isFalse();
+        assertThat(cache.getOutput(CONTROLLER, getlj)).isNull();
+
+        epoch = cache.getEpoch(getlj);
+        cache.invalidateAll();
+        assertThat(cache.putOutput(CONTROLLER, getlj, "stale", epoch)).isFalse();
+
+        epoch = cache.getEpoch(getlj);
+        cache.invalidate(Arrays.asList("zowe", "endevor", "update", "element"));
+        assertThat(cache.putOutput(CONTROLLER, getlj, "JOB1", epoch)).isTrue();
+        assertThat(cache.getOutput(CONTROLLER, getlj)).isEqualTo("JOB1");
+    }
+
+    @Test
+    public void expiresTheOutputsAfterTheTimeToLive() {
+        long ttl = TimeUnit.SECONDS.toNanos(ZoweCommandCache.DEFAULT_TTL);
+
+        assertThat(cache.isExpired(System.nanoTime())).isFalse();
+        assertThat(cache.isExpired(System.nanoTime() - ttl / 2)).isFalse();
+        assertThat(cache.isExpired(System.nanoTime() - ttl - TimeUnit.SECONDS.toNanos(1))).isTrue();
+    }
+}
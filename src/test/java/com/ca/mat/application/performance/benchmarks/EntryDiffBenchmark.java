@@ -0,0 +1,208 @@
+package com.ca.mat.application.performance.benchmarks;
+
+import com.ca.mat.application.performance.control.mapping.EntryDiff;
+import com.ca.mat.application.performance.control.mapping.EntryMapper;
+import com.ca.mat.application.performance.model.EntryAction;
+import com.ca.mat.application.performance.model.UpdateAction;
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link EntryDiff} of a saved and a submitted monitoring scope of 10,000 and 100,000 job inclusions,
+ * one in a hundred of them deleted, added or updated. The nested loops and the reflection it replaced are measured
+ * at 1,000 and 10,000 entries only, as they are quadratic.
+ *
+ * <p>Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.ca.mat.application.performance.benchmarks.EntryDiffBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntryDiffBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Scopes {
+
+        @Param({"10000", "100000"})
+        public int entries;
+
+        private List<InclusionsAndExclusions.Entry> saved;
+
+        private List<InclusionsAndExclusions.Entry> submitted;
+
+        @Setup
+        public void setUp() {
+            saved = createSaved(entries);
+            submitted = createSubmitted(entries);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LegacyScopes {
+
+        @Param({"1000", "10000"})
+        public int legacyEntries;
+
+        private List<InclusionsAndExclusions.Entry> saved;
+
+        private List<InclusionsAndExclusions.Entry> submitted;
+
+        @Setup
+        public void setUp() {
+            saved = createSaved(legacyEntries);
+            submitted = createSubmitted(legacyEntries);
+        }
+    }
+
+    @Benchmark
+    public List<EntryAction<InclusionsAndExclusions.Entry>> diff(Scopes scopes) {
+        EntryDiff<InclusionsAndExclusions.Entry> diff = new EntryDiff<>(scopes.saved, scopes.submitted,
+                EntryDiffBenchmark::getMainField);
+        return diff.getUpdated();
+    }
+
+    @Benchmark
+    public List<EntryAction<InclusionsAndExclusions.Entry>> legacyDiff(LegacyScopes scopes) {
+        List<EntryAction<InclusionsAndExclusions.Entry>> deleteEntries = getDifferentEntries(scopes.saved,
+                scopes.submitted, EntryAction.ActionType.delete);
+        List<EntryAction<InclusionsAndExclusions.Entry>> newEntries = getDifferentEntries(scopes.submitted,
+                scopes.saved, EntryAction.ActionType.add);
+        return getUpdatedEntries(deleteEntries, newEntries);
+    }
+
+    private static List<InclusionsAndExclusions.Entry> createSaved(int entries) {
+        List<InclusionsAndExclusions.Entry> saved = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            saved.add(new InclusionsAndExclusions.PMAInclusion("JOB" + i, "STEP", "", "INCL BY PMA JENKINS PLG"));
+        }
+        return saved;
+    }
+
+    /**
+     * Copies the saved scope, with one in a hundred entries deleted, one updated and one added.
+     */
+    private static List<InclusionsAndExclusions.Entry> createSubmitted(int entries) {
+        List<InclusionsAndExclusions.Entry> submitted = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            if (i % 100 == 1) {
+                continue;
+            }
+            String description = i % 100 == 2 ? "UPDATED" : "INCL BY PMA JENKINS PLG";
+            submitted.add(new InclusionsAndExclusions.PMAInclusion("JOB" + i, "STEP", "", description));
+            if (i % 100 == 3) {
+                submitted.add(new InclusionsAndExclusions.PMAInclusion("NEW" + i, "STEP", "", "ADDED"));
+            }
+        }
+        return submitted;
+    }
+
+    private static String getMainField(InclusionsAndExclusions.Entry entry) {
+        return ((InclusionsAndExclusions.PMAInclusion) entry).getJobname();
+    }
+
+    /**
+     * The previous MultipleEntryFields.getDifferentEntries.
+     */
+    private static List<EntryAction<InclusionsAndExclusions.Entry>> getDifferentEntries(
+            List<InclusionsAndExclusions.Entry> firstCompared, List<InclusionsAndExclusions.Entry> secondCompared,
+            EntryAction.ActionType type) {
+        List<EntryAction<InclusionsAndExclusions.Entry>> entries = new ArrayList<>();
+        for (InclusionsAndExclusions.Entry firstEntry : firstCompared) {
+            boolean found = false;
+            for (InclusionsAndExclusions.Entry secondEntry : secondCompared) {
+                if (checkObjectContent(firstEntry, secondEntry)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                entries.add(new EntryAction<>(firstEntry, type));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * The previous MultipleEntryFields.getUpdatedEntries.
+     */
+    private static List<EntryAction<InclusionsAndExclusions.Entry>> getUpdatedEntries(
+            List<EntryAction<InclusionsAndExclusions.Entry>> deleteEntries,
+            List<EntryAction<InclusionsAndExclusions.Entry>> newEntries) {
+        List<EntryAction<InclusionsAndExclusions.Entry>> updatedEntries = new ArrayList<>();
+        Iterator<EntryAction<InclusionsAndExclusions.Entry>> deleteIterator = deleteEntries.iterator();
+        while (deleteIterator.hasNext()) {
+            EntryAction<InclusionsAndExclusions.Entry> deletedEntry = deleteIterator.next();
+            Iterator<EntryAction<InclusionsAndExclusions.Entry>> addIterator = newEntries.iterator();
+            while (addIterator.hasNext()) {
+                EntryAction<InclusionsAndExclusions.Entry> newEntry = addIterator.next();
+                if (getMainField(deletedEntry.getEntry()).equals(getMainField(newEntry.getEntry()))) {
+                    InclusionsAndExclusions.Entry entry = deletedEntry.getEntry();
+                    List<String> updatedFields = EntryMapper.of(entry).getUpdatedFields(entry, newEntry.getEntry());
+                    updatedEntries.add(new UpdateAction<>(newEntry.getEntry(), entry, updatedFields));
+                    addIterator.remove();
+                    deleteIterator.remove();
+                    break;
+                }
+            }
+        }
+        return updatedEntries;
+    }
+
+    /**
+     * The previous MultipleEntryFields.checkObjectContent.
+     */
+    private static boolean checkObjectContent(Object entry1, Object entry2) {
+        if (entry1.getClass() == entry2.getClass()) {
+            Field[] declaredFields = entry1.getClass().getDeclaredFields();
+            Field[] parentDeclaredFields = entry1.getClass().getSuperclass().getDeclaredFields();
+            int found = checkDeclaredFields(declaredFields, entry1, entry2);
+            found += checkDeclaredFields(parentDeclaredFields, entry1, entry2);
+            return found == declaredFields.length + parentDeclaredFields.length;
+        }
+        return false;
+    }
+
+    private static int checkDeclaredFields(Field[] declaredFields, Object entry1, Object entry2) {
+        int found = 0;
+        for (Field field : declaredFields) {
+            if (!field.isAccessible()) {
+                field.setAccessible(true);
+            }
+            try {
+                Object field1 = field.get(entry1);
+                Object field2 = field.get(entry2);
+                if (field1 != null && field2 != null && field1.equals(field2)) {
+                    found++;
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return found;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EntryDiffBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,151 @@
+package com.ca.mat.application.performance.benchmarks;
+
+import com.ca.mat.application.performance.control.annotation.PluginSetting;
+import com.ca.mat.application.performance.control.annotation.ProfileMapping;
+import com.ca.mat.application.performance.control.mapping.EntryMapper;
+import com.ca.mat.application.performance.view.CreatePMAProfile;
+import net.sf.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the precompiled {@link EntryMapper} with the per-profile reflection it replaced, when reading the
+ * profiles listed by zowe and when evaluating the updated fields of the profiles.
+ *
+ * <p>Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.ca.mat.application.performance.benchmarks.ProfileMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfileMapperBenchmark {
+
+    @Param({"100", "10000"})
+    public int profiles;
+
+    private List<JSONObject> properties;
+
+    private List<CreatePMAProfile.AddProfile> previous;
+
+    private List<CreatePMAProfile.AddProfile> current;
+
+    @Setup
+    public void setUp() {
+        properties = new ArrayList<>(profiles);
+        for (int i = 0; i < profiles; i++) {
+            JSONObject profile = new JSONObject();
+            profile.put("job_acct", "ACCT" + i);
+            profile.put("job_class", "A");
+            profile.put("job_load", "PMA.LOADLIB");
+            profile.put("job_pmahlq", "PMA" + i);
+            profile.put("job_mclass", i % 2 == 0 ? "A" : "X");
+            properties.add(profile);
+        }
+        EntryMapper<CreatePMAProfile.AddProfile> mapper = EntryMapper.of(CreatePMAProfile.AddProfile.class);
+        previous = new ArrayList<>(profiles);
+        current = new ArrayList<>(profiles);
+        for (int i = 0; i < profiles; i++) {
+            CreatePMAProfile.AddProfile before = mapper.newProfile("profile" + i, false);
+            mapper.read(before, properties.get(i));
+            previous.add(before);
+            CreatePMAProfile.AddProfile after = mapper.newProfile("profile" + i, false);
+            mapper.read(after, properties.get((i + 1) % profiles));
+            current.add(after);
+        }
+    }
+
+    @Benchmark
+    public void readWithMapper(Blackhole blackhole) {
+        EntryMapper<CreatePMAProfile.AddProfile> mapper = EntryMapper.of(CreatePMAProfile.AddProfile.class);
+        for (int i = 0; i < profiles; i++) {
+            CreatePMAProfile.AddProfile profile = mapper.newProfile("profile" + i, false);
+            mapper.read(profile, properties.get(i));
+            blackhole.consume(profile);
+        }
+    }
+
+    @Benchmark
+    public void readWithReflection(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < profiles; i++) {
+            JSONObject profilesObj = properties.get(i);
+            Class<?> classType = Class.forName(CreatePMAProfile.AddProfile.class.getTypeName());
+            Constructor<?> constructor = classType.getConstructor(String.class, boolean.class);
+            Object instance = constructor.newInstance("profile" + i, false);
+            for (Field field : classType.getDeclaredFields()) {
+                if (field.isAnnotationPresent(PluginSetting.class)) {
+                    continue;
+                }
+                if (!field.isAccessible()) {
+                    field.setAccessible(true);
+                }
+                String fieldName = field.getName();
+                if (!profilesObj.has(fieldName) && field.isAnnotationPresent(ProfileMapping.class)) {
+                    fieldName = field.getAnnotation(ProfileMapping.class).value();
+                }
+                Object content = profilesObj.has(fieldName) ? profilesObj.get(fieldName) : "";
+                switch (field.getType().getTypeName()) {
+                    case "boolean":
+                        content = Boolean.parseBoolean(content.toString());
+                        break;
+                    default:
+                        content = content.toString();
+                        break;
+                }
+                field.set(instance, content);
+            }
+            blackhole.consume(instance);
+        }
+    }
+
+    @Benchmark
+    public void updatedFieldsWithMapper(Blackhole blackhole) {
+        EntryMapper<CreatePMAProfile.AddProfile> mapper = EntryMapper.of(CreatePMAProfile.AddProfile.class);
+        for (int i = 0; i < profiles; i++) {
+            blackhole.consume(mapper.getUpdatedFields(previous.get(i), current.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void updatedFieldsWithReflection(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < profiles; i++) {
+            CreatePMAProfile.AddProfile deletedEntry = previous.get(i);
+            CreatePMAProfile.AddProfile newEntry = current.get(i);
+            List<String> updatedFields = new ArrayList<>();
+            for (Field field : deletedEntry.getClass().getDeclaredFields()) {
+                if (!field.isAccessible()) {
+                    field.setAccessible(true);
+                }
+                if (!field.get(deletedEntry).equals(field.get(newEntry))) {
+                    updatedFields.add(field.getName());
+                }
+            }
+            blackhole.consume(updatedFields);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProfileMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,149 @@
+package com.ca.mat.application.performance.benchmarks;
+
+import com.ca.mat.application.performance.control.future.ScopeListParser;
+import com.ca.mat.application.performance.view.InclusionsAndExclusions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the {@link ScopeListParser} with the split and per-line pattern compilation it replaced, on the
+ * getlj.txt and getlp.txt fixtures scaled up by repeating their entries.
+ *
+ * <p>Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.ca.mat.application.performance.benchmarks.ScopeListParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScopeListParserBenchmark {
+
+    private static final String SCOPE_GET_LIST_INCLUSION_PATTERN =
+            "^\\s([a-zA-Z#@&$._)][a-zA-Z0-9#@%&$_)*]{0,7})\\s{1,8}([a-zA-Z#@&$._)]" +
+                    "[a-zA-Z0-9#@%&$)*]{0,7})?\\s{1,8}([a-z0-9A-Z#@&$._)]" +
+                    "[a-zA-Z0-9#@%&$)*]{0,7})?\\s{1,8}[I|E](.*)$";
+    private static final String SCOPE_GET_LIST_EXCLUSION_PATTERN =
+            "\\s([a-zA-Z#@&$._)][a-zA-Z0-9#@%&$)*]" +
+            "{0,9})\\s{1,9}EXCLUDED (.*)";
+
+    @Param({"1000", "100000"})
+    public int entries;
+
+    private String getlj;
+
+    private String getlp;
+
+    @Setup
+    public void setUp() throws IOException {
+        getlj = scale("getlj.txt", entries);
+        getlp = scale("getlp.txt", entries);
+    }
+
+    @Benchmark
+    public List<InclusionsAndExclusions.Entry> inclusionsWithParser() {
+        return ScopeListParser.inclusions().parse(getlj);
+    }
+
+    @Benchmark
+    public List<InclusionsAndExclusions.Entry> inclusionsWithSplit() {
+        return parseWithSplit(getlj, true);
+    }
+
+    @Benchmark
+    public List<InclusionsAndExclusions.Entry> exclusionsWithParser() {
+        return ScopeListParser.exclusions().parse(getlp);
+    }
+
+    @Benchmark
+    public List<InclusionsAndExclusions.Entry> exclusionsWithSplit() {
+        return parseWithSplit(getlp, false);
+    }
+
+    /**
+     * The previous parsing of GetEntryList.
+     */
+    private static List<InclusionsAndExclusions.Entry> parseWithSplit(String response, boolean inclusions) {
+        List<InclusionsAndExclusions.Entry> entries = new ArrayList<>();
+        String[] outputLines = response.split(System.lineSeparator());
+        for (int i = 2; i < outputLines.length; i++) {
+            String line = outputLines[i];
+            if (inclusions) {
+                Matcher matcher = Pattern.compile(SCOPE_GET_LIST_INCLUSION_PATTERN).matcher(line);
+                while (matcher.find()) {
+                    entries.add(new InclusionsAndExclusions.PMAInclusion(
+                            matcher.group(1) == null ? "" : matcher.group(1),
+                            matcher.group(2) == null ? "" : matcher.group(2),
+                            matcher.group(3) == null ? "" : matcher.group(3),
+                            matcher.group(4) == null ? "" : matcher.group(4).trim()));
+                }
+            } else {
+                Matcher matcher = Pattern.compile(SCOPE_GET_LIST_EXCLUSION_PATTERN).matcher(line);
+                while (matcher.find()) {
+                    entries.add(new InclusionsAndExclusions.PMAExclusion(
+                            matcher.group(1) == null ? "" : matcher.group(1),
+                            matcher.group(2) == null ? "" : matcher.group(2).trim()));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads a fixture without its license comment, and repeats its entries up to the given number of lines.
+     */
+    static String scale(String fixture, int entries) throws IOException {
+        List<String> header = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        try (InputStream stream = ScopeListParser.class.getResourceAsStream(fixture);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            boolean comment = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (comment) {
+                    comment = !line.startsWith("-->");
+                } else if (header.size() < 3) {
+                    header.add(line);
+                } else {
+                    lines.add(line);
+                }
+            }
+        }
+        StringBuilder output = new StringBuilder();
+        for (String line : header) {
+            output.append(line).append(System.lineSeparator());
+        }
+        for (int i = 0; i < entries; i++) {
+            output.append(lines.get(i % lines.size())).append(System.lineSeparator());
+        }
+        return output.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ScopeListParserBenchmark.class.getSimpleName()).build()).run();
+    }
+}